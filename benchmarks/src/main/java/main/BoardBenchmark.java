@@ -0,0 +1,67 @@
+package main;
+
+import maze.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures <code>Board</code> generation, parsing and wall probing.
+ * <p>
+ * Run with <code>-prof gc</code> to get the allocation per operation
+ * (<code>gc.alloc.rate.norm</code>).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Param({"25", "100", "400"})
+    public int size;
+
+    @Param({"42"})
+    public long seed;
+
+    private String boardText;
+    private Board board;
+
+    @Setup(Level.Trial)
+    public void generateBoard() throws IOException {
+        boardText = BoardFixtures.perfectMaze(size, size, seed);
+        board = new Board(new StringReader(boardText));
+    }
+
+    /**
+     * Not reproducible, <code>Board(int,int)</code> can't be seeded.
+     */
+    @Benchmark
+    public Board generate() {
+        return new Board(size, size);
+    }
+
+    @Benchmark
+    public Board parse() throws IOException {
+        return new Board(new StringReader(boardText));
+    }
+
+    /**
+     * One operation probes all four directions, like <code>LeftWalker</code> does at worst.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void mayMove(Blackhole blackhole) {
+        for (Direction direction : DIRECTIONS) {
+            blackhole.consume(board.mayMove(direction));
+        }
+    }
+}
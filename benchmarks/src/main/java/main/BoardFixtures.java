@@ -0,0 +1,99 @@
+package main;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible boards for benchmarks.
+ * <p>
+ * <code>Board(int,int)</code> draws from <code>Math.random()</code>, so boards are
+ * generated here from a fixed seed and handed to <code>Board(Reader)</code> as text.
+ */
+final class BoardFixtures {
+
+    private static final int WALL_NORTH = 1;
+    private static final int WALL_SOUTH = 2;
+    private static final int WALL_EAST = 4;
+    private static final int WALL_WEST = 8;
+    private static final int START = 16;
+    private static final int TARGET = 32;
+
+    private BoardFixtures() { }
+
+    /**
+     * Generate a perfect maze (exactly one route between any two squares)
+     * with a randomized depth-first search.
+     *
+     * @param width  number of columns
+     * @param height number of rows
+     * @param seed   random seed
+     * @return board in the text format read by <code>Board(Reader)</code>
+     */
+    static String perfectMaze(int width, int height, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int[] cells = new int[width * height];
+        Arrays.fill(cells, WALL_NORTH | WALL_SOUTH | WALL_EAST | WALL_WEST);
+
+        boolean[] visited = new boolean[cells.length];
+        int[] stack = new int[cells.length];
+        int[] neighbours = new int[4];
+        int top = 0;
+
+        stack[top++] = 0;
+        visited[0] = true;
+
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int x = cell % width;
+            int y = cell / width;
+
+            int count = 0;
+            if (y > 0 && !visited[cell - width]) neighbours[count++] = cell - width;
+            if (y < height - 1 && !visited[cell + width]) neighbours[count++] = cell + width;
+            if (x < width - 1 && !visited[cell + 1]) neighbours[count++] = cell + 1;
+            if (x > 0 && !visited[cell - 1]) neighbours[count++] = cell - 1;
+
+            if (count == 0) {
+                top--;
+                continue;
+            }
+
+            int next = neighbours[random.nextInt(count)];
+            if (next == cell - width) {
+                cells[cell] &= ~WALL_NORTH;
+                cells[next] &= ~WALL_SOUTH;
+            } else if (next == cell + width) {
+                cells[cell] &= ~WALL_SOUTH;
+                cells[next] &= ~WALL_NORTH;
+            } else if (next == cell + 1) {
+                cells[cell] &= ~WALL_EAST;
+                cells[next] &= ~WALL_WEST;
+            } else {
+                cells[cell] &= ~WALL_WEST;
+                cells[next] &= ~WALL_EAST;
+            }
+
+            visited[next] = true;
+            stack[top++] = next;
+        }
+
+        int start = random.nextInt(cells.length);
+        int target = random.nextInt(cells.length - 1);
+        cells[start] |= START;
+        cells[target < start ? target : target + 1] |= TARGET;
+
+        StringBuilder text = new StringBuilder(cells.length * 3);
+        text.append(width).append(',').append(height).append('\n');
+        for (int y = 0; y != height; ++y) {
+            for (int x = 0; x != width; ++x) {
+                if (x != 0) {
+                    text.append(',');
+                }
+                text.append(cells[y * width + x]);
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
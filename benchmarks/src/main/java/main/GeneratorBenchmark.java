@@ -0,0 +1,40 @@
+package main;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+
+/**
+ * Measures seeded maze generation with <code>MazeGenerator</code>,
+ * to compare with <code>BoardBenchmark.generate</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+
+    @Param({"100", "1000", "4000"})
+    public int size;
+
+    @Param({"DIVISION", "KRUSKAL", "ELLER"})
+    public MazeGenerator.Algorithm algorithm;
+
+    @Param({"42"})
+    public long seed;
+
+    private MazeGenerator generator;
+
+    @Setup(Level.Trial)
+    public void createGenerator() {
+        generator = new MazeGenerator(algorithm, seed);
+    }
+
+    @Benchmark
+    public CompactBoard generate() {
+        return generator.generate(size, size);
+    }
+}
@@ -0,0 +1,60 @@
+package main;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+
+/**
+ * Measures route searches on big generated mazes, single-threaded <code>PathFinder</code>
+ * against <code>ParallelPathFinder</code> with a growing number of threads, and building
+ * and querying a <code>RegionIndex</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PathFinderBenchmark {
+
+    @Param({"1000", "4000"})
+    public int size;
+
+    @Param({"1", "4", "32"})
+    public int parallelism;
+
+    @Param({"42"})
+    public long seed;
+
+    private CompactBoard board;
+    private RegionIndex index;
+
+    @Setup(Level.Trial)
+    public void generateBoard() {
+        board = new MazeGenerator(MazeGenerator.Algorithm.DIVISION, seed).generate(size, size);
+        index = new RegionIndex(board, RegionIndex.DEFAULT_CLUSTER_SIZE, parallelism);
+    }
+
+    @Benchmark
+    public MoveBuffer breadthFirst() {
+        return PathFinder.findRoute(board, PathFinder.Strategy.BFS);
+    }
+
+    @Benchmark
+    public MoveBuffer parallelBidirectional() {
+        ParallelPathFinder finder = new ParallelPathFinder(board);
+        finder.setParallelism(parallelism);
+        return finder.findRoute();
+    }
+
+    @Benchmark
+    public RegionIndex regionIndexBuild() {
+        return new RegionIndex(board, RegionIndex.DEFAULT_CLUSTER_SIZE, parallelism);
+    }
+
+    @Benchmark
+    public MoveBuffer regionIndexQuery() {
+        return index.findRoute();
+    }
+}
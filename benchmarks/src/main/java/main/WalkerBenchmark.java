@@ -0,0 +1,91 @@
+package main;
+
+import maze.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+
+/**
+ * Measures walkers solving a fixed board from start to finish.
+ * <p>
+ * One operation is one complete solve, i.e. all the <code>move</code> calls
+ * the walker needs for the board. Run with <code>-prof gc</code> to get the
+ * allocation per solve (<code>gc.alloc.rate.norm</code>). See
+ * <code>WalkerMoveBenchmark</code> for single moves.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WalkerBenchmark {
+
+    /**
+     * Random walker doesn't need to finish, it only has to walk long enough.
+     */
+    private static final long RANDOM_WALKER_MAX_MOVES = 100_000;
+
+    @Param({"25", "100", "400"})
+    public int size;
+
+    @Param({"42"})
+    public long seed;
+
+    private String boardText;
+    private Board board;
+
+    @Setup(Level.Trial)
+    public void generateBoard() {
+        boardText = BoardFixtures.perfectMaze(size, size, seed);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetBoard() throws IOException {
+        board = new Board(new StringReader(boardText));
+    }
+
+    @Benchmark
+    public SolveResult leftWalker() {
+        return new HeadlessSolver().solve(new LeftWalker(), board);
+    }
+
+    @Benchmark
+    public SolveResult smarterLeftWalker() {
+        return new HeadlessSolver().solve(new SmarterLeftWalker(), board);
+    }
+
+    /**
+     * Compare with <code>leftWalker</code> for the cost of the decorator when it's disabled.
+     */
+    @Benchmark
+    public SolveResult instrumentedLeftWalkerDisabled() {
+        InstrumentedWalker walker = new InstrumentedWalker(new LeftWalker());
+        walker.getMetrics().setEnabled(false);
+        return new HeadlessSolver().solve(walker, board);
+    }
+
+    @Benchmark
+    public SolveResult instrumentedLeftWalker() {
+        return new HeadlessSolver().solve(new InstrumentedWalker(new LeftWalker()), board);
+    }
+
+    @Benchmark
+    public SolveResult cachingLeftWalker() {
+        return new HeadlessSolver().solve(new CachingWalker(new LeftWalker()), board);
+    }
+
+    @Benchmark
+    public SolveResult cachingSmarterLeftWalker() {
+        return new HeadlessSolver().solve(new CachingWalker(new SmarterLeftWalker()), board);
+    }
+
+    @Benchmark
+    public SolveResult randomWalker() {
+        return new HeadlessSolver(RANDOM_WALKER_MAX_MOVES).solve(new RandomWalker(), board);
+    }
+}
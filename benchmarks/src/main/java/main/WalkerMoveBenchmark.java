@@ -0,0 +1,108 @@
+package main;
+
+import maze.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+
+/**
+ * Measures single moves of walkers on a fixed board.
+ * <p>
+ * One operation is one <code>move</code> call and the move it makes on a
+ * <code>CompactBoard</code>. <code>Walker.move</code> is protected, but the walkers
+ * here override it in package <code>main</code>, so it's called directly, without
+ * <code>HeadlessSolver</code> around it. When a walk ends, the board and the walker
+ * start over, once per solve. Run with <code>-prof gc</code> to get the allocation
+ * per move (<code>gc.alloc.rate.norm</code>).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WalkerMoveBenchmark {
+
+    @Param({"25", "100", "400"})
+    public int size;
+
+    @Param({"42"})
+    public long seed;
+
+    private CompactBoard board;
+    private LeftWalker leftWalker;
+    private SmarterLeftWalker smarterLeftWalker;
+    private CachingWalker cachingLeftWalker;
+    private RandomWalker randomWalker;
+
+    @Setup(Level.Trial)
+    public void generateBoard() throws IOException {
+        board = CompactBoard.read(new StringReader(BoardFixtures.perfectMaze(size, size, seed)));
+    }
+
+    @Setup(Level.Iteration)
+    public void startWalks() {
+        board.reset();
+        leftWalker = new LeftWalker();
+        smarterLeftWalker = new SmarterLeftWalker();
+        cachingLeftWalker = new CachingWalker(new LeftWalker());
+        randomWalker = new RandomWalker();
+    }
+
+    @Benchmark
+    public Direction leftWalker() {
+        Direction direction = leftWalker.move(board);
+        if (walkEnded(direction)) {
+            leftWalker = new LeftWalker();
+        }
+        return direction;
+    }
+
+    @Benchmark
+    public Direction smarterLeftWalker() {
+        Direction direction = smarterLeftWalker.move(board);
+        if (walkEnded(direction)) {
+            smarterLeftWalker = new SmarterLeftWalker();
+        }
+        return direction;
+    }
+
+    @Benchmark
+    public Direction cachingLeftWalker() {
+        Direction direction = cachingLeftWalker.move(board);
+        if (walkEnded(direction)) {
+            cachingLeftWalker = new CachingWalker(new LeftWalker());
+        }
+        return direction;
+    }
+
+    @Benchmark
+    public Direction randomWalker() {
+        Direction direction = randomWalker.move(board);
+        if (walkEnded(direction)) {
+            randomWalker = new RandomWalker();
+        }
+        return direction;
+    }
+
+    /**
+     * Make the move, and put the walker back on the start square once the walk is over.
+     *
+     * @param direction move chosen by the walker, may be null
+     * @return whether the walk is over and the walker has to be replaced
+     */
+    private boolean walkEnded(Direction direction) {
+        if (direction != null) {
+            board.move(direction);
+        }
+        if (direction == null || board.isSolved()) {
+            board.reset();
+            return true;
+        }
+        return false;
+    }
+}
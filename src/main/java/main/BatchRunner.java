@@ -0,0 +1,154 @@
+package main;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Generates and solves a batch of boards in parallel.
+ * <p>
+ * Board <code>i</code> is generated by a <code>MazeGenerator</code> seeded with
+ * <code>seed + i</code>, on the thread solving it, so a batch is the same whatever the
+ * parallelism and threads share no random numbers. Each board gets its own
+ * <code>Walker</code> from a <code>WalkerFactory</code> and is solved by a
+ * <code>HeadlessSolver</code>.
+ */
+public class BatchRunner {
+
+    /**
+     * Kind of executor the boards are solved on.
+     */
+    public enum ExecutorKind {
+        /**
+         * A <code>ForkJoinPool</code> with one thread per core by default.
+         */
+        FORK_JOIN,
+        /**
+         * One virtual thread per board. Needs JDK 21 or newer.
+         */
+        VIRTUAL_THREADS
+    }
+
+    private final int boardCount;
+    private final int width;
+    private final int height;
+    private final WalkerFactory walkerFactory;
+
+    private MazeGenerator.Algorithm algorithm = MazeGenerator.Algorithm.ELLER;
+    private long seed = System.nanoTime();
+    private ExecutorKind executorKind = ExecutorKind.FORK_JOIN;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long maxMoves = Long.MAX_VALUE;
+
+    /**
+     * Create new <code>BatchRunner</code>
+     *
+     * @param boardCount    number of boards to generate
+     * @param width         width of each board
+     * @param height        height of each board
+     * @param walkerFactory creates a fresh walker for each board
+     */
+    public BatchRunner(int boardCount, int width, int height, WalkerFactory walkerFactory) {
+        this.boardCount = boardCount;
+        this.width = width;
+        this.height = height;
+        this.walkerFactory = walkerFactory;
+    }
+
+    public void setAlgorithm(MazeGenerator.Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * @param seed seed of the first board, the others follow
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setExecutorKind(ExecutorKind executorKind) {
+        this.executorKind = executorKind;
+    }
+
+    /**
+     * @param parallelism number of threads of the fork/join pool
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param maxMoves maximum number of moves per board, see <code>HeadlessSolver</code>
+     */
+    public void setMaxMoves(long maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Generate and solve all boards.
+     *
+     * @return statistics over all boards
+     * @throws InterruptedException if interrupted while waiting for the boards
+     */
+    public BatchStatistics run() throws InterruptedException {
+        HeadlessSolver solver = new HeadlessSolver(maxMoves);
+
+        List<Callable<SolveResult>> tasks = new ArrayList<>(boardCount);
+        for (int i = 0; i != boardCount; ++i) {
+            MazeGenerator generator = new MazeGenerator(algorithm, seed + i);
+            generator.setParallelism(1);
+            tasks.add(() -> {
+                CompactBoard board = generator.generate(width, height);
+                return solver.solve(walkerFactory.create(board), board);
+            });
+        }
+
+        ExecutorService executor = createExecutor();
+        try {
+            long time = System.nanoTime();
+            List<Future<SolveResult>> futures = executor.invokeAll(tasks);
+
+            SolveResult[] results = new SolveResult[boardCount];
+            for (int i = 0; i != boardCount; ++i) {
+                results[i] = futures.get(i).get();
+            }
+
+            time = System.nanoTime() - time;
+            return new BatchStatistics(results, time);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Solving board failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        switch (executorKind) {
+            case VIRTUAL_THREADS:
+                return newVirtualThreadPerTaskExecutor();
+            case FORK_JOIN:
+            default:
+                return new ForkJoinPool(parallelism);
+        }
+    }
+
+    /**
+     * Project is built for Java 11, so virtual threads are looked up reflectively.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Virtual threads need JDK 21 or newer");
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException("Cannot create virtual thread executor", e);
+        }
+    }
+}
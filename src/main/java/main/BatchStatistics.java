@@ -0,0 +1,95 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Aggregate statistics over a batch of headless solves.
+ */
+public class BatchStatistics {
+
+    private final int[] steps;
+    private final long[] solveTimesNanos;
+    private final int solved;
+    private final long wallTimeNanos;
+
+    /**
+     * Create new <code>BatchStatistics</code>
+     *
+     * @param results       per-board results
+     * @param wallTimeNanos wall time of the whole batch
+     */
+    public BatchStatistics(SolveResult[] results, long wallTimeNanos) {
+        this.steps = new int[results.length];
+        this.solveTimesNanos = new long[results.length];
+        this.wallTimeNanos = wallTimeNanos;
+
+        int solved = 0;
+        for (int i = 0; i != results.length; ++i) {
+            steps[i] = results[i].getSteps();
+            solveTimesNanos[i] = results[i].getWallTimeNanos();
+            if (results[i].isSolved()) {
+                solved++;
+            }
+        }
+        this.solved = solved;
+    }
+
+    public int getBoards() {
+        return steps.length;
+    }
+
+    public int getSolved() {
+        return solved;
+    }
+
+    /**
+     * @return step count of each board, in board order
+     */
+    public int[] getSteps() {
+        return steps.clone();
+    }
+
+    /**
+     * @return solve time of each board in nanoseconds, in board order
+     */
+    public long[] getSolveTimesNanos() {
+        return solveTimesNanos.clone();
+    }
+
+    public int getMinSteps() {
+        return Arrays.stream(steps).min().orElse(0);
+    }
+
+    public int getMaxSteps() {
+        return Arrays.stream(steps).max().orElse(0);
+    }
+
+    public double getMeanSteps() {
+        return Arrays.stream(steps).average().orElse(0);
+    }
+
+    public double getMeanSolveTimeMillis() {
+        return Arrays.stream(solveTimesNanos).average().orElse(0) / 1e6;
+    }
+
+    public long getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000;
+    }
+
+    /**
+     * @return boards solved per second of wall time
+     */
+    public double getThroughput() {
+        return wallTimeNanos == 0 ? 0 : steps.length * 1e9 / wallTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d boards solved in %dms (%.1f boards/s)%n"
+                        + "Steps: min %d, mean %.1f, max %d%n"
+                        + "Mean solve time: %.3fms",
+                solved, steps.length, getWallTimeMillis(), getThroughput(),
+                getMinSteps(), getMeanSteps(), getMaxSteps(),
+                getMeanSolveTimeMillis());
+    }
+}
@@ -0,0 +1,234 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads the text format read by <code>Board(Reader)</code> one row at a time.
+ * <p>
+ * Numbers are parsed as they are read, without splitting lines into strings.
+ * Walls and validation follow <code>Board(Reader)</code>: a wall given by either of the
+ * squares it separates blocks both of them, so the reader keeps one row ahead of the
+ * row it returns.
+ */
+class BoardTextReader {
+
+    private final BufferedReader reader;
+    private int next;
+
+    /**
+     * Separator found after the last integer: ',', '\n' or -1 at end of input.
+     */
+    private int lastSeparator;
+
+    private final int width;
+    private final int height;
+    private int row = 0;
+
+    // Next row to return, with the walls its neighbours above and on its sides gave it.
+    private int[] ahead;
+    private int returnedRows = 0;
+
+    private int startX = -1;
+    private int startY = -1;
+    private int targetX = -1;
+    private int targetY = -1;
+
+    /**
+     * Create new <code>BoardTextReader</code> and read board size.
+     *
+     * @param reader source
+     * @throws IOException if reading fails
+     */
+    BoardTextReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.next = read();
+
+        width = nextInt();
+        height = nextInt();
+        if (lastSeparator != '\n') {
+            throw new RuntimeException("First line of input must only hold board size");
+        }
+        if (width <= 0 || height <= 0) {
+            throw new RuntimeException("Invalid board size in input");
+        }
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Read the next row. Rows missing from input have only the walls of their neighbours,
+     * like in <code>Board(Reader)</code>.
+     *
+     * @param walls receives wall masks (see <code>GridBoard</code>) of the row, at least <code>width</code> long
+     * @return false if all <code>height</code> rows have been read
+     * @throws IOException if reading fails
+     */
+    boolean readRow(int[] walls) throws IOException {
+        if (returnedRows == height) {
+            return false;
+        }
+        if (ahead == null) {
+            ahead = new int[width];
+            parseRow(ahead);
+        }
+
+        System.arraycopy(ahead, 0, walls, 0, width);
+        returnedRows++;
+        if (returnedRows != height) {
+            parseRow(ahead);
+            for (int x = 0; x != width; ++x) {
+                // South walls of this row are north walls of the next one, and the other way round.
+                if ((walls[x] & 1 << 2) != 0) {
+                    ahead[x] |= 1;
+                }
+                if ((ahead[x] & 1) != 0) {
+                    walls[x] |= 1 << 2;
+                }
+            }
+        }
+        for (int x = 0; x != width - 1; ++x) {
+            if ((walls[x] & 1 << 1) != 0) {
+                walls[x + 1] |= 1 << 3;
+            }
+            if ((walls[x + 1] & 1 << 3) != 0) {
+                walls[x] |= 1 << 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse the next row of input, or give an empty row if input has no more rows.
+     */
+    private void parseRow(int[] walls) throws IOException {
+        if (!hasNext()) {
+            Arrays.fill(walls, 0);
+            return;
+        }
+
+        for (int x = 0; x != width; ++x) {
+            int value = nextInt();
+            boolean endOfRow = lastSeparator == '\n' || lastSeparator == -1;
+            if (endOfRow != (x == width - 1)) {
+                throw new RuntimeException("Row " + row + " of input has incorrect number of columns");
+            }
+
+            if ((value & GridBoard.TEXT_TARGET) != 0) {
+                if (targetX != -1) {
+                    throw new RuntimeException("More than one target position in input");
+                }
+                targetX = x;
+                targetY = row;
+            } else if ((value & GridBoard.TEXT_START) != 0) {
+                if (startX != -1) {
+                    throw new RuntimeException("More than one start position in input");
+                }
+                startX = x;
+                startY = row;
+            }
+
+            value &= ~(GridBoard.TEXT_START | GridBoard.TEXT_TARGET);
+            if (value < 0 || value > 15) {
+                throw new RuntimeException("Invalid value for row " + row + ", col " + x + " in input");
+            }
+
+            walls[x] = GridBoard.fromTextWalls(value);
+        }
+
+        row++;
+    }
+
+    /**
+     * Check that the whole input has been read and it had a start and a target.
+     *
+     * @throws IOException if reading fails
+     */
+    void finish() throws IOException {
+        finish(false);
+    }
+
+    /**
+     * Check that the whole input has been read and it had a target.
+     *
+     * @param startMayBeTarget if true, a missing start is taken to be on the target square
+     * @throws IOException if reading fails
+     */
+    void finish(boolean startMayBeTarget) throws IOException {
+        if (hasNext()) {
+            throw new RuntimeException("Too many rows in input");
+        }
+        if (targetX == -1) {
+            throw new RuntimeException("Missing target position in input");
+        }
+        if (startX == -1 && startMayBeTarget) {
+            startX = targetX;
+            startY = targetY;
+        } else if (startX == -1) {
+            throw new RuntimeException("Missing start position in input");
+        }
+    }
+
+    int getStartX() {
+        return startX;
+    }
+
+    int getStartY() {
+        return startY;
+    }
+
+    int getTargetX() {
+        return targetX;
+    }
+
+    int getTargetY() {
+        return targetY;
+    }
+
+    private boolean hasNext() throws IOException {
+        while (next == '\n') {
+            next = read();
+        }
+        return next != -1;
+    }
+
+    private int nextInt() throws IOException {
+        boolean negative = next == '-';
+        if (negative) {
+            next = read();
+        }
+        if (next < '0' || next > '9') {
+            throw new NumberFormatException("Expected a number in input");
+        }
+
+        int value = 0;
+        while (next >= '0' && next <= '9') {
+            value = value * 10 + (next - '0');
+            next = read();
+        }
+
+        lastSeparator = next;
+        if (next == ',' || next == '\n') {
+            next = read();
+        } else if (next != -1) {
+            throw new NumberFormatException("Unexpected character '" + (char) next + "' in input");
+        }
+        return negative ? -value : value;
+    }
+
+    private int read() throws IOException {
+        int c;
+        do {
+            c = reader.read();
+        } while (c == '\r' || c == ' ' || c == '\t');
+        return c;
+    }
+}
@@ -0,0 +1,85 @@
+package main;
+
+import maze.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Decorates a <code>Walker</code> to store the route it walks in a <code>RouteCache</code>
+ * once it reaches the target.
+ * <p>
+ * Use <code>forBoard</code>, which replays a cached route instead, if there is one.
+ * Moves into walls are left out of the stored route, so the decorator asks the view
+ * about every move it passes on.
+ */
+public class CachedRouteWalker extends Walker {
+
+    private final RouteCache cache;
+    private final GridBoard board;
+    private final Walker walker;
+    private final MoveBuffer route = new MoveBuffer();
+
+    private int posX;
+    private int posY;
+
+    /**
+     * Create new <code>CachedRouteWalker</code>
+     *
+     * @param cache  where to store the route
+     * @param board  the board to be walked, or a copy of it
+     * @param walker the walker to decorate
+     */
+    public CachedRouteWalker(RouteCache cache, GridBoard board, Walker walker) {
+        super(walker.getName());
+        this.cache = cache;
+        this.board = board;
+        this.walker = walker;
+        this.posX = board.getStartX();
+        this.posY = board.getStartY();
+    }
+
+    /**
+     * Create a walker for <code>board</code>: a <code>RouteWalker</code> replaying the cached
+     * route if there is one, otherwise a new walker which fills the cache.
+     *
+     * @param cache   a route cache
+     * @param board   the board to be walked, or a copy of it
+     * @param walkers creates the walker to use when no route is cached
+     * @return a walker for <code>board</code>
+     * @throws IOException if reading the cache fails
+     */
+    public static Walker forBoard(RouteCache cache, GridBoard board, Supplier<Walker> walkers) throws IOException {
+        MoveBuffer cachedRoute = cache.get(board);
+        if (cachedRoute != null) {
+            return new RouteWalker("Cached Route Walker", cachedRoute);
+        }
+        return new CachedRouteWalker(cache, board, walkers.get());
+    }
+
+    @Override
+    protected Direction move(View view) {
+        Direction direction = WalkerAccess.move(walker, view);
+        if (direction == null || !view.mayMove(direction)) {
+            return direction;
+        }
+
+        route.add(direction);
+        posX += GridBoard.dx(direction.ordinal());
+        posY += GridBoard.dy(direction.ordinal());
+        if (posX == board.getTargetX() && posY == board.getTargetY()) {
+            try {
+                cache.put(board, route);
+            } catch (IOException e) {
+                // Walker.move can't throw checked exceptions.
+                throw new UncheckedIOException(e);
+            }
+        }
+        return direction;
+    }
+
+    public Walker getWalker() {
+        return walker;
+    }
+}
@@ -0,0 +1,96 @@
+package main;
+
+import maze.*;
+
+/**
+ * A <code>View</code> which remembers the walls of every square it has been asked about,
+ * so no direction of a square is probed on the underlying view twice.
+ * <p>
+ * The caller tells where the walker is with <code>moveTo</code>. Each square keeps one
+ * byte in a <code>SquareMaskTable</code>: the low 4 bits are its wall mask, the high 4 bits
+ * tell which of them are known. <code>wallMask</code> fetches all unknown walls at once,
+ * in a single call if the underlying view is a <code>WallMaskView</code>.
+ */
+public class CachingView implements WallMaskView {
+
+    private static final int KNOWN_SHIFT = 4;
+    private static final int ALL_KNOWN = GridBoard.ALL_WALLS << KNOWN_SHIFT;
+
+    private final SquareMaskTable table;
+    private View view;
+    private int x = 0;
+    private int y = 0;
+    private long probes = 0;
+
+    /**
+     * Create new <code>CachingView</code>
+     *
+     * @param view  the view to ask about unknown walls, may be set later
+     * @param table where to keep the walls of visited squares
+     */
+    public CachingView(View view, SquareMaskTable table) {
+        this.view = view;
+        this.table = table;
+    }
+
+    @Override
+    public boolean mayMove(Direction direction) {
+        int d = direction.ordinal();
+        int entry = table.get(x, y);
+        if ((entry & (1 << KNOWN_SHIFT << d)) == 0) {
+            probes++;
+            boolean open = view.mayMove(direction);
+            entry |= (1 << KNOWN_SHIFT << d) | (open ? 0 : 1 << d);
+            table.put(x, y, entry);
+        }
+        return (entry & (1 << d)) == 0;
+    }
+
+    @Override
+    public int wallMask() {
+        int entry = table.get(x, y);
+        if ((entry & ALL_KNOWN) != ALL_KNOWN) {
+            if (view instanceof WallMaskView) {
+                probes++;
+                entry = ALL_KNOWN | ((WallMaskView) view).wallMask();
+            } else {
+                for (int d = 0; d != 4; ++d) {
+                    if ((entry & (1 << KNOWN_SHIFT << d)) == 0) {
+                        probes++;
+                        entry |= (1 << KNOWN_SHIFT << d)
+                                | (view.mayMove(LeftWalker.getDirection(d)) ? 0 : 1 << d);
+                    }
+                }
+            }
+            table.put(x, y, entry);
+        }
+        return entry & GridBoard.ALL_WALLS;
+    }
+
+    /**
+     * @param view the view to ask about unknown walls from now on
+     */
+    public void setView(View view) {
+        this.view = view;
+    }
+
+    /**
+     * Tell where the walker of the underlying view is. Any coordinates work,
+     * as long as they change the same way the walker moves.
+     */
+    public void moveTo(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public SquareMaskTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return number of calls made to the underlying view
+     */
+    public long getProbes() {
+        return probes;
+    }
+}
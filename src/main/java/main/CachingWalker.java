@@ -0,0 +1,58 @@
+package main;
+
+import maze.*;
+
+/**
+ * Decorates a <code>Walker</code> to walk through a <code>CachingView</code>.
+ * <p>
+ * The decorated walker never probes a wall twice, which pays off on views where a probe
+ * is expensive, like a <code>StreamingBoard</code> or a remote view, and for walkers
+ * which keep coming back to the same squares. Squares are tracked relative to the start.
+ */
+public class CachingWalker extends Walker {
+
+    private final Walker walker;
+    private final CachingView cachingView;
+
+    private int posX = 0;
+    private int posY = 0;
+
+    public CachingWalker(Walker walker) {
+        this(walker, new SquareMaskTable());
+    }
+
+    /**
+     * Create new <code>CachingWalker</code>
+     *
+     * @param walker the walker to decorate
+     * @param table  where to keep the walls of visited squares
+     */
+    public CachingWalker(Walker walker, SquareMaskTable table) {
+        super(walker.getName());
+        this.walker = walker;
+        this.cachingView = new CachingView(null, table);
+    }
+
+    @Override
+    protected Direction move(View view) {
+        cachingView.setView(view);
+        cachingView.moveTo(posX, posY);
+
+        Direction direction = WalkerAccess.move(walker, cachingView);
+
+        // Blocked moves are ignored by the board, so only follow open ones.
+        if (direction != null && cachingView.mayMove(direction)) {
+            posX += GridBoard.dx(direction.ordinal());
+            posY += GridBoard.dy(direction.ordinal());
+        }
+        return direction;
+    }
+
+    public Walker getWalker() {
+        return walker;
+    }
+
+    public CachingView getView() {
+        return cachingView;
+    }
+}
@@ -0,0 +1,40 @@
+package main;
+
+import maze.*;
+
+/**
+ * A <code>View</code> which counts how often it's asked whether a move is possible.
+ */
+public class CountingView implements View {
+
+    private View view;
+    private long probes = 0;
+
+    public CountingView(View view) {
+        this.view = view;
+    }
+
+    @Override
+    public boolean mayMove(Direction direction) {
+        probes++;
+        return view.mayMove(direction);
+    }
+
+    /**
+     * @param view the view to forward to from now on
+     */
+    public void setView(View view) {
+        this.view = view;
+    }
+
+    /**
+     * @return number of <code>mayMove</code> calls since the last reset
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    public void resetProbes() {
+        probes = 0;
+    }
+}
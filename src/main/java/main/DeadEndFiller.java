@@ -0,0 +1,97 @@
+package main;
+
+/**
+ * Fills dead ends of a known board, so walkers don't wander into them.
+ * <p>
+ * A square with a single open side which is neither start nor target is a dead end.
+ * Walling it in may turn its neighbour into a dead end too, so dead ends are filled
+ * from a worklist until none are left. Every square enters the worklist at most once,
+ * so filling takes one linear pass over the board.
+ * <p>
+ * Filling never cuts the way from start to target. On a perfect maze only the solution
+ * path is left open, loops of other mazes are kept.
+ */
+public class DeadEndFiller {
+
+    private long filledSquares = 0;
+
+    /**
+     * Fill all dead ends of <code>board</code>.
+     *
+     * @param board a board with start and target set
+     * @return new <code>CompactBoard</code> where filled squares are walled in on all sides
+     */
+    public CompactBoard fill(GridBoard board) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        if ((long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board " + width + "x" + height + " is too big to fill");
+        }
+
+        CompactBoard filled = new CompactBoard(width, height);
+        byte[] degrees = new byte[width * height];
+        int[] worklist = new int[width * height];
+        int worklistSize = 0;
+
+        int start = board.getStartY() * width + board.getStartX();
+        int target = board.getTargetY() * width + board.getTargetX();
+
+        for (int y = 0, square = 0; y != height; ++y) {
+            for (int x = 0; x != width; ++x, ++square) {
+                int walls = board.getWalls(x, y);
+                filled.setWalls(x, y, walls);
+
+                int degree = 0;
+                for (int direction = 0; direction != 4; ++direction) {
+                    if (board.mayMove(x, y, direction)) {
+                        degree++;
+                    }
+                }
+                degrees[square] = (byte) degree;
+                if (degree <= 1 && square != start && square != target) {
+                    worklist[worklistSize++] = square;
+                }
+            }
+        }
+        filled.setStart(board.getStartX(), board.getStartY());
+        filled.setTarget(board.getTargetX(), board.getTargetY());
+
+        long count = 0;
+        while (worklistSize > 0) {
+            int square = worklist[--worklistSize];
+            int x = square % width;
+            int y = square / width;
+
+            if (degrees[square] == 0) {
+                // Walled in already, nothing leads here.
+                continue;
+            }
+
+            int direction = 0;
+            while (!filled.mayMove(x, y, direction)) {
+                direction++;
+            }
+            int nextX = x + GridBoard.dx(direction);
+            int nextY = y + GridBoard.dy(direction);
+            int next = nextY * width + nextX;
+
+            filled.setWall(x, y, direction, true);
+            degrees[square] = 0;
+            count++;
+
+            if (--degrees[next] == 1 && next != start && next != target) {
+                worklist[worklistSize++] = next;
+            }
+        }
+
+        filledSquares = count;
+        return filled;
+    }
+
+    /**
+     * @return number of squares walled in by the last <code>fill</code>
+     */
+    public long getFilledSquares() {
+        return filledSquares;
+    }
+}
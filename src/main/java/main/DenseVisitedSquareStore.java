@@ -0,0 +1,96 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of <code>VisitedSquareStore</code> for when board bounds are known.
+ * <p>
+ * Exit info is packed into a flat <code>byte[]</code>, two squares (nibbles) per byte.
+ */
+public class DenseVisitedSquareStore implements VisitedSquareStore {
+
+    private final byte[] nibbles;
+
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+
+    private int size = 0;
+
+    /**
+     * Create new <code>DenseVisitedSquareStore</code> covering a rectangle of squares.
+     *
+     * @param minX   smallest x coordinate
+     * @param minY   smallest y coordinate
+     * @param width  number of columns
+     * @param height number of rows
+     */
+    public DenseVisitedSquareStore(int minX, int minY, int width, int height) {
+        long squares = (long) width * height;
+        if (width <= 0 || height <= 0 || squares > 2L * (Integer.MAX_VALUE - 8)) {
+            throw new IllegalArgumentException("Invalid store size " + width + "x" + height);
+        }
+
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+        this.nibbles = new byte[(int) ((squares + 1) >>> 1)];
+    }
+
+    /**
+     * Create a store big enough for a walker on a board of given size.
+     * <p>
+     * Walker coordinates are relative to the start square, which could be anywhere
+     * on the board. The store therefore covers twice the board in each dimension.
+     *
+     * @param boardWidth  number of columns of the board
+     * @param boardHeight number of rows of the board
+     * @return new store
+     */
+    public static DenseVisitedSquareStore forBoard(int boardWidth, int boardHeight) {
+        return new DenseVisitedSquareStore(1 - boardWidth, 1 - boardHeight,
+                2 * boardWidth - 1, 2 * boardHeight - 1);
+    }
+
+    @Override
+    public int getExitInfo(int x, int y) {
+        long index = indexOf(x, y);
+        return (nibbles[(int) (index >>> 1)] >>> ((index & 1) << 2)) & 0xF;
+    }
+
+    @Override
+    public void markExit(int x, int y, int direction) {
+        long index = indexOf(x, y);
+        int byteIndex = (int) (index >>> 1);
+        int shift = (int) ((index & 1) << 2);
+
+        int packed = nibbles[byteIndex];
+        if (((packed >>> shift) & 0xF) == 0) {
+            // First exit taken from this square.
+            size++;
+        }
+        nibbles[byteIndex] = (byte) (packed | (1 << (direction + shift)));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(nibbles, (byte) 0);
+        size = 0;
+    }
+
+    private long indexOf(int x, int y) {
+        int column = x - minX;
+        int row = y - minY;
+        if (column < 0 || column >= width || row < 0 || row >= height) {
+            throw new IndexOutOfBoundsException("Square (" + x + "," + y + ") is outside of store");
+        }
+        return (long) row * width + column;
+    }
+}
@@ -0,0 +1,301 @@
+package main;
+
+import maze.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Base class for our own board models. Implements <code>View</code>,
+ * so any <code>Walker</code> can walk on it.
+ * <p>
+ * Walls of a square are described by a 4-bit wall mask. Bit <code>d</code> is set
+ * when there is a wall in integer direction <code>d</code> (same encoding as
+ * <code>LeftWalker</code>: 0 north, 1 east, 2 south, 3 west).
+ * <p>
+ * Like <code>Board</code>, x grows to the east and y grows to the south.
+ */
+public abstract class GridBoard implements WallMaskView {
+
+    /**
+     * Wall bits of the text format read by <code>Board(Reader)</code>.
+     */
+    protected static final int TEXT_WALL_NORTH = 1;
+    protected static final int TEXT_WALL_SOUTH = 2;
+    protected static final int TEXT_WALL_EAST = 4;
+    protected static final int TEXT_WALL_WEST = 8;
+    protected static final int TEXT_START = 16;
+    protected static final int TEXT_TARGET = 32;
+
+    public static final int ALL_WALLS = 0xF;
+
+    protected final int width;
+    protected final int height;
+
+    protected int startX;
+    protected int startY;
+    protected int targetX;
+    protected int targetY;
+
+    protected int posX;
+    protected int posY;
+
+    protected GridBoard(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid board size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Get walls of a square.
+     *
+     * @param x x coordinate of the square
+     * @param y y coordinate of the square
+     * @return 4-bit wall mask
+     */
+    public abstract int getWalls(int x, int y);
+
+    public boolean hasWall(int x, int y, int direction) {
+        return (getWalls(x, y) & (1 << direction)) != 0;
+    }
+
+    /**
+     * Check if a square can be left in <code>direction</code>.
+     * Leaving the board is never possible, even if the input had no border walls.
+     *
+     * @param x         x coordinate of the square
+     * @param y         y coordinate of the square
+     * @param direction integer direction
+     * @return whether <code>direction</code> can be taken
+     */
+    public boolean mayMove(int x, int y, int direction) {
+        if (hasWall(x, y, direction)) {
+            return false;
+        }
+        int nextX = x + dx(direction);
+        int nextY = y + dy(direction);
+        return nextX >= 0 && nextX < width && nextY >= 0 && nextY < height;
+    }
+
+    @Override
+    public boolean mayMove(Direction direction) {
+        return mayMove(posX, posY, direction.ordinal());
+    }
+
+    /**
+     * @return walls around the walker, edges of the board count as walls
+     */
+    @Override
+    public int wallMask() {
+        int walls = getWalls(posX, posY);
+        if (posY == 0) {
+            walls |= 1;
+        }
+        if (posX == width - 1) {
+            walls |= 2;
+        }
+        if (posY == height - 1) {
+            walls |= 4;
+        }
+        if (posX == 0) {
+            walls |= 8;
+        }
+        return walls;
+    }
+
+    /**
+     * Move the walker.
+     *
+     * @param direction integer direction
+     * @return whether the walker actually moved
+     */
+    public boolean move(int direction) {
+        if (!mayMove(posX, posY, direction)) {
+            return false;
+        }
+        posX += dx(direction);
+        posY += dy(direction);
+        return true;
+    }
+
+    public boolean move(Direction direction) {
+        return move(direction.ordinal());
+    }
+
+    /**
+     * Put the walker on a square without walking there, e.g. to resume an interrupted walk.
+     *
+     * @param x x coordinate of the square
+     * @param y y coordinate of the square
+     */
+    void setPosition(int x, int y) {
+        checkSquare(x, y);
+        posX = x;
+        posY = y;
+    }
+
+    public boolean isSolved() {
+        return posX == targetX && posY == targetY;
+    }
+
+    /**
+     * Put the walker back on the start square.
+     */
+    public void reset() {
+        posX = startX;
+        posY = startY;
+    }
+
+    public void setStart(int x, int y) {
+        checkSquare(x, y);
+        startX = x;
+        startY = y;
+        reset();
+    }
+
+    public void setTarget(int x, int y) {
+        checkSquare(x, y);
+        targetX = x;
+        targetY = y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    public int getTargetX() {
+        return targetX;
+    }
+
+    public int getTargetY() {
+        return targetY;
+    }
+
+    public int getPosX() {
+        return posX;
+    }
+
+    public int getPosY() {
+        return posY;
+    }
+
+    /**
+     * Write this board in the text format read by <code>Board(Reader)</code>.
+     *
+     * @param writer destination
+     * @throws IOException if writing fails
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write(width + "," + height + "\n");
+
+        for (int y = 0; y != height; ++y) {
+            for (int x = 0; x != width; ++x) {
+                if (x != 0) {
+                    writer.write(',');
+                }
+
+                int value = toTextWalls(getWalls(x, y));
+                if (x == startX && y == startY) {
+                    value |= TEXT_START;
+                }
+                if (x == targetX && y == targetY) {
+                    value |= TEXT_TARGET;
+                }
+                writer.write(Integer.toString(value));
+            }
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Convert to a <code>maze.Board</code>, e.g. to show it in a <code>MazeWindow</code>.
+     *
+     * @return new <code>Board</code> with the same walls, start and target
+     */
+    public Board toBoard() {
+        try {
+            return new Board(new StringReader(toString()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        try {
+            write(writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
+
+    protected void checkSquare(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Square (" + x + "," + y + ") is outside of board");
+        }
+    }
+
+    /**
+     * @param direction integer direction
+     * @return change of x when moving in <code>direction</code>
+     */
+    public static int dx(int direction) {
+        return direction == 1 ? 1 : direction == 3 ? -1 : 0;
+    }
+
+    /**
+     * @param direction integer direction
+     * @return change of y when moving in <code>direction</code>
+     */
+    public static int dy(int direction) {
+        return direction == 2 ? 1 : direction == 0 ? -1 : 0;
+    }
+
+    /**
+     * Convert wall bits of the text format into a wall mask.
+     *
+     * @param textWalls value of a square in the text format
+     * @return 4-bit wall mask
+     */
+    public static int fromTextWalls(int textWalls) {
+        int walls = 0;
+        if ((textWalls & TEXT_WALL_NORTH) != 0) walls |= 1;
+        if ((textWalls & TEXT_WALL_EAST) != 0) walls |= 1 << 1;
+        if ((textWalls & TEXT_WALL_SOUTH) != 0) walls |= 1 << 2;
+        if ((textWalls & TEXT_WALL_WEST) != 0) walls |= 1 << 3;
+        return walls;
+    }
+
+    /**
+     * Convert a wall mask into wall bits of the text format.
+     *
+     * @param walls 4-bit wall mask
+     * @return value of a square in the text format, without start and target bits
+     */
+    public static int toTextWalls(int walls) {
+        int textWalls = 0;
+        if ((walls & 1) != 0) textWalls |= TEXT_WALL_NORTH;
+        if ((walls & (1 << 1)) != 0) textWalls |= TEXT_WALL_EAST;
+        if ((walls & (1 << 2)) != 0) textWalls |= TEXT_WALL_SOUTH;
+        if ((walls & (1 << 3)) != 0) textWalls |= TEXT_WALL_WEST;
+        return textWalls;
+    }
+}
@@ -0,0 +1,129 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of <code>VisitedSquareStore</code> backed by an open-addressing
+ * hash table with primitive <code>long</code> keys.
+ * <p>
+ * Works for any board size and doesn't allocate per square. Use
+ * <code>DenseVisitedSquareStore</code> instead when board bounds are known.
+ */
+public class HashVisitedSquareStore implements VisitedSquareStore {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Table is grown when it becomes more than half full.
+     */
+    private static final int MAX_LOAD_SHIFT = 1;
+
+    private long[] keys;
+
+    /**
+     * Exit info of each slot. A slot is empty when its value is 0,
+     * since stored squares always have at least one used exit.
+     */
+    private byte[] values;
+
+    private int mask;
+    private int size = 0;
+
+    public HashVisitedSquareStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create new <code>HashVisitedSquareStore</code>
+     *
+     * @param expectedSquares number of squares expected to be visited
+     */
+    public HashVisitedSquareStore(int expectedSquares) {
+        int capacity = DEFAULT_CAPACITY;
+        while ((capacity >>> MAX_LOAD_SHIFT) < expectedSquares) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    @Override
+    public int getExitInfo(int x, int y) {
+        long key = toKey(x, y);
+        int slot = hash(key) & mask;
+
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    @Override
+    public void markExit(int x, int y, int direction) {
+        long key = toKey(x, y);
+        int slot = hash(key) & mask;
+
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = (byte) LeftWalker.setUsedExitDirection(values[slot], direction);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // First exit taken from this square.
+        keys[slot] = key;
+        values[slot] = (byte) LeftWalker.setUsedExitDirection(0, direction);
+
+        if (++size > (keys.length >>> MAX_LOAD_SHIFT)) {
+            grow();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, (byte) 0);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+
+        allocate(oldKeys.length << 1);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    protected static long toKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    protected static int hash(long key) {
+        // Fibonacci hashing, uses the well mixed upper bits of the product.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
@@ -0,0 +1,106 @@
+package main;
+
+import maze.*;
+
+/**
+ * Runs a <code>Walker</code> against a <code>Board</code> as fast as possible.
+ * <p>
+ * Unlike <code>Walker.solve(Board)</code> there is no pause between steps.
+ * As long as no <code>MazeWindow</code> is shown, the board doesn't make any GUI calls either.
+ */
+public class HeadlessSolver {
+
+    private final long maxMoves;
+    private MoveListener moveListener = null;
+
+    public HeadlessSolver() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Create new <code>HeadlessSolver</code>
+     *
+     * @param maxMoves maximum number of times a walker is asked for a move before giving up
+     */
+    public HeadlessSolver(long maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * @param moveListener gets notified of every move made on the board, may be null
+     */
+    public void setMoveListener(MoveListener moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    /**
+     * Solve <code>board</code> with <code>walker</code>.
+     * <p>
+     * Gives up when the walker can't find a next move (i.e. returns null)
+     * or after <code>maxMoves</code> moves.
+     *
+     * @param walker a fresh <code>Walker</code>
+     * @param board  a <code>Board</code> that hasn't been walked on
+     * @return result of the solve
+     */
+    public SolveResult solve(Walker walker, Board board) {
+        MoveBuffer moves = new MoveBuffer();
+        Path path = board.getPath();
+
+        long time = System.nanoTime();
+        long movesLeft = maxMoves;
+
+        while (!board.isSolved() && movesLeft-- > 0) {
+            Direction direction = WalkerAccess.move(walker, board);
+            if (direction == null) {
+                break;
+            }
+
+            // Board silently ignores moves into walls, path only grows on real moves.
+            int steps = path.getSteps();
+            WalkerAccess.move(board, direction);
+            if (path.getSteps() != steps) {
+                moved(moves, direction);
+            }
+        }
+
+        time = System.nanoTime() - time;
+        return new SolveResult(walker.getName(), board.isSolved(), moves.size(), time, moves);
+    }
+
+    /**
+     * Solve a <code>GridBoard</code> with <code>walker</code>. Same as
+     * <code>solve(Walker, Board)</code>, but no step allocates.
+     *
+     * @param walker a fresh <code>Walker</code>
+     * @param board  a <code>GridBoard</code> with the walker on its start square
+     * @return result of the solve
+     */
+    public SolveResult solve(Walker walker, GridBoard board) {
+        MoveBuffer moves = new MoveBuffer();
+
+        long time = System.nanoTime();
+        long movesLeft = maxMoves;
+
+        while (!board.isSolved() && movesLeft-- > 0) {
+            Direction direction = WalkerAccess.move(walker, board);
+            if (direction == null) {
+                break;
+            }
+
+            if (board.move(direction)) {
+                moved(moves, direction);
+            }
+        }
+
+        time = System.nanoTime() - time;
+        return new SolveResult(walker.getName(), board.isSolved(), moves.size(), time, moves);
+    }
+
+    private void moved(MoveBuffer moves, Direction direction) {
+        moves.add(direction);
+        if (moveListener != null) {
+            moveListener.onMove(direction.ordinal());
+        }
+    }
+}
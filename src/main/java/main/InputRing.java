@@ -0,0 +1,89 @@
+package main;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded lock-free queue of <code>int</code>s for one producer thread and one
+ * consumer thread, like the EDT posting key commands to a walker.
+ * <p>
+ * Indices only grow. Each side publishes its own index with a release store
+ * (<code>lazySet</code>) after touching the slots, and keeps a cached copy of the
+ * other side's index, so most calls don't read memory written by the other thread.
+ */
+public class InputRing {
+
+    private final int[] slots;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong(); // next slot to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next slot to write, written by the producer
+
+    private long cachedHead = 0; // producer's view of head
+    private long cachedTail = 0; // consumer's view of tail
+
+    /**
+     * Create new <code>InputRing</code>
+     *
+     * @param capacity number of values held at most, rounded up to a power of two
+     */
+    public InputRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Add a value. Producer thread only.
+     *
+     * @param value any value
+     * @return false if the ring is full
+     */
+    public boolean offer(int value) {
+        long t = tail.get();
+        if (t - cachedHead == slots.length) {
+            cachedHead = head.get();
+            if (t - cachedHead == slots.length) {
+                return false;
+            }
+        }
+        slots[(int) t & mask] = value;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Take the oldest value. Consumer thread only.
+     *
+     * @param empty what to return if the ring is empty
+     * @return the oldest value, or <code>empty</code>
+     */
+    public int poll(int empty) {
+        long h = head.get();
+        if (h == cachedTail) {
+            cachedTail = tail.get();
+            if (h == cachedTail) {
+                return empty;
+            }
+        }
+        int value = slots[(int) h & mask];
+        head.lazySet(h + 1);
+        return value;
+    }
+
+    /**
+     * @return number of values queued, may be stale by the time it's used
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
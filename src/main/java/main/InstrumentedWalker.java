@@ -0,0 +1,58 @@
+package main;
+
+import maze.*;
+
+/**
+ * Decorates a <code>Walker</code> to collect <code>WalkerMetrics</code> on every move.
+ * <p>
+ * While the metrics are disabled, a move costs one extra volatile read on top of the
+ * decorated walker's move, so the decorator can stay in place in production runs.
+ */
+public class InstrumentedWalker extends Walker {
+
+    private final Walker walker;
+    private final WalkerMetrics metrics;
+    private final CountingView countingView = new CountingView(null);
+
+    public InstrumentedWalker(Walker walker) {
+        this(walker, new WalkerMetrics(walker.getName(),
+                walker instanceof WalkerStatistics ? (WalkerStatistics) walker : null));
+    }
+
+    /**
+     * Create new <code>InstrumentedWalker</code>
+     *
+     * @param walker  the walker to measure
+     * @param metrics where to record measurements
+     */
+    public InstrumentedWalker(Walker walker, WalkerMetrics metrics) {
+        super(walker.getName());
+        this.walker = walker;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected Direction move(View view) {
+        if (!metrics.isEnabled()) {
+            return WalkerAccess.move(walker, view);
+        }
+
+        countingView.setView(view);
+        countingView.resetProbes();
+
+        long time = System.nanoTime();
+        Direction direction = WalkerAccess.move(walker, countingView);
+        time = System.nanoTime() - time;
+
+        metrics.recordMove(time, countingView.getProbes());
+        return direction;
+    }
+
+    public Walker getWalker() {
+        return walker;
+    }
+
+    public WalkerMetrics getMetrics() {
+        return metrics;
+    }
+}
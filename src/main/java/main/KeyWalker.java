@@ -9,10 +9,29 @@ import java.awt.event.KeyListener;
 
 /**
  * An implementation of <code>Walker</code> that follows user input.
+ * <p>
+ * Key presses are posted by the EDT into an <code>InputRing</code> and taken by the
+ * solving thread one move at a time, so none is lost or seen late. Typing a number
+ * before a direction key repeats the move, e.g. <code>10</code> then right walks ten
+ * squares east.
  */
 public class KeyWalker extends Walker implements KeyListener {
 
-    private Direction currentDirection = null;
+    private static final int QUEUED_COMMANDS = 256;
+
+    /**
+     * Commands hold the repeat count above the 2-bit direction.
+     */
+    static final int MAX_REPEAT = Integer.MAX_VALUE >>> 2;
+
+    private final InputRing commands = new InputRing(QUEUED_COMMANDS);
+
+    // Only touched by the EDT.
+    private int repeatCount = 0;
+
+    // Only touched by the solving thread.
+    private int currentDirection = 0;
+    private int remainingMoves = 0;
 
     public KeyWalker() {
         super("Key Walker");
@@ -20,31 +39,54 @@ public class KeyWalker extends Walker implements KeyListener {
 
     protected Direction move(View v) {
 
-        Direction direction = currentDirection;
-        // Reset current direction.
-        currentDirection = null;
-        return direction;
+        if (remainingMoves == 0) {
+            int command = commands.poll(-1);
+            if (command < 0) {
+                // Nothing typed yet.
+                return null;
+            }
+            currentDirection = command & 3;
+            remainingMoves = command >>> 2;
+        }
+        remainingMoves--;
+        return LeftWalker.getDirection(currentDirection);
     }
 
     @Override
     public void keyPressed(KeyEvent e) {
+        int digit = digitOf(e);
+        if (digit >= 0) {
+            repeatCount = (int) Math.min(MAX_REPEAT, repeatCount * 10L + digit);
+            return;
+        }
+
+        int direction = -1;
         switch (e.getKeyCode()) {
             case KeyEvent.VK_UP:
             case KeyEvent.VK_W:
-                currentDirection = Direction.NORTH;
+                direction = 0;
                 break;
             case KeyEvent.VK_LEFT:
             case KeyEvent.VK_A:
-                currentDirection = Direction.WEST;
+                direction = 3;
                 break;
             case KeyEvent.VK_DOWN:
             case KeyEvent.VK_S:
-                currentDirection = Direction.SOUTH;
+                direction = 2;
                 break;
             case KeyEvent.VK_RIGHT:
             case KeyEvent.VK_D:
-                currentDirection = Direction.EAST;
+                direction = 1;
                 break;
+            case KeyEvent.VK_ESCAPE:
+                repeatCount = 0;
+                break;
+        }
+
+        if (direction >= 0) {
+            // A full ring drops the press, like a held key outrunning the walker.
+            commands.offer(Math.max(1, repeatCount) << 2 | direction);
+            repeatCount = 0;
         }
     }
 
@@ -52,7 +94,20 @@ public class KeyWalker extends Walker implements KeyListener {
     public void keyTyped(KeyEvent e) { }
 
     @Override
-    public void keyReleased(KeyEvent e) {
-        currentDirection = null;
+    public void keyReleased(KeyEvent e) { }
+
+    /**
+     * @param e a key event
+     * @return the digit typed, -1 if the key isn't a digit
+     */
+    static int digitOf(KeyEvent e) {
+        int keyCode = e.getKeyCode();
+        if (keyCode >= KeyEvent.VK_0 && keyCode <= KeyEvent.VK_9) {
+            return keyCode - KeyEvent.VK_0;
+        }
+        if (keyCode >= KeyEvent.VK_NUMPAD0 && keyCode <= KeyEvent.VK_NUMPAD9) {
+            return keyCode - KeyEvent.VK_NUMPAD0;
+        }
+        return -1;
     }
-}
\ No newline at end of file
+}
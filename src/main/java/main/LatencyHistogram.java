@@ -0,0 +1,113 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * A log-linear histogram of non-negative values, in the style of HdrHistogram.
+ * <p>
+ * Values are grouped by their highest set bit, each group is split into
+ * <code>2^SUB_BUCKET_BITS</code> linear buckets, so any value is recorded within
+ * about 3% of its true value. Recording never allocates.
+ * <p>
+ * Meant for one writer; readers on other threads may see slightly stale counts.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * @param value a value, negative values count as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Add all values recorded by <code>other</code>, e.g. to merge histograms of several threads.
+     *
+     * @param other a histogram nobody records into meanwhile
+     */
+    public void add(LatencyHistogram other) {
+        for (int bucket = 0; bucket != counts.length; ++bucket) {
+            counts[bucket] += other.counts[bucket];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return highest value of the bucket holding the value at <code>percentile</code>,
+     * 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = count;
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket != counts.length; ++bucket) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Values below <code>SUB_BUCKET_COUNT</code> get a bucket each. Above, values with
+     * the same highest bit share <code>SUB_BUCKET_COUNT</code> buckets, picked by the
+     * <code>SUB_BUCKET_BITS</code> bits below it.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long subBucket = bucket % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
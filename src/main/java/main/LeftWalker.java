@@ -2,68 +2,11 @@ package main;
 
 import maze.*;
 
-import java.util.HashMap;
-import java.util.Objects;
-
 /**
  * Implementation of <code>Walker</code> that follows the nearest
  * left wall.
  */
-public class LeftWalker extends Walker {
-
-    /**
-     * Represents 2D coordinates. Consists of a pair of integers.
-     * <p>
-     * Used in <code>visitedSquareLookup</code>
-     */
-    protected static class Coord {
-        private final int x;
-        private final int y;
-
-        public Coord(int x, int y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        public int getX() {
-            return x;
-        }
-
-        public int getY() {
-            return y;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Coord coord = (Coord) o;
-            return x == coord.x &&
-                    y == coord.y;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(x, y);
-        }
-    }
-
-    /**
-     * Store exit info for a square (i.e. which directions had been used before).
-     * <p>
-     * The lower 4 bits of <code>exitInfo</code> holds this information.
-     */
-    protected static class SquareInfo {
-        public int exitInfo;
-
-        public SquareInfo(int exitInfo) {
-            this.exitInfo = exitInfo;
-        }
-
-        public void updateExitInfo(int usedDirection) {
-            exitInfo = setUsedExitDirection(exitInfo, usedDirection);
-        }
-    }
+public class LeftWalker extends Walker implements WalkerStatistics {
 
     /**
      * An array lookup which maps integer directions into <code>Direction</code>s.
@@ -75,13 +18,9 @@ public class LeftWalker extends Walker {
             {Direction.NORTH, Direction.EAST, Direction.SOUTH, Direction.WEST};
 
     /**
-     * A dictionary holding information about visited squares.
-     * <p>
-     * Key: a <code>Coord</code>
-     * <p>
-     * Value: an <code>Integer</code> storing previously used exits
+     * A store holding information about visited squares (i.e. previously used exits).
      */
-    protected final HashMap<Coord, SquareInfo> visitedSquareLookup = new HashMap<Coord, SquareInfo>();
+    protected final VisitedSquareStore visitedSquareLookup;
 
     protected boolean isFollowingLeft = false;
     protected int facingDirection = 0;
@@ -89,24 +28,41 @@ public class LeftWalker extends Walker {
     protected int posX = 0;
     protected int posY = 0;
 
+    protected long revisits = 0;
+
+    /**
+     * Walls around the current square if the view told them all at once, -1 otherwise.
+     */
+    protected int wallMask = -1;
+
     public LeftWalker() {
-        super("Left Walker");
+        this(new HashVisitedSquareStore());
+    }
+
+    /**
+     * Create new <code>LeftWalker</code>
+     * @param visitedSquareLookup   a store for visited squares
+     */
+    public LeftWalker(VisitedSquareStore visitedSquareLookup) {
+        this("Left Walker", visitedSquareLookup);
     }
 
-    protected LeftWalker(String name) { super(name); }
+    protected LeftWalker(String name) { this(name, new HashVisitedSquareStore()); }
+
+    protected LeftWalker(String name, VisitedSquareStore visitedSquareLookup) {
+        super(name);
+        this.visitedSquareLookup = visitedSquareLookup;
+    }
 
     @Override
     protected Direction move(View v) {
 
-        Coord coord = new Coord(posX, posY);
+        readWallMask(v);
 
         // Get info about current square.
-        // Prepare a new one if this is the first entrance.
-        SquareInfo squareInfo = visitedSquareLookup.get(coord);
-
-        if (squareInfo == null) {
-            squareInfo = new SquareInfo(0);
-            visitedSquareLookup.put(coord, squareInfo);
+        int squareExitInfo = visitedSquareLookup.getExitInfo(posX, posY);
+        if (squareExitInfo != 0) {
+            revisits++;
         }
 
         // Begin finding next move.
@@ -117,7 +73,7 @@ public class LeftWalker extends Walker {
             }
         }
 
-        int nextMoveDirection = findNextMove(v, squareInfo.exitInfo);
+        int nextMoveDirection = findNextMove(v, squareExitInfo);
 
         if (nextMoveDirection < 0) {
             System.out.println("Cannot find next move");
@@ -127,7 +83,7 @@ public class LeftWalker extends Walker {
             facingDirection = nextMoveDirection;
 
             // Before moving to the next square, mark the current location as visited.
-            squareInfo.updateExitInfo(nextMoveDirection);
+            visitedSquareLookup.markExit(posX, posY, nextMoveDirection);
 
             // Update current pos.
             updatePos(nextMoveDirection);
@@ -136,6 +92,24 @@ public class LeftWalker extends Walker {
         }
     }
 
+    @Override
+    public int getVisitedSquares() {
+        return visitedSquareLookup.size();
+    }
+
+    @Override
+    public long getRevisits() {
+        return revisits;
+    }
+
+    /**
+     * <code>LeftWalker</code> never backtracks, it only walks back along the wall.
+     */
+    @Override
+    public long getBacktracks() {
+        return 0;
+    }
+
     /**
      * Try to find a left wall. Rotates 90 degrees clock wise until a wall is found.
      *
@@ -230,9 +204,21 @@ public class LeftWalker extends Walker {
      * @return whether <code>direction</code> can be taken
      */
     protected boolean mayMove(View v, int direction) {
+        if (wallMask >= 0) {
+            return (wallMask & (1 << direction)) == 0;
+        }
         return v.mayMove(getDirection(direction));
     }
 
+    /**
+     * Fetch all walls around the current square in one call, if <code>v</code> can tell them.
+     *
+     * @param v a <code>View</code> into current maze
+     */
+    protected void readWallMask(View v) {
+        wallMask = v instanceof WallMaskView ? ((WallMaskView) v).wallMask() : -1;
+    }
+
     protected static int leftOf(int currentDirection) {
         return (currentDirection + 3) % 4;
     }
@@ -2,17 +2,39 @@ package main;
 
 import java.io.*;
 import java.awt.event.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 
 import maze.*;
 import maze.gui.*;
 
 /**
  * main class for the program
+ * <p>
+ * Options are parsed into <code>Options</code>. Modes which don't solve a single board
+ * (convert, serve, tournament, batch) have their own method; otherwise a <code>Main</code>
+ * holds the board and walker of the solve.
  *
  * @author ncameron
  */
 public class Main {
 
+    private final Options options;
+
+    private Board board = null;
+    private GridBoard gridBoard = null; // our own board model, only walked on in headless mode
+    private Walker walker;
+    private RouteCache routeCache = null;
+    private WalkCheckpoint checkpoint = null;
+    private InstrumentedWalker instrumentedWalker = null;
+    private MetricsReporter metricsReporter = null;
+
+    private Main(Options options) {
+        this.options = options;
+    }
+
     /**
      * The main method for this program
      *
@@ -20,73 +42,351 @@ public class Main {
      */
     public static void main(String[] args) throws Exception {
 
-        String fileName = null; // name of input file to read
-        int width = 25; // default width of board to create
-        int height = 25; // default height of board to create
-        Mode mode = Mode.LEFT;
-        boolean useStepWalker = false;
-
         // ======================================================
         // ======== First, parse command-line arguments ========
         // ======================================================
 
-        for (int i = 0; i != args.length; ++i) {
-            if (args[i].startsWith("-")) {
-                String arg = args[i];
-                if (arg.equals("-file")) {
-                    fileName = args[++i];
-                } else if (arg.equals("-width")) {
-                    width = Integer.parseInt(args[++i]);
-                } else if (arg.equals("-height")) {
-                    height = Integer.parseInt(args[++i]);
-                } else if (arg.equals("-keyw")) {
-                    mode = Mode.KEY;
-                } else if (arg.equals("-leftw")) {
-                    mode = Mode.LEFT;
-                } else if (arg.equals("-randomw")) {
-                    mode = Mode.RANDOM;
-                } else if (arg.equals("-smartw")) {
-                    mode = Mode.SMART;
-                } else if (arg.equals("-stepw")) {
-                    useStepWalker = true;
+        Options options = Options.parse(args);
+
+        if (options.convertFileName != null && options.fileName == null && options.algorithm != null) {
+            generate(options);
+        } else if (options.convertFileName != null) {
+            convert(options);
+        } else if (options.servePort >= 0) {
+            serve(options);
+        } else if (options.tournamentBoards > 0) {
+            runTournament(options);
+        } else if (options.batchSize > 0) {
+            runBatch(options);
+        } else {
+            new Main(options).solve();
+        }
+    }
+
+    /**
+     * Save a generated board.
+     */
+    private static void generate(Options options) throws IOException {
+        MazeGenerator generator = new MazeGenerator(options.algorithm, options.seed);
+        String fileName = options.convertFileName;
+        if (options.algorithm == MazeGenerator.Algorithm.ELLER && MazeFile.isBinary(fileName)) {
+            // Rows go straight to the file, board may be bigger than memory
+            generator.generate(options.width, options.height, Paths.get(fileName));
+        } else if (MazeFile.isBinary(fileName)) {
+            MazeFile.write(generator.generate(options.width, options.height), Paths.get(fileName));
+        } else {
+            try (Writer writer = new BufferedWriter(new FileWriter(fileName))) {
+                generator.generate(options.width, options.height).write(writer);
+            }
+        }
+        System.out.println("Board generated with seed " + options.seed);
+    }
+
+    /**
+     * Convert between text and binary maze files.
+     */
+    private static void convert(Options options) throws IOException {
+        if (options.fileName == null) {
+            throw new RuntimeException("Option -convert needs an input -file or -gen");
+        }
+
+        if (MazeFile.isBinary(options.fileName)) {
+            MazeFile.binaryToText(Paths.get(options.fileName), Paths.get(options.convertFileName));
+        } else {
+            MazeFile.textToBinary(Paths.get(options.fileName), Paths.get(options.convertFileName));
+        }
+    }
+
+    /**
+     * Solve mazes sent over a loopback socket until killed.
+     */
+    private static void serve(Options options) throws IOException, InterruptedException {
+        SolverServer server = new SolverServer(options.servePort, options.threads);
+        if (options.cacheDirName != null) {
+            server.setRouteCache(new RouteCache(Paths.get(options.cacheDirName)));
+        }
+        server.start();
+        System.out.println("Solver listening on port " + server.getPort());
+        server.join();
+    }
+
+    /**
+     * Run walkers against the same seeded boards and compare them.
+     */
+    private static void runTournament(Options options) throws IOException, InterruptedException {
+        List<String> walkerNames = options.tournamentWalkers == null ? WalkerRegistry.headlessNames()
+                : Arrays.asList(options.tournamentWalkers.split(","));
+        int[] sizes = Arrays.stream(options.tournamentSizes.split(",")).mapToInt(Integer::parseInt).toArray();
+        Tournament tournament = new Tournament(walkerNames, sizes, options.tournamentBoards,
+                options.algorithm != null ? options.algorithm : MazeGenerator.Algorithm.KRUSKAL, options.seed);
+        tournament.setParallelism(options.threads);
+
+        List<Tournament.Summary> summaries = tournament.run();
+        System.out.print(Tournament.toTable(summaries));
+        if (options.tournamentFileName != null) {
+            try (Writer writer = new BufferedWriter(new FileWriter(options.tournamentFileName))) {
+                if (options.tournamentFileName.endsWith(".json")) {
+                    Tournament.writeJson(summaries, writer);
                 } else {
-                    throw new RuntimeException("Unknown option: " + args[i]);
+                    Tournament.writeCsv(summaries, writer);
                 }
             }
         }
+    }
+
+    /**
+     * Solve many generated boards in parallel, without GUI.
+     */
+    private static void runBatch(Options options) throws InterruptedException {
+        if (isInteractive(options.walkerName) || options.useStepWalker) {
+            throw new RuntimeException("Walkers controlled by keys can't run in batch mode");
+        }
 
+        final String walkerName = options.walkerName;
+        BatchRunner runner = new BatchRunner(options.batchSize, options.width, options.height,
+                board -> WalkerRegistry.create(walkerName, board, 1));
+        runner.setSeed(options.seed);
+        if (options.algorithm != null) {
+            runner.setAlgorithm(options.algorithm);
+        }
+        runner.setParallelism(options.threads);
+        if (options.useVirtualThreads) {
+            runner.setExecutorKind(BatchRunner.ExecutorKind.VIRTUAL_THREADS);
+        }
+
+        System.out.println(runner.run());
+        System.out.println("Boards generated with seed " + options.seed);
+    }
+
+    /**
+     * Solve a single board, headless or in the GUI.
+     */
+    private void solve() throws Exception {
 
         // ======================================================
         // ======= Second, create the board to be searched ======
         // ======================================================
 
-        Board board;
-        if (fileName != null) {
-            board = new Board(new FileReader(fileName));
-        } else {
-            board = new Board(width, height);
+        createBoard();
+
+        if (options.monteCarloWalks > 0) {
+            // Gather hitting times of many random walks as a baseline, then stop
+            RandomWalkEngine engine = new RandomWalkEngine(gridBoard);
+            engine.setParallelism(options.threads);
+            System.out.println(engine.run(options.monteCarloWalks, options.seed));
+            return;
         }
 
         // ======================================================
         // ====== Third, create the walker to walk the maze =====
         // ======================================================
 
-        Walker walker = null;
-        switch (mode) {
-            case RANDOM:
-                walker = new RandomWalker();
-                break;
-            case KEY:
-                walker = new KeyWalker();
-                break;
-            case LEFT:
-                walker = new LeftWalker();
-                break;
-            case SMART:
-                walker = new SmarterLeftWalker();
-                break;
+        createWalker();
+
+        if (options.headless || options.render) {
+            solveHeadless();
+        } else {
+            solveInWindow();
+        }
+    }
+
+    private void createBoard() throws IOException {
+        if (options.stream && !options.headless && !options.render) {
+            throw new RuntimeException("Option -stream needs -headless or -render");
         }
 
+        boolean showsWindow = !options.headless && !options.render;
+        if (options.stream && options.fileName == null && options.algorithm != null) {
+            // Spill generated rows to a temporary file and read them back through a row cache
+            java.nio.file.Path spillFile = Files.createTempFile("maze", MazeFile.EXTENSION);
+            spillFile.toFile().deleteOnExit();
+            new MazeGenerator(options.algorithm, options.seed).generate(options.width, options.height, spillFile);
+            System.out.println("Board generated with seed " + options.seed);
+            gridBoard = new StreamingBoard(spillFile);
+        } else if (options.stream && options.fileName != null && MazeFile.isBinary(options.fileName)) {
+            gridBoard = new StreamingBoard(Paths.get(options.fileName));
+        } else if (options.stream) {
+            throw new RuntimeException("Option -stream needs a binary -file or -gen eller");
+        } else if (options.fileName != null && MazeFile.isBinary(options.fileName)) {
+            gridBoard = MazeFile.map(Paths.get(options.fileName));
+            if (showsWindow) {
+                board = gridBoard.toBoard();
+            }
+        } else if (options.fileName != null) {
+            board = new Board(new FileReader(options.fileName));
+        } else if (options.algorithm != null) {
+            MazeGenerator generator = new MazeGenerator(options.algorithm, options.seed);
+            generator.setParallelism(options.threads);
+            gridBoard = generator.generate(options.width, options.height);
+            System.out.println("Board generated with seed " + options.seed);
+            if (showsWindow) {
+                board = gridBoard.toBoard();
+            }
+        } else {
+            board = new Board(options.width, options.height);
+        }
+
+        if (gridBoard == null && (needsGridBoard(options.walkerName) || options.render
+                || options.recordFileName != null || options.prune || options.cacheDirName != null
+                || options.monteCarloWalks > 0 || options.checkpointFileName != null
+                || (options.headless && options.useCompactBoard))) {
+            gridBoard = CompactBoard.fromBoard(board);
+        }
+
+        if (options.prune) {
+            if (options.stream) {
+                throw new RuntimeException("Option -prune needs the whole board in memory, not -stream");
+            }
+
+            // Wall in dead ends, the walker only sees what may lead to the target
+            DeadEndFiller filler = new DeadEndFiller();
+            gridBoard = filler.fill(gridBoard);
+            System.out.println("Filled " + filler.getFilledSquares() + " dead-end squares.");
+            if (board != null) {
+                board = gridBoard.toBoard();
+            }
+        }
+    }
+
+    private void createWalker() throws IOException {
+        String walkerName = options.walkerName;
+        if (options.resume && options.checkpointFileName == null) {
+            throw new RuntimeException("Option -resume needs a -checkpoint file");
+        }
+
+        if (options.checkpointFileName != null) {
+            if (!options.headless || options.render) {
+                throw new RuntimeException("Option -checkpoint needs -headless");
+            }
+            if (options.cacheDirName != null) {
+                throw new RuntimeException("Option -checkpoint can't be combined with -cache");
+            }
+            if (options.resume && options.recordFileName != null) {
+                throw new RuntimeException("A resumed walk can't be recorded");
+            }
+
+            // Save the walk every now and then, so it can be resumed after a crash
+            java.nio.file.Path file = Paths.get(options.checkpointFileName);
+            if (options.resume) {
+                checkpoint = WalkCheckpoint.resume(file, gridBoard);
+                System.out.println("Resumed after " + checkpoint.getSteps() + " steps.");
+            } else if (WalkCheckpoint.supports(walkerName)) {
+                checkpoint = WalkCheckpoint.start(file, gridBoard, walkerName);
+            } else {
+                throw new RuntimeException("Only the left and smart walkers can be checkpointed");
+            }
+            checkpoint.setPeriodMillis(options.checkpointPeriod);
+            walker = checkpoint.getWalker();
+        } else if (options.cacheDirName != null) {
+            if (isInteractive(walkerName)) {
+                throw new RuntimeException("Walkers controlled by keys can't be cached");
+            }
+            if (!isPlanning(walkerName)) {
+                // Routes are cached by board alone, so only walkers finding the same route on it may share them
+                throw new RuntimeException("Only route planning walkers can be cached");
+            }
+
+            // Replay the route of a board seen before, or remember the walk for next time
+            routeCache = new RouteCache(Paths.get(options.cacheDirName));
+            final GridBoard walkerBoard = gridBoard;
+            final int walkerThreads = options.threads;
+            walker = CachedRouteWalker.forBoard(routeCache, gridBoard,
+                    () -> WalkerRegistry.create(walkerName, walkerBoard, walkerThreads));
+        } else {
+            walker = WalkerRegistry.create(walkerName, gridBoard, options.threads);
+        }
+
+        if (options.probeCacheSize >= 0) {
+            if (isInteractive(walkerName)) {
+                throw new RuntimeException("Walkers controlled by keys don't probe walls");
+            }
+
+            // Probe every wall only once
+            walker = new CachingWalker(walker, options.probeCacheSize == 0 ? new SquareMaskTable()
+                    : new SquareMaskTable(options.probeCacheSize));
+        }
+
+        if (options.metricsFileName != null) {
+            if (isInteractive(walkerName)) {
+                throw new RuntimeException("Walkers controlled by keys can't be instrumented");
+            }
+
+            // Collect metrics of every move, visible over JMX and dumped periodically
+            String metricsFileName = options.metricsFileName;
+            instrumentedWalker = new InstrumentedWalker(walker);
+            instrumentedWalker.getMetrics().register();
+            metricsReporter = new MetricsReporter(instrumentedWalker.getMetrics(),
+                    new BufferedWriter(new FileWriter(metricsFileName)),
+                    metricsFileName.endsWith(".json") ? MetricsReporter.Format.JSON : MetricsReporter.Format.CSV);
+            metricsReporter.start(options.metricsPeriod);
+            walker = instrumentedWalker;
+        }
+
+        if (options.recordFileName != null && !options.headless && !options.render) {
+            throw new RuntimeException("Option -record needs -headless or -render");
+        }
+    }
+
+    /**
+     * Solve the board without pauses, optionally drawing the walk as it goes.
+     */
+    private void solveHeadless() throws IOException {
+        if (isInteractive(options.walkerName) || options.useStepWalker) {
+            throw new RuntimeException("Walkers controlled by keys can't run headless");
+        }
+
+        HeadlessSolver solver = new HeadlessSolver();
+        RenderPipeline pipeline = null;
+        if (options.render) {
+            pipeline = new RenderPipeline(gridBoard, options.fps);
+        }
+
+        PathRecorder recorder = null;
+        OutputStream recordOutput = null;
+        if (options.recordFileName != null) {
+            // Stream the walk to the file, it may not fit in memory
+            recorder = new PathRecorder(gridBoard.getStartX(), gridBoard.getStartY(), false);
+            recordOutput = new BufferedOutputStream(new FileOutputStream(options.recordFileName));
+            recorder.setOutput(recordOutput);
+        }
+        solver.setMoveListener(both(both(pipeline, recorder), checkpoint));
+
+        SolveResult result;
+        if (gridBoard != null) {
+            result = solver.solve(walker, gridBoard);
+        } else {
+            result = solver.solve(walker, board);
+        }
+
+        if (pipeline != null) {
+            pipeline.finish();
+        }
+        if (gridBoard instanceof StreamingBoard) {
+            System.out.println("Read " + ((StreamingBoard) gridBoard).getPageReads() + " pages of "
+                    + ((StreamingBoard) gridBoard).getRowsPerPage() + " rows.");
+        }
+        if (recorder != null) {
+            recorder.flush();
+            recordOutput.close();
+            System.out.println("Walk recorded as " + recorder.getRuns() + " runs.");
+        }
+        if (checkpoint != null) {
+            checkpoint.close();
+            System.out.println("Walk checkpointed " + checkpoint.getSnapshots() + " times.");
+        }
+
+        if (result.isSolved()) {
+            System.out.println("Maze solved by " + walker.getName() + " in " + result.getWallTimeMillis() + "ms");
+        } else {
+            System.out.println(walker.getName() + " gave up after " + result.getWallTimeMillis() + "ms");
+        }
+        System.out.println("Solution has " + (checkpoint != null ? checkpoint.getSteps() : result.getSteps())
+                + " steps.");
+        printSummary();
+    }
+
+    private void solveInWindow() throws IOException {
+
         // ======================================================
         // ============== Fourth, show the GUI ==================
         // ======================================================
@@ -94,7 +394,7 @@ public class Main {
         // Initialise the GUI and put it on the screen
         MazeWindow.getWindowAndShow(board);
 
-        if (useStepWalker) {
+        if (options.useStepWalker) {
             // Wrap current walker inside StepWalker
             walker = new StepWalker(board, walker);
         }
@@ -111,14 +411,68 @@ public class Main {
         long time = System.currentTimeMillis(); // record start time
 
         // Solve the board automatically if StepWalker isn't used
-        if (!useStepWalker) {
+        if (!options.useStepWalker) {
             walker.solve(board);
 
             time = System.currentTimeMillis() - time; // subtract start time from current time
             System.out.println("Maze solved by " + walker.getName() + " in " + time + "ms");
             System.out.println("Solution has " + board.getPath().getSteps() + " steps.");
+            printSummary();
         }
     }
-}
 
-enum Mode {RANDOM, KEY, LEFT, SMART}
+    /**
+     * Print route cache statistics, write the last metrics snapshot and print a summary, if any
+     */
+    private void printSummary() throws IOException {
+        if (routeCache != null) {
+            System.out.println(routeCache);
+        }
+        if (metricsReporter != null) {
+            metricsReporter.close();
+            System.out.println(instrumentedWalker.getMetrics());
+        }
+    }
+
+    /**
+     * @param first  a listener, may be null
+     * @param second another listener, may be null
+     * @return a listener passing every move to both, null if both are null
+     */
+    private static MoveListener both(MoveListener first, MoveListener second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return direction -> {
+            first.onMove(direction);
+            second.onMove(direction);
+        };
+    }
+
+    /**
+     * @param walkerName name of a registered walker
+     * @return whether the walker needs a <code>GridBoard</code> of the whole board
+     */
+    private static boolean needsGridBoard(String walkerName) {
+        return WalkerRegistry.kindOf(walkerName) == WalkerRegistry.Kind.PLANNING;
+    }
+
+    /**
+     * @param walkerName name of a registered walker
+     * @return whether the walker plans a route before walking
+     */
+    private static boolean isPlanning(String walkerName) {
+        return WalkerRegistry.kindOf(walkerName) == WalkerRegistry.Kind.PLANNING;
+    }
+
+    /**
+     * @param walkerName name of a registered walker
+     * @return whether the walker is controlled by keys
+     */
+    private static boolean isInteractive(String walkerName) {
+        return WalkerRegistry.kindOf(walkerName) == WalkerRegistry.Kind.INTERACTIVE;
+    }
+}
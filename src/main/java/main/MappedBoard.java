@@ -0,0 +1,55 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only <code>GridBoard</code> backed by a memory-mapped binary maze file
+ * (see <code>MazeFile</code>).
+ * <p>
+ * A single mapping can't exceed 2GB, so big files are mapped in segments.
+ */
+public class MappedBoard extends GridBoard {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final MappedByteBuffer[] segments;
+
+    MappedBoard(Path file) throws IOException {
+        this(file, MazeFile.readHeader(file));
+    }
+
+    private MappedBoard(Path file, ByteBuffer header) throws IOException {
+        super(header.getInt(8), header.getInt(12));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dataSize = ((long) width * height + 1) / 2;
+            if (channel.size() < MazeFile.HEADER_SIZE + dataSize) {
+                throw new IOException("Maze file " + file + " is truncated");
+            }
+
+            segments = new MappedByteBuffer[(int) ((dataSize + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i != segments.length; ++i) {
+                long offset = (long) i << SEGMENT_SHIFT;
+                long size = Math.min(dataSize - offset, 1L << SEGMENT_SHIFT);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, MazeFile.HEADER_SIZE + offset, size);
+            }
+        }
+
+        setStart(header.getInt(16), header.getInt(20));
+        setTarget(header.getInt(24), header.getInt(28));
+    }
+
+    @Override
+    public int getWalls(int x, int y) {
+        long index = (long) y * width + x;
+        long offset = index >>> 1;
+        int packed = segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) (offset & SEGMENT_MASK));
+        return (packed >>> ((index & 1) << 2)) & ALL_WALLS;
+    }
+}
@@ -0,0 +1,331 @@
+package main;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary maze file format.
+ * <p>
+ * A 32-byte header holds, as big-endian integers: magic number, format version,
+ * width, height, start x, start y, target x and target y. It is followed by the
+ * wall masks (see <code>GridBoard</code>) of all squares in row-major order,
+ * two squares per byte, the first one in the lower nibble.
+ */
+public final class MazeFile {
+
+    /**
+     * "AMZB" in ASCII.
+     */
+    static final int MAGIC = 0x414D5A42;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * File name extension of binary maze files.
+     */
+    public static final String EXTENSION = ".amz";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private MazeFile() { }
+
+    /**
+     * @param file a file name
+     * @return whether <code>file</code> names a binary maze file
+     */
+    public static boolean isBinary(String file) {
+        return file.endsWith(EXTENSION);
+    }
+
+    /**
+     * Map a binary maze file into memory. Squares are read straight from
+     * the mapping, so the maze is never copied onto the heap.
+     *
+     * @param file a binary maze file
+     * @return board backed by the file
+     * @throws IOException if the file can't be read or isn't a binary maze file
+     */
+    public static MappedBoard map(Path file) throws IOException {
+        return new MappedBoard(file);
+    }
+
+    /**
+     * Write a board as a binary maze file.
+     *
+     * @param board a <code>GridBoard</code>
+     * @param file  destination
+     * @throws IOException if writing fails
+     */
+    public static void write(GridBoard board, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(board, channel);
+        }
+    }
+
+    /**
+     * Write a board in the binary maze file format to a stream, e.g. a socket.
+     * The stream isn't closed.
+     *
+     * @param board  a <code>GridBoard</code>
+     * @param output destination
+     * @throws IOException if writing fails
+     */
+    public static void write(GridBoard board, OutputStream output) throws IOException {
+        write(board, Channels.newChannel(output));
+        output.flush();
+    }
+
+    /**
+     * Read a board in the binary maze file format from a stream. Reads exactly the
+     * header and the squares, nothing after them.
+     *
+     * @param input source
+     * @return new <code>CompactBoard</code>
+     * @throws IOException if reading fails or input isn't a binary maze
+     */
+    public static CompactBoard read(InputStream input) throws IOException {
+        return read(input, -1);
+    }
+
+    /**
+     * Read a board in the binary maze file format from a stream of known length.
+     * The length is checked against the size in the header before the board is allocated,
+     * so a bad header can't take all memory.
+     *
+     * @param input  source
+     * @param length number of bytes in <code>input</code>, -1 if unknown
+     * @return new <code>CompactBoard</code>
+     * @throws IOException if reading fails, input isn't a binary maze or its length doesn't match
+     */
+    public static CompactBoard read(InputStream input, long length) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        byte[] headerBytes = new byte[HEADER_SIZE];
+        data.readFully(headerBytes);
+        ByteBuffer header = ByteBuffer.wrap(headerBytes);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Input isn't a binary maze");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported maze file version " + header.getInt(4));
+        }
+
+        int width = header.getInt(8);
+        int height = header.getInt(12);
+        if (width <= 0 || height <= 0) {
+            throw new IOException("Invalid board size " + width + "x" + height);
+        }
+        if (length >= 0 && length != HEADER_SIZE + ((long) width * height + 1) / 2) {
+            throw new IOException("Maze of " + length + " bytes can't hold " + width + "x" + height + " squares");
+        }
+        CompactBoard board = new CompactBoard(width, height);
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long squares = (long) width * height;
+        long index = 0;
+        while (index < squares) {
+            int bytes = (int) Math.min(buffer.length, (squares - index + 1) / 2);
+            data.readFully(buffer, 0, bytes);
+            for (int i = 0; i != bytes; ++i) {
+                board.setWalls((int) (index % width), (int) (index / width), buffer[i] & GridBoard.ALL_WALLS);
+                if (++index < squares) {
+                    board.setWalls((int) (index % width), (int) (index / width),
+                            (buffer[i] >>> 4) & GridBoard.ALL_WALLS);
+                    ++index;
+                }
+            }
+        }
+
+        board.setStart(header.getInt(16), header.getInt(20));
+        board.setTarget(header.getInt(24), header.getInt(28));
+        return board;
+    }
+
+    private static void write(GridBoard board, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        writeHeader(buffer, board.getWidth(), board.getHeight(), board.getStartX(), board.getStartY(),
+                board.getTargetX(), board.getTargetY());
+
+        int width = board.getWidth();
+        long squares = (long) width * board.getHeight();
+        for (long index = 0; index < squares; index += 2) {
+            int walls = board.getWalls((int) (index % width), (int) (index / width));
+            if (index + 1 < squares) {
+                walls |= board.getWalls((int) ((index + 1) % width), (int) ((index + 1) / width)) << 4;
+            }
+
+            if (!buffer.hasRemaining()) {
+                flush(channel, buffer);
+            }
+            buffer.put((byte) walls);
+        }
+        flush(channel, buffer);
+    }
+
+    /**
+     * Convert a maze in the text format read by <code>Board(Reader)</code> into
+     * a binary maze file. Rows are converted as they are read, so the maze
+     * is never fully held in memory.
+     *
+     * @param textFile   source in text format
+     * @param binaryFile destination
+     * @throws IOException if reading or writing fails
+     */
+    public static void textToBinary(Path textFile, Path binaryFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(textFile, StandardCharsets.US_ASCII);
+             RowWriter writer = new RowWriter(binaryFile)) {
+            BoardTextReader textReader = new BoardTextReader(reader);
+            int width = textReader.getWidth();
+            int height = textReader.getHeight();
+
+            // Walls shared with the next row are known once it's read, the reader keeps one row ahead.
+            int[] walls = new int[width];
+            while (textReader.readRow(walls)) {
+                writer.writeRow(walls);
+            }
+            textReader.finish();
+
+            writer.finish(width, height, textReader.getStartX(), textReader.getStartY(),
+                    textReader.getTargetX(), textReader.getTargetY());
+        }
+    }
+
+    /**
+     * Convert a binary maze file into the text format read by <code>Board(Reader)</code>.
+     *
+     * @param binaryFile source
+     * @param textFile   destination in text format
+     * @throws IOException if reading or writing fails
+     */
+    public static void binaryToText(Path binaryFile, Path textFile) throws IOException {
+        MappedBoard board = map(binaryFile);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(textFile), StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            board.write(writer);
+        }
+    }
+
+    /**
+     * Read and check the header of a binary maze file.
+     *
+     * @param file a binary maze file
+     * @return the header, read with absolute gets
+     * @throws IOException if the file can't be read or isn't a binary maze file
+     */
+    static ByteBuffer readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Maze file " + file + " is truncated");
+                }
+            }
+
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(file + " isn't a binary maze file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported maze file version " + header.getInt(4));
+            }
+            return header;
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int width, int height,
+                                    int startX, int startY, int targetX, int targetY) {
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(width)
+                .putInt(height)
+                .putInt(startX)
+                .putInt(startY)
+                .putInt(targetX)
+                .putInt(targetY);
+    }
+
+    private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes a binary maze file row by row, so the maze is never fully held in memory.
+     * Start and target often aren't known before the last row, so the header is written last.
+     */
+    static class RowWriter implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long index = 0;
+        private int pending = -1;
+
+        /**
+         * @param file destination, created or truncated
+         * @throws IOException if the file can't be opened
+         */
+        RowWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            buffer.position(HEADER_SIZE);
+        }
+
+        /**
+         * @param walls wall masks of the next row
+         * @throws IOException if writing fails
+         */
+        void writeRow(int[] walls) throws IOException {
+            for (int x = 0; x != walls.length; ++x, ++index) {
+                if ((index & 1) == 0) {
+                    pending = walls[x];
+                } else {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+                    buffer.put((byte) (pending | (walls[x] << 4)));
+                    pending = -1;
+                }
+            }
+        }
+
+        /**
+         * Write the remaining squares and the header. All rows must have been written.
+         *
+         * @throws IOException if writing fails
+         */
+        void finish(int width, int height, int startX, int startY, int targetX, int targetY) throws IOException {
+            if (index != (long) width * height) {
+                throw new IllegalStateException("Wrote " + index + " squares to a " + width + "x" + height + " maze");
+            }
+            if (pending >= 0) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.put((byte) pending);
+                pending = -1;
+            }
+            flush(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            writeHeader(header, width, height, startX, startY, targetX, targetY);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,566 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates perfect mazes (exactly one route between any two squares) from a seed.
+ * <p>
+ * Unlike <code>Board(int,int)</code> every board is solvable and the same seed always gives
+ * the same board, whatever the parallelism. Each forked task draws from its own
+ * <code>SplittableRandom</code>, split off in a fixed order.
+ * <p>
+ * While generating, a square owns the walls on its east and south side, one byte per square,
+ * so parallel tasks never write to the same memory. The result is then packed into a
+ * <code>CompactBoard</code>; use <code>toBoard()</code> or <code>write(Writer)</code> on it
+ * to get a <code>Board</code>.
+ */
+public class MazeGenerator {
+
+    /**
+     * Algorithm used to carve the maze.
+     */
+    public enum Algorithm {
+        /**
+         * Recursive division, starting from an open field. Regions are divided in parallel.
+         */
+        DIVISION,
+        /**
+         * Randomized Kruskal over a union-find of all squares. Single threaded and needs
+         * 12 bytes per square, meant for boards up to a few million squares.
+         */
+        KRUSKAL,
+        /**
+         * Eller's algorithm, row by row. Bands of rows are generated in parallel
+         * and joined by a single opening.
+         */
+        ELLER
+    }
+
+    private static final byte EAST_WALL = 1;
+    private static final byte SOUTH_WALL = 2;
+
+    /**
+     * Smallest region worth forking a division task for.
+     */
+    private static final int MIN_FORK_AREA = 1 << 16;
+    /**
+     * Rows per Eller band. Fixed, so boards don't depend on parallelism.
+     */
+    private static final int BAND_ROWS = 256;
+    /**
+     * Squares packed per conversion task, a multiple of the squares per <code>CompactBoard</code> word.
+     */
+    private static final int CONVERSION_CHUNK = 1 << 16;
+
+    private final Algorithm algorithm;
+    private final long seed;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Create new <code>MazeGenerator</code>
+     *
+     * @param algorithm algorithm to carve mazes with
+     * @param seed      seed of the random numbers, the same seed gives the same board
+     */
+    public MazeGenerator(Algorithm algorithm, long seed) {
+        this.algorithm = algorithm;
+        this.seed = seed;
+    }
+
+    /**
+     * @param parallelism number of threads used to generate a board
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Generate a board. Start and target are placed on random, distinct squares
+     * (unless the board has a single square).
+     *
+     * @param width  width of the board
+     * @param height height of the board
+     * @return new board
+     */
+    public CompactBoard generate(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid board size: " + width + "x" + height);
+        }
+        if ((long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board " + width + "x" + height + " is too big");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] walls = new byte[width * height];
+        CompactBoard board = new CompactBoard(width, height);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            switch (algorithm) {
+                case DIVISION:
+                    pool.invoke(new Division(walls, width, 0, 0, width, height, random.split()));
+                    break;
+                case KRUSKAL:
+                    Arrays.fill(walls, (byte) (EAST_WALL | SOUTH_WALL));
+                    kruskal(walls, width, height, random.split());
+                    break;
+                case ELLER:
+                    Arrays.fill(walls, (byte) (EAST_WALL | SOUTH_WALL));
+                    pool.invoke(new EllerBands(walls, width, 0, height, random.split()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+            }
+            pool.invoke(new Conversion(walls, board, 0, walls.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        int start = random.nextInt(walls.length);
+        int target = walls.length == 1 ? start : (start + 1 + random.nextInt(walls.length - 1)) % walls.length;
+        board.setStart(start % width, start / width);
+        board.setTarget(target % width, target / width);
+        return board;
+    }
+
+    /**
+     * Generate a board straight into a binary maze file (see <code>MazeFile</code>),
+     * one row at a time. Memory use only depends on the width, so boards can be far
+     * bigger than memory; open them with <code>StreamingBoard</code>.
+     * <p>
+     * Only Eller's algorithm works row by row. The rows are generated as one band,
+     * so the board differs from the one <code>generate(int, int)</code> gives for the same seed.
+     *
+     * @param width  width of the board
+     * @param height height of the board
+     * @param file   destination, created or truncated
+     * @throws IOException if writing fails
+     */
+    public void generate(int width, int height, Path file) throws IOException {
+        if (algorithm != Algorithm.ELLER) {
+            throw new UnsupportedOperationException("Only Eller's algorithm generates row by row");
+        }
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid board size: " + width + "x" + height);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        EllerRows rows = new EllerRows(width, random.split());
+        byte[] above = new byte[width];
+        byte[] row = new byte[width];
+        int[] squares = new int[width];
+
+        try (MazeFile.RowWriter writer = new MazeFile.RowWriter(file)) {
+            for (int y = 0; y != height; ++y) {
+                Arrays.fill(row, (byte) (EAST_WALL | SOUTH_WALL));
+                rows.carve(row, 0, y == height - 1);
+
+                for (int x = 0; x != width; ++x) {
+                    squares[x] = (y == 0 || (above[x] & SOUTH_WALL) != 0 ? 1 : 0)
+                            | (x == width - 1 || (row[x] & EAST_WALL) != 0 ? 2 : 0)
+                            | (y == height - 1 || (row[x] & SOUTH_WALL) != 0 ? 4 : 0)
+                            | (x == 0 || (row[x - 1] & EAST_WALL) != 0 ? 8 : 0);
+                }
+                writer.writeRow(squares);
+
+                byte[] previous = above;
+                above = row;
+                row = previous;
+            }
+
+            long squareCount = (long) width * height;
+            long start = random.nextLong(squareCount);
+            long target = squareCount == 1 ? start : (start + 1 + random.nextLong(squareCount - 1)) % squareCount;
+            writer.finish(width, height, (int) (start % width), (int) (start / width),
+                    (int) (target % width), (int) (target / width));
+        }
+    }
+
+    /**
+     * Integer direction walls of a square, in the format of <code>GridBoard.getWalls</code>.
+     */
+    private static int wallsOf(byte[] walls, int width, int height, int x, int y) {
+        int index = y * width + x;
+        int result = 0;
+        if (y == 0 || (walls[index - width] & SOUTH_WALL) != 0) {
+            result |= 1;
+        }
+        if (x == width - 1 || (walls[index] & EAST_WALL) != 0) {
+            result |= 2;
+        }
+        if (y == height - 1 || (walls[index] & SOUTH_WALL) != 0) {
+            result |= 4;
+        }
+        if (x == 0 || (walls[index - 1] & EAST_WALL) != 0) {
+            result |= 8;
+        }
+        return result;
+    }
+
+    // ======================================================
+    // ================= Recursive division =================
+    // ======================================================
+
+    /**
+     * Divides an open region, forking while the region is big and
+     * continuing with an explicit stack once it isn't.
+     */
+    private static class Division extends RecursiveAction {
+
+        private final byte[] walls;
+        private final int width;
+        private final int x;
+        private final int y;
+        private final int regionWidth;
+        private final int regionHeight;
+        private final SplittableRandom random;
+
+        Division(byte[] walls, int width, int x, int y, int regionWidth, int regionHeight, SplittableRandom random) {
+            this.walls = walls;
+            this.width = width;
+            this.x = x;
+            this.y = y;
+            this.regionWidth = regionWidth;
+            this.regionHeight = regionHeight;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (regionWidth < 2 || regionHeight < 2) {
+                return;
+            }
+            if ((long) regionWidth * regionHeight < MIN_FORK_AREA) {
+                divideAll();
+                return;
+            }
+
+            int split = divide(x, y, regionWidth, regionHeight);
+            if (split > 0) {
+                invokeAll(new Division(walls, width, x, y, regionWidth, split, random.split()),
+                        new Division(walls, width, x, y + split, regionWidth, regionHeight - split, random.split()));
+            } else {
+                invokeAll(new Division(walls, width, x, y, -split, regionHeight, random.split()),
+                        new Division(walls, width, x - split, y, regionWidth + split, regionHeight, random.split()));
+            }
+        }
+
+        private void divideAll() {
+            int[] stack = new int[64];
+            int size = 0;
+            stack[size++] = x;
+            stack[size++] = y;
+            stack[size++] = regionWidth;
+            stack[size++] = regionHeight;
+
+            while (size != 0) {
+                int h = stack[--size];
+                int w = stack[--size];
+                int top = stack[--size];
+                int left = stack[--size];
+                if (w < 2 || h < 2) {
+                    continue;
+                }
+
+                if (size + 8 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+
+                int split = divide(left, top, w, h);
+                if (split > 0) {
+                    size = push(stack, size, left, top, w, split);
+                    size = push(stack, size, left, top + split, w, h - split);
+                } else {
+                    size = push(stack, size, left, top, -split, h);
+                    size = push(stack, size, left - split, top, w + split, h);
+                }
+            }
+        }
+
+        /**
+         * Put a wall with one gap across the region.
+         *
+         * @return rows above a horizontal wall, or minus the columns left of a vertical wall
+         */
+        private int divide(int left, int top, int w, int h) {
+            boolean horizontal = h > w || (h == w && random.nextBoolean());
+            if (horizontal) {
+                int split = 1 + random.nextInt(h - 1);
+                int gap = random.nextInt(w);
+                int row = (top + split - 1) * width + left;
+                for (int i = 0; i != w; ++i) {
+                    if (i != gap) {
+                        walls[row + i] |= SOUTH_WALL;
+                    }
+                }
+                return split;
+            } else {
+                int split = 1 + random.nextInt(w - 1);
+                int gap = random.nextInt(h);
+                int column = top * width + left + split - 1;
+                for (int i = 0; i != h; ++i) {
+                    if (i != gap) {
+                        walls[column + i * width] |= EAST_WALL;
+                    }
+                }
+                return -split;
+            }
+        }
+
+        private static int push(int[] stack, int size, int left, int top, int w, int h) {
+            stack[size++] = left;
+            stack[size++] = top;
+            stack[size++] = w;
+            stack[size++] = h;
+            return size;
+        }
+    }
+
+    // ======================================================
+    // ================= Randomized Kruskal =================
+    // ======================================================
+
+    private static void kruskal(byte[] walls, int width, int height, SplittableRandom random) {
+        long eastEdges = (long) (width - 1) * height;
+        long edgeCount = eastEdges + (long) width * (height - 1);
+        if (edgeCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board " + width + "x" + height + " is too big for Kruskal's algorithm");
+        }
+
+        int[] edges = new int[(int) edgeCount];
+        for (int i = 0; i != edges.length; ++i) {
+            edges[i] = i;
+        }
+        for (int i = edges.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int edge = edges[i];
+            edges[i] = edges[j];
+            edges[j] = edge;
+        }
+
+        int[] parent = new int[walls.length];
+        for (int i = 0; i != parent.length; ++i) {
+            parent[i] = i;
+        }
+
+        // A spanning tree has one edge less than squares.
+        int joinsLeft = walls.length - 1;
+        for (int i = 0; i != edges.length && joinsLeft != 0; ++i) {
+            int edge = edges[i];
+            int square;
+            int neighbour;
+            byte wall;
+            if (edge < eastEdges) {
+                square = (edge / (width - 1)) * width + edge % (width - 1);
+                neighbour = square + 1;
+                wall = EAST_WALL;
+            } else {
+                square = (int) (edge - eastEdges);
+                neighbour = square + width;
+                wall = SOUTH_WALL;
+            }
+
+            int root = find(parent, square);
+            int neighbourRoot = find(parent, neighbour);
+            if (root != neighbourRoot) {
+                parent[root] = neighbourRoot;
+                walls[square] &= ~wall;
+                joinsLeft--;
+            }
+        }
+    }
+
+    private static int find(int[] parent, int square) {
+        // Path halving keeps the trees flat without recursion.
+        while (parent[square] != square) {
+            parent[square] = parent[parent[square]];
+            square = parent[square];
+        }
+        return square;
+    }
+
+    // ======================================================
+    // =================== Eller's algorithm ================
+    // ======================================================
+
+    /**
+     * Generates rows <code>[fromRow, toRow)</code> as independent bands of
+     * <code>BAND_ROWS</code> rows, then joins each band to the next with one opening.
+     */
+    private static class EllerBands extends RecursiveAction {
+
+        private final byte[] walls;
+        private final int width;
+        private final int fromRow;
+        private final int toRow;
+        private final SplittableRandom random;
+
+        EllerBands(byte[] walls, int width, int fromRow, int toRow, SplittableRandom random) {
+            this.walls = walls;
+            this.width = width;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            int bands = (toRow - fromRow + BAND_ROWS - 1) / BAND_ROWS;
+            if (bands == 1) {
+                eller(walls, width, fromRow, toRow, random);
+                return;
+            }
+
+            int middle = fromRow + (bands / 2) * BAND_ROWS;
+            invokeAll(new EllerBands(walls, width, fromRow, middle, random.split()),
+                    new EllerBands(walls, width, middle, toRow, random.split()));
+
+            // Both halves are perfect mazes, one opening keeps the whole one perfect.
+            walls[(middle - 1) * width + random.nextInt(width)] &= ~SOUTH_WALL;
+        }
+    }
+
+    /**
+     * Carve rows <code>[fromRow, toRow)</code> into a perfect maze of their own.
+     */
+    private static void eller(byte[] walls, int width, int fromRow, int toRow, SplittableRandom random) {
+        EllerRows rows = new EllerRows(width, random);
+        for (int y = fromRow; y != toRow; ++y) {
+            rows.carve(walls, y * width, y == toRow - 1);
+        }
+    }
+
+    /**
+     * State of Eller's algorithm between rows, only O(width).
+     * <p>
+     * Squares of the current row in the same set form a circular list, ordered left to right.
+     * Sets never interleave, so a square and its east neighbour share a set iff they're linked.
+     */
+    private static class EllerRows {
+
+        private final int width;
+        private final int[] left;
+        private final int[] right;
+        private final RandomBits coin;
+
+        EllerRows(int width, SplittableRandom random) {
+            this.width = width;
+            this.left = new int[width];
+            this.right = new int[width];
+            this.coin = new RandomBits(random);
+
+            for (int x = 0; x != width; ++x) {
+                left[x] = x;
+                right[x] = x;
+            }
+        }
+
+        /**
+         * Carve the next row.
+         *
+         * @param walls   walls to carve, all set on the row
+         * @param row     index of the first square of the row in <code>walls</code>
+         * @param lastRow whether to close all sets
+         */
+        void carve(byte[] walls, int row, boolean lastRow) {
+            for (int x = 0; x != width; ++x) {
+                // Join with the east neighbour if in a different set, always in the last row.
+                int next = x + 1;
+                if (next != width && right[x] != next && (lastRow || coin.next())) {
+                    right[left[next]] = right[x];
+                    left[right[x]] = left[next];
+                    right[x] = next;
+                    left[next] = x;
+                    walls[row + x] &= ~EAST_WALL;
+                }
+
+                // Go down unless the set goes down elsewhere, in which case the square
+                // below starts a set of its own. The last square of a set always stays.
+                if (!lastRow) {
+                    if (right[x] != x && coin.next()) {
+                        right[left[x]] = right[x];
+                        left[right[x]] = left[x];
+                        left[x] = x;
+                        right[x] = x;
+                    } else {
+                        walls[row + x] &= ~SOUTH_WALL;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Coin flips, 64 per random number.
+     */
+    private static class RandomBits {
+
+        private final SplittableRandom random;
+        private long bits;
+        private int bitsLeft = 0;
+
+        RandomBits(SplittableRandom random) {
+            this.random = random;
+        }
+
+        boolean next() {
+            if (bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = 64;
+            }
+            bitsLeft--;
+            boolean bit = (bits & 1) != 0;
+            bits >>>= 1;
+            return bit;
+        }
+    }
+
+    // ======================================================
+    // ============== Packing into CompactBoard =============
+    // ======================================================
+
+    /**
+     * Packs squares <code>[from, to)</code> into the board. Chunks start at a multiple of
+     * 16 squares, so no two tasks write to the same <code>CompactBoard</code> word.
+     */
+    private static class Conversion extends RecursiveAction {
+
+        private final byte[] walls;
+        private final CompactBoard board;
+        private final int from;
+        private final int to;
+
+        Conversion(byte[] walls, CompactBoard board, int from, int to) {
+            this.walls = walls;
+            this.board = board;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CONVERSION_CHUNK) {
+                int middle = from + Math.max(1, (to - from) / 2 / CONVERSION_CHUNK) * CONVERSION_CHUNK;
+                invokeAll(new Conversion(walls, board, from, middle), new Conversion(walls, board, middle, to));
+                return;
+            }
+
+            int width = board.getWidth();
+            int height = board.getHeight();
+            int index = from;
+            while (index < to) {
+                int y = index / width;
+                int x = index - y * width;
+                int rowEnd = Math.min(to, (y + 1) * width);
+                for (; index != rowEnd; ++index, ++x) {
+                    board.setWalls(x, y, wallsOf(walls, width, height, x, y));
+                }
+            }
+        }
+    }
+}
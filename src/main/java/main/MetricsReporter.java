@@ -0,0 +1,116 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a snapshot of <code>WalkerMetrics</code> as a CSV row or a JSON line.
+ * <p>
+ * Snapshots are taken on a daemon thread, the solving thread is never blocked.
+ * Closing writes a last snapshot and closes the writer.
+ */
+public class MetricsReporter implements Closeable {
+
+    /**
+     * Format of the snapshots.
+     */
+    public enum Format {
+        /**
+         * A header line, then one comma separated row per snapshot.
+         */
+        CSV,
+        /**
+         * One JSON object per line.
+         */
+        JSON
+    }
+
+    private static final String CSV_HEADER = "time_ms,walker,steps,probes,visited_squares,revisits,backtracks,"
+            + "move_mean_ns,move_p50_ns,move_p99_ns,move_max_ns";
+
+    private final WalkerMetrics metrics;
+    private final Writer writer;
+    private final Format format;
+    private final long startTime = System.currentTimeMillis();
+
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * Create new <code>MetricsReporter</code>
+     *
+     * @param metrics metrics to report
+     * @param writer  destination of the snapshots
+     * @param format  format of the snapshots
+     * @throws IOException if writing the CSV header fails
+     */
+    public MetricsReporter(WalkerMetrics metrics, Writer writer, Format format) throws IOException {
+        this.metrics = metrics;
+        this.writer = writer;
+        this.format = format;
+
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Start writing a snapshot every <code>periodMillis</code> milliseconds.
+     *
+     * @param periodMillis time between snapshots
+     */
+    public synchronized void start(long periodMillis) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Reporter already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write a snapshot now.
+     */
+    public synchronized void report() {
+        long time = System.currentTimeMillis() - startTime;
+        try {
+            if (format == Format.CSV) {
+                writer.write(String.format(Locale.ROOT, "%d,\"%s\",%d,%d,%d,%d,%d,%.1f,%d,%d,%d\n",
+                        time, metrics.getWalkerName().replace("\"", "\"\""), metrics.getSteps(),
+                        metrics.getProbes(), metrics.getVisitedSquares(), metrics.getRevisits(),
+                        metrics.getBacktracks(), metrics.getMeanMoveNanos(), metrics.getMedianMoveNanos(),
+                        metrics.getP99MoveNanos(), metrics.getMaxMoveNanos()));
+            } else {
+                writer.write(String.format(Locale.ROOT, "{\"timeMs\":%d,\"walker\":\"%s\",\"steps\":%d,"
+                                + "\"probes\":%d,\"visitedSquares\":%d,\"revisits\":%d,\"backtracks\":%d,"
+                                + "\"moveMeanNs\":%.1f,\"moveP50Ns\":%d,\"moveP99Ns\":%d,\"moveMaxNs\":%d}\n",
+                        time, metrics.getWalkerName().replace("\\", "\\\\").replace("\"", "\\\""),
+                        metrics.getSteps(), metrics.getProbes(), metrics.getVisitedSquares(),
+                        metrics.getRevisits(), metrics.getBacktracks(), metrics.getMeanMoveNanos(),
+                        metrics.getMedianMoveNanos(), metrics.getP99MoveNanos(), metrics.getMaxMoveNanos()));
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        report();
+        writer.close();
+    }
+}
@@ -0,0 +1,74 @@
+package main;
+
+import maze.Direction;
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer of moves.
+ * <p>
+ * Each move is stored as a 2-bit integer direction (same encoding as
+ * <code>LeftWalker</code>), 32 moves per <code>long</code>.
+ */
+public class MoveBuffer {
+
+    private static final int MOVES_PER_WORD = 32;
+
+    private long[] words;
+    private int size = 0;
+
+    public MoveBuffer() {
+        this(256);
+    }
+
+    /**
+     * Create new <code>MoveBuffer</code>
+     *
+     * @param expectedMoves number of moves expected to be added
+     */
+    public MoveBuffer(int expectedMoves) {
+        words = new long[Math.max(1, (expectedMoves + MOVES_PER_WORD - 1) / MOVES_PER_WORD)];
+    }
+
+    public void add(Direction direction) {
+        add(direction.ordinal());
+    }
+
+    /**
+     * Append a move.
+     *
+     * @param direction integer direction of the move
+     */
+    public void add(int direction) {
+        int wordIndex = size / MOVES_PER_WORD;
+        if (wordIndex == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        words[wordIndex] |= (long) direction << ((size % MOVES_PER_WORD) * 2);
+        size++;
+    }
+
+    /**
+     * @param index index of the move
+     * @return integer direction of the move
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + size);
+        }
+        return (int) (words[index / MOVES_PER_WORD] >>> ((index % MOVES_PER_WORD) * 2)) & 3;
+    }
+
+    public Direction getDirection(int index) {
+        return LeftWalker.getDirection(get(index));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0, (size + MOVES_PER_WORD - 1) / MOVES_PER_WORD, 0L);
+        size = 0;
+    }
+}
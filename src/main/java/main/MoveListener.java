@@ -0,0 +1,14 @@
+package main;
+
+/**
+ * Gets notified of every move a <code>HeadlessSolver</code> makes on a board.
+ * <p>
+ * Called on the solver thread, so implementations should be quick.
+ */
+public interface MoveListener {
+
+    /**
+     * @param direction integer direction of the move (see <code>LeftWalker</code>)
+     */
+    void onMove(int direction);
+}
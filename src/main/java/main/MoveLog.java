@@ -0,0 +1,63 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * An append-only log of moves, written by one thread and read by others
+ * without locking.
+ * <p>
+ * Moves are stored as 2-bit integer directions, 16 per <code>int</code>. The writer
+ * publishes each move through a volatile size; a reader that reads the size first
+ * sees every move below it.
+ */
+public class MoveLog implements MoveListener {
+
+    private static final int MOVES_PER_WORD = 16;
+
+    private volatile int[] words = new int[64];
+    private volatile int size = 0;
+
+    /**
+     * Append a move. Must only be called by the writer thread.
+     */
+    @Override
+    public void onMove(int direction) {
+        int index = size;
+        int wordIndex = index / MOVES_PER_WORD;
+
+        int[] currentWords = words;
+        if (wordIndex == currentWords.length) {
+            currentWords = Arrays.copyOf(currentWords, currentWords.length * 2);
+            words = currentWords;
+        }
+
+        currentWords[wordIndex] |= direction << ((index % MOVES_PER_WORD) * 2);
+        size = index + 1;
+    }
+
+    /**
+     * @return number of moves published so far
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copy published moves into <code>destination</code>.
+     *
+     * @param from        index of the first move to copy
+     * @param destination receives integer directions
+     * @return number of moves copied
+     */
+    public int read(int from, int[] destination) {
+        // Size must be read before the words, see class comment.
+        int available = Math.min(size - from, destination.length);
+        int[] currentWords = words;
+
+        for (int i = 0; i < available; ++i) {
+            int index = from + i;
+            destination[i] = (currentWords[index / MOVES_PER_WORD] >>> ((index % MOVES_PER_WORD) * 2)) & 3;
+        }
+        return Math.max(available, 0);
+    }
+}
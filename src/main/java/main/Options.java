@@ -0,0 +1,134 @@
+package main;
+
+/**
+ * Command-line options of <code>Main</code>, with their defaults.
+ */
+class Options {
+
+    String fileName = null; // name of input file to read
+    String convertFileName = null; // name of file to convert input file into
+    String recordFileName = null; // name of file to record the walk into
+    int width = 25; // default width of board to create
+    int height = 25; // default height of board to create
+    String walkerName = "left"; // name of a walker in WalkerRegistry
+    boolean useStepWalker = false;
+    boolean headless = false;
+    boolean useCompactBoard = false;
+    int batchSize = 0; // number of boards to solve in batch mode
+    int tournamentBoards = 0; // number of boards of each size in tournament mode
+    String tournamentSizes = "25,100,400"; // board sizes of a tournament
+    String tournamentWalkers = null; // walkers taking part in a tournament, all headless ones by default
+    String tournamentFileName = null; // name of file to write tournament results into
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean useVirtualThreads = false;
+    boolean render = false;
+    boolean stream = false; // read boards through a bounded cache of rows
+    String metricsFileName = null; // name of file to dump walker metrics into
+    long metricsPeriod = 1000; // time between metrics dumps, in milliseconds
+    String cacheDirName = null; // directory of cached routes
+    int servePort = -1; // port to serve solve requests on, -1 to solve a single board
+    long monteCarloWalks = 0; // number of random walks to gather hitting times from
+    String checkpointFileName = null; // name of file to checkpoint a headless walk into
+    long checkpointPeriod = WalkCheckpoint.DEFAULT_PERIOD_MILLIS; // time between checkpoints, in milliseconds
+    boolean resume = false; // resume the walk checkpointed in the file instead of starting over
+    boolean prune = false; // fill dead ends before walking
+    int probeCacheSize = -1; // squares whose walls are cached, 0 for no limit, -1 for no cache
+    int fps = 30; // frame rate limit in render mode
+    MazeGenerator.Algorithm algorithm = null; // generate board with this algorithm instead of Board(int,int)
+    long seed = System.nanoTime(); // seed of generated board
+
+    /**
+     * Parse command-line arguments. Arguments not starting with '-' are ignored.
+     *
+     * @param args command-line arguments
+     * @return parsed options
+     */
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (int i = 0; i != args.length; ++i) {
+            if (args[i].startsWith("-")) {
+                String arg = args[i];
+                if (arg.equals("-file")) {
+                    options.fileName = args[++i];
+                } else if (arg.equals("-convert")) {
+                    options.convertFileName = args[++i];
+                } else if (arg.equals("-record")) {
+                    options.recordFileName = args[++i];
+                } else if (arg.equals("-width")) {
+                    options.width = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-height")) {
+                    options.height = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-keyw")) {
+                    options.walkerName = "key";
+                } else if (arg.equals("-leftw")) {
+                    options.walkerName = "left";
+                } else if (arg.equals("-randomw")) {
+                    options.walkerName = "random";
+                } else if (arg.equals("-smartw")) {
+                    options.walkerName = "smart";
+                } else if (arg.equals("-bfsw")) {
+                    options.walkerName = "bfs";
+                } else if (arg.equals("-astarw")) {
+                    options.walkerName = "astar";
+                } else if (arg.equals("-parw")) {
+                    options.walkerName = "parallel";
+                } else if (arg.equals("-walker")) {
+                    options.walkerName = args[++i];
+                } else if (arg.equals("-stepw")) {
+                    options.useStepWalker = true;
+                } else if (arg.equals("-headless")) {
+                    options.headless = true;
+                } else if (arg.equals("-compact")) {
+                    options.useCompactBoard = true;
+                } else if (arg.equals("-batch")) {
+                    options.batchSize = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-tournament")) {
+                    options.tournamentBoards = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-sizes")) {
+                    options.tournamentSizes = args[++i];
+                } else if (arg.equals("-walkers")) {
+                    options.tournamentWalkers = args[++i];
+                } else if (arg.equals("-tournamentOut")) {
+                    options.tournamentFileName = args[++i];
+                } else if (arg.equals("-threads")) {
+                    options.threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-virtual")) {
+                    options.useVirtualThreads = true;
+                } else if (arg.equals("-gen")) {
+                    options.algorithm = MazeGenerator.Algorithm.valueOf(args[++i].toUpperCase());
+                } else if (arg.equals("-seed")) {
+                    options.seed = Long.parseLong(args[++i]);
+                } else if (arg.equals("-metrics")) {
+                    options.metricsFileName = args[++i];
+                } else if (arg.equals("-metricsPeriod")) {
+                    options.metricsPeriod = Long.parseLong(args[++i]);
+                } else if (arg.equals("-cache")) {
+                    options.cacheDirName = args[++i];
+                } else if (arg.equals("-serve")) {
+                    options.servePort = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-montecarlo")) {
+                    options.monteCarloWalks = Long.parseLong(args[++i]);
+                } else if (arg.equals("-checkpoint")) {
+                    options.checkpointFileName = args[++i];
+                } else if (arg.equals("-checkpointPeriod")) {
+                    options.checkpointPeriod = Long.parseLong(args[++i]);
+                } else if (arg.equals("-resume")) {
+                    options.resume = true;
+                } else if (arg.equals("-prune")) {
+                    options.prune = true;
+                } else if (arg.equals("-probeCache")) {
+                    options.probeCacheSize = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-stream")) {
+                    options.stream = true;
+                } else if (arg.equals("-render")) {
+                    options.render = true;
+                } else if (arg.equals("-fps")) {
+                    options.fps = Integer.parseInt(args[++i]);
+                } else {
+                    throw new RuntimeException("Unknown option: " + args[i]);
+                }
+            }
+        }
+        return options;
+    }
+}
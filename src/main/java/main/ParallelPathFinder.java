@@ -0,0 +1,265 @@
+package main;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds a shortest route on a <code>GridBoard</code> with a bidirectional breadth-first
+ * search run on several threads.
+ * <p>
+ * One search starts on the start square, the other on the target. They take turns
+ * expanding a whole level, the one with the smaller frontier first, and each level is
+ * split among ForkJoin tasks. Every search claims squares with a CAS on its own visited
+ * bitmap, an <code>AtomicLongArray</code>, so only the claiming thread writes the direction
+ * a square was reached from. Searching stops after the level where the two searches meet;
+ * any square where they met lies on a shortest route.
+ * <p>
+ * Walls are read by several threads at once, so the board must allow concurrent reads.
+ * <code>CompactBoard</code> and <code>MappedBoard</code> do, <code>StreamingBoard</code> doesn't.
+ */
+public class ParallelPathFinder {
+
+    /**
+     * Frontier squares expanded by a single task.
+     */
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    private final GridBoard board;
+    private final int width;
+    private final int squares;
+
+    private final AtomicInteger meeting = new AtomicInteger(-1);
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long expandedSquares = 0;
+
+    /**
+     * Create new <code>ParallelPathFinder</code>
+     *
+     * @param board the board to search on
+     */
+    public ParallelPathFinder(GridBoard board) {
+        long squares = (long) board.getWidth() * board.getHeight();
+        if (squares > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board is too big for ParallelPathFinder");
+        }
+
+        this.board = board;
+        this.width = board.getWidth();
+        this.squares = (int) squares;
+    }
+
+    /**
+     * @param parallelism number of threads used by a search
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Find a shortest route from start to target of the board.
+     *
+     * @return moves of the route, null if the target can't be reached
+     */
+    public MoveBuffer findRoute() {
+        int start = board.getStartY() * width + board.getStartX();
+        int target = board.getTargetY() * width + board.getTargetX();
+        expandedSquares = 0;
+        meeting.set(-1);
+
+        if (start == target) {
+            return new MoveBuffer(0);
+        }
+
+        Search forward = new Search(start, false);
+        Search backward = new Search(target, true);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (meeting.get() < 0) {
+                if (forward.frontierSize == 0 || backward.frontierSize == 0) {
+                    // One side is walled in.
+                    return null;
+                }
+
+                Search own = forward.frontierSize <= backward.frontierSize ? forward : backward;
+                Search other = own == forward ? backward : forward;
+                expandedSquares += own.frontierSize;
+                pool.invoke(new Expansion(own, other, 0, own.frontierSize));
+                own.nextLevel();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return traceRoute(forward, backward, meeting.get());
+    }
+
+    /**
+     * @return number of squares expanded by the last search, from both ends
+     */
+    public long getExpandedSquares() {
+        return expandedSquares;
+    }
+
+    private MoveBuffer traceRoute(Search forward, Search backward, int meeting) {
+        // First half is collected in reverse, walking back to the start.
+        int length = 0;
+        byte[] reversed = new byte[64];
+        for (int square = meeting; square != forward.origin; ) {
+            int direction = forward.reachedFrom[square];
+            if (length == reversed.length) {
+                reversed = Arrays.copyOf(reversed, length * 2);
+            }
+            reversed[length++] = (byte) direction;
+            square -= offsetOf(direction);
+        }
+
+        MoveBuffer route = new MoveBuffer(length * 2);
+        for (int i = length - 1; i >= 0; --i) {
+            route.add(reversed[i]);
+        }
+
+        // Second half goes the other way of how the backward search got there.
+        for (int square = meeting; square != backward.origin; ) {
+            int direction = backward.reachedFrom[square];
+            route.add(LeftWalker.oppositeOf(direction));
+            square -= offsetOf(direction);
+        }
+        return route;
+    }
+
+    private int offsetOf(int direction) {
+        return GridBoard.dy(direction) * width + GridBoard.dx(direction);
+    }
+
+    /**
+     * State of the search from one end.
+     */
+    private class Search {
+        final int origin;
+        final boolean backward;
+        final AtomicLongArray visited = new AtomicLongArray((squares + 63) >>> 6);
+        final byte[] reachedFrom = new byte[squares];
+
+        int[] frontier = new int[16];
+        int frontierSize = 0;
+        int[] next = new int[64];
+        final AtomicInteger nextSize = new AtomicInteger();
+
+        Search(int origin, boolean backward) {
+            this.origin = origin;
+            this.backward = backward;
+            claim(origin);
+            frontier[frontierSize++] = origin;
+            prepareNext();
+        }
+
+        /**
+         * @return whether the square was claimed now, false if it was visited before
+         */
+        boolean claim(int square) {
+            int word = square >>> 6;
+            long bit = 1L << square;
+            while (true) {
+                long bits = visited.get(word);
+                if ((bits & bit) != 0) {
+                    return false;
+                }
+                if (visited.compareAndSet(word, bits, bits | bit)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean isVisited(int square) {
+            return (visited.get(square >>> 6) & (1L << square)) != 0;
+        }
+
+        /**
+         * Whether the search may step from <code>(x, y)</code> in <code>direction</code>.
+         * Walking backward, the walker must be able to take that step the other way.
+         */
+        boolean mayStep(int x, int y, int direction) {
+            if (!backward) {
+                return board.mayMove(x, y, direction);
+            }
+            int nextX = x + GridBoard.dx(direction);
+            int nextY = y + GridBoard.dy(direction);
+            return nextX >= 0 && nextX < width && nextY >= 0 && nextY < board.getHeight()
+                    && board.mayMove(nextX, nextY, LeftWalker.oppositeOf(direction));
+        }
+
+        /**
+         * Make room for the squares found expanding the current frontier.
+         */
+        void prepareNext() {
+            int capacity = (int) Math.min(squares, 4L * frontierSize);
+            if (next.length < capacity) {
+                next = new int[capacity];
+            }
+            nextSize.set(0);
+        }
+
+        void nextLevel() {
+            int[] swap = frontier;
+            frontier = next;
+            frontierSize = nextSize.get();
+            next = swap;
+            prepareNext();
+        }
+    }
+
+    /**
+     * Expands squares <code>from</code> to <code>to</code> of the frontier of a search.
+     */
+    private class Expansion extends RecursiveAction {
+        private final Search own;
+        private final Search other;
+        private final int from;
+        private final int to;
+
+        Expansion(Search own, Search other, int from, int to) {
+            this.own = own;
+            this.other = other;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int middle = from + (to - from) / 2;
+                invokeAll(new Expansion(own, other, from, middle), new Expansion(own, other, middle, to));
+                return;
+            }
+
+            int[] found = new int[4 * (to - from)];
+            int count = 0;
+            for (int i = from; i != to; ++i) {
+                int square = own.frontier[i];
+                int x = square % width;
+                int y = square / width;
+                for (int direction = 0; direction != 4; ++direction) {
+                    if (!own.mayStep(x, y, direction)) {
+                        continue;
+                    }
+
+                    int next = square + offsetOf(direction);
+                    if (!own.claim(next)) {
+                        continue;
+                    }
+                    own.reachedFrom[next] = (byte) direction;
+                    if (other.isVisited(next)) {
+                        meeting.compareAndSet(-1, next);
+                    }
+                    found[count++] = next;
+                }
+            }
+
+            System.arraycopy(found, 0, own.next, own.nextSize.getAndAdd(count), count);
+        }
+    }
+}
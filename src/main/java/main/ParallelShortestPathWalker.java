@@ -0,0 +1,31 @@
+package main;
+
+/**
+ * Implementation of <code>Walker</code> that finds a shortest route with a
+ * <code>ParallelPathFinder</code> up front, then walks it one move per step.
+ * <p>
+ * Meant for boards with millions of squares, where a single-threaded search
+ * takes longer than walking the route.
+ */
+public class ParallelShortestPathWalker extends RouteWalker {
+
+    public ParallelShortestPathWalker(GridBoard board) {
+        this(board, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create new <code>ParallelShortestPathWalker</code>
+     *
+     * @param board       the board to be walked
+     * @param parallelism number of threads used to find the route
+     */
+    public ParallelShortestPathWalker(GridBoard board, int parallelism) {
+        super("Parallel BFS Walker", findRoute(board, parallelism));
+    }
+
+    private static MoveBuffer findRoute(GridBoard board, int parallelism) {
+        ParallelPathFinder finder = new ParallelPathFinder(board);
+        finder.setParallelism(parallelism);
+        return finder.findRoute();
+    }
+}
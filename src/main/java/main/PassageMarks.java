@@ -0,0 +1,148 @@
+package main;
+
+/**
+ * Tremaux marks on the passages between squares, 2 bits per passage.
+ * <p>
+ * A square owns the passages to its east and south neighbours (see <code>GridBoard.dx/dy</code>),
+ * so one nibble per square holds them all. Squares are addressed by the walker's own coordinates,
+ * relative to the square it started on. The covered rectangle doubles when the walker leaves it,
+ * so memory follows the part of the maze explored, at half a byte per square.
+ */
+public class PassageMarks {
+
+    /**
+     * Most marks a passage can hold.
+     */
+    public static final int MAX_MARKS = 2;
+
+    private static final int SQUARES_PER_WORD = 16;
+
+    private long[] words;
+    private int minX;
+    private int minY;
+    private int width;
+    private int height;
+
+    public PassageMarks() {
+        this(64);
+    }
+
+    /**
+     * Create new <code>PassageMarks</code>
+     *
+     * @param side width and height of the rectangle covered at first, centered on the start square
+     */
+    public PassageMarks(int side) {
+        if (side < 2) {
+            throw new IllegalArgumentException("Side must be at least 2");
+        }
+        minX = -side / 2;
+        minY = -side / 2;
+        width = side;
+        height = side;
+        words = new long[(side * side + SQUARES_PER_WORD - 1) / SQUARES_PER_WORD];
+    }
+
+    /**
+     * @param x         x coordinate of a square
+     * @param y         y coordinate of a square
+     * @param direction integer direction of one of its passages
+     * @return number of times the passage has been marked, at most <code>MAX_MARKS</code>
+     */
+    public int get(int x, int y, int direction) {
+        int ownerX = ownerX(x, direction);
+        int ownerY = ownerY(y, direction);
+        int column = ownerX - minX;
+        int row = ownerY - minY;
+        if (column < 0 || column >= width || row < 0 || row >= height) {
+            // Never marked, no need to grow.
+            return 0;
+        }
+        long index = (long) row * width + column;
+        return (int) (words[(int) (index >>> 4)] >>> shiftOf(index, direction)) & 3;
+    }
+
+    /**
+     * Add a mark to a passage, unless it already holds <code>MAX_MARKS</code>.
+     *
+     * @param x         x coordinate of a square
+     * @param y         y coordinate of a square
+     * @param direction integer direction of one of its passages
+     */
+    public void mark(int x, int y, int direction) {
+        int ownerX = ownerX(x, direction);
+        int ownerY = ownerY(y, direction);
+        if (ownerX < minX || ownerX >= minX + width || ownerY < minY || ownerY >= minY + height) {
+            grow(ownerX, ownerY);
+        }
+
+        long index = (long) (ownerY - minY) * width + ownerX - minX;
+        int word = (int) (index >>> 4);
+        int shift = shiftOf(index, direction);
+        if (((words[word] >>> shift) & 3) < MAX_MARKS) {
+            words[word] += 1L << shift;
+        }
+    }
+
+    /**
+     * @return number of squares covered, whether marked or not
+     */
+    public long getCoveredSquares() {
+        return (long) width * height;
+    }
+
+    /**
+     * East and south passages belong to the square itself, north and west ones to its neighbour.
+     */
+    private static int ownerX(int x, int direction) {
+        return direction == 3 ? x - 1 : x;
+    }
+
+    private static int ownerY(int y, int direction) {
+        return direction == 0 ? y - 1 : y;
+    }
+
+    /**
+     * Bits 0-1 of a nibble mark the east passage, bits 2-3 the south one.
+     */
+    private static int shiftOf(long index, int direction) {
+        return (int) ((index & 15) << 2) + (direction == 1 || direction == 3 ? 0 : 2);
+    }
+
+    private void grow(int x, int y) {
+        int newMinX = minX;
+        int newMinY = minY;
+        int newWidth = width;
+        int newHeight = height;
+        while (x < newMinX || x >= newMinX + newWidth) {
+            newMinX -= newWidth / 2;
+            newWidth *= 2;
+        }
+        while (y < newMinY || y >= newMinY + newHeight) {
+            newMinY -= newHeight / 2;
+            newHeight *= 2;
+        }
+        long squares = (long) newWidth * newHeight;
+        if (squares > (long) (Integer.MAX_VALUE - 8) * SQUARES_PER_WORD) {
+            throw new RuntimeException("Walker went too far to keep passage marks");
+        }
+
+        long[] newWords = new long[(int) ((squares + SQUARES_PER_WORD - 1) / SQUARES_PER_WORD)];
+        for (int row = 0; row != height; ++row) {
+            for (int column = 0; column != width; ++column) {
+                long index = (long) row * width + column;
+                long nibble = (words[(int) (index >>> 4)] >>> ((index & 15) << 2)) & 0xF;
+                if (nibble != 0) {
+                    long newIndex = (long) (row + minY - newMinY) * newWidth + column + minX - newMinX;
+                    newWords[(int) (newIndex >>> 4)] |= nibble << ((newIndex & 15) << 2);
+                }
+            }
+        }
+
+        words = newWords;
+        minX = newMinX;
+        minY = newMinY;
+        width = newWidth;
+        height = newHeight;
+    }
+}
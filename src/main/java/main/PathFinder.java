@@ -0,0 +1,285 @@
+package main;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Finds shortest routes on a <code>GridBoard</code>.
+ * <p>
+ * Squares are addressed by their index <code>y * width + x</code>. The frontier
+ * is an <code>int</code> ring buffer (BFS) or binary heap (A*) of square indices,
+ * the closed set is a <code>BitSet</code> and the direction each square was
+ * reached from is kept in a <code>byte[]</code>.
+ */
+public class PathFinder {
+
+    /**
+     * Search strategy. Both find a shortest route.
+     */
+    public enum Strategy {
+        /**
+         * Breadth-first search.
+         */
+        BFS,
+        /**
+         * A* search with Manhattan distance to the target as heuristic.
+         * Usually expands fewer squares than BFS.
+         */
+        A_STAR
+    }
+
+    private final GridBoard board;
+    private final int width;
+    private final int squares;
+
+    private final BitSet closed;
+    private final byte[] reachedFrom;
+
+    private int expandedSquares = 0;
+
+    /**
+     * Create new <code>PathFinder</code>
+     *
+     * @param board the board to search on
+     */
+    public PathFinder(GridBoard board) {
+        long squares = (long) board.getWidth() * board.getHeight();
+        if (squares > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board is too big for PathFinder");
+        }
+
+        this.board = board;
+        this.width = board.getWidth();
+        this.squares = (int) squares;
+        this.closed = new BitSet(this.squares);
+        this.reachedFrom = new byte[this.squares];
+    }
+
+    /**
+     * Find a shortest route from start to target of the board.
+     *
+     * @param board    the board to search on
+     * @param strategy search strategy
+     * @return moves of the route, null if the target can't be reached
+     */
+    public static MoveBuffer findRoute(GridBoard board, Strategy strategy) {
+        return new PathFinder(board).findRoute(board.getStartX(), board.getStartY(),
+                board.getTargetX(), board.getTargetY(), strategy);
+    }
+
+    /**
+     * Find a shortest route between two squares.
+     *
+     * @param fromX    x coordinate of the first square
+     * @param fromY    y coordinate of the first square
+     * @param toX      x coordinate of the last square
+     * @param toY      y coordinate of the last square
+     * @param strategy search strategy
+     * @return moves of the route, null if the last square can't be reached
+     */
+    public MoveBuffer findRoute(int fromX, int fromY, int toX, int toY, Strategy strategy) {
+        closed.clear();
+        expandedSquares = 0;
+
+        int from = fromY * width + fromX;
+        int to = toY * width + toX;
+
+        boolean found = strategy == Strategy.A_STAR
+                ? searchAStar(from, to, toX, toY)
+                : searchBreadthFirst(from, to);
+
+        return found ? traceBack(from, to) : null;
+    }
+
+    /**
+     * @return number of squares expanded by the last search
+     */
+    public int getExpandedSquares() {
+        return expandedSquares;
+    }
+
+    private boolean searchBreadthFirst(int from, int to) {
+        // Frontier is usually much smaller than the board, so the ring starts small and grows when full.
+        int[] queue = new int[Math.min(squares, 1024)];
+        int head = 0;
+        int size = 0;
+
+        closed.set(from);
+        queue[0] = from;
+        size++;
+
+        while (size > 0) {
+            int square = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            expandedSquares++;
+
+            if (square == to) {
+                return true;
+            }
+
+            int x = square % width;
+            int y = square / width;
+            for (int direction = 0; direction != 4; ++direction) {
+                if (!board.mayMove(x, y, direction)) {
+                    continue;
+                }
+
+                int next = square + offsetOf(direction);
+                if (closed.get(next)) {
+                    continue;
+                }
+                closed.set(next);
+                reachedFrom[next] = (byte) direction;
+
+                if (size == queue.length) {
+                    queue = growRing(queue, head, size);
+                    head = 0;
+                }
+                queue[(head + size) % queue.length] = next;
+                size++;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean searchAStar(int from, int to, int toX, int toY) {
+        // Cost of the best known route to each square, 0 means unknown.
+        int[] cost = new int[squares];
+        Heap open = new Heap();
+
+        cost[from] = 1;
+        open.push(from, heuristic(from, toX, toY), 0);
+
+        while (!open.isEmpty()) {
+            int square = open.pop();
+            if (closed.get(square)) {
+                // Stale entry, square was reached cheaper before.
+                continue;
+            }
+            closed.set(square);
+            expandedSquares++;
+
+            if (square == to) {
+                return true;
+            }
+
+            int x = square % width;
+            int y = square / width;
+            int nextCost = cost[square] + 1;
+            for (int direction = 0; direction != 4; ++direction) {
+                if (!board.mayMove(x, y, direction)) {
+                    continue;
+                }
+
+                int next = square + offsetOf(direction);
+                if (closed.get(next) || (cost[next] != 0 && cost[next] <= nextCost)) {
+                    continue;
+                }
+                cost[next] = nextCost;
+                reachedFrom[next] = (byte) direction;
+                open.push(next, nextCost - 1 + heuristic(next, toX, toY), nextCost - 1);
+            }
+        }
+
+        return false;
+    }
+
+    private int heuristic(int square, int toX, int toY) {
+        return Math.abs(square % width - toX) + Math.abs(square / width - toY);
+    }
+
+    private MoveBuffer traceBack(int from, int to) {
+        // Walk back from the last square, collecting moves in reverse.
+        int length = 0;
+        byte[] reversed = new byte[64];
+        for (int square = to; square != from; ) {
+            int direction = reachedFrom[square];
+            if (length == reversed.length) {
+                reversed = Arrays.copyOf(reversed, length * 2);
+            }
+            reversed[length++] = (byte) direction;
+            square -= offsetOf(direction);
+        }
+
+        MoveBuffer route = new MoveBuffer(length);
+        for (int i = length - 1; i >= 0; --i) {
+            route.add(reversed[i]);
+        }
+        return route;
+    }
+
+    private int offsetOf(int direction) {
+        return GridBoard.dy(direction) * width + GridBoard.dx(direction);
+    }
+
+    private static int[] growRing(int[] queue, int head, int size) {
+        int[] grown = new int[queue.length * 2];
+        for (int i = 0; i != size; ++i) {
+            grown[i] = queue[(head + i) % queue.length];
+        }
+        return grown;
+    }
+
+    /**
+     * Binary min-heap of square indices. Ties on estimated cost are broken
+     * in favour of squares further from the start. Also used by <code>RegionIndex</code>.
+     */
+    static class Heap {
+        private int[] squares = new int[256];
+        private long[] keys = new long[256];
+        private int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int square, int estimate, int cost) {
+            if (size == squares.length) {
+                squares = Arrays.copyOf(squares, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+
+            long key = ((long) estimate << 32) | (Integer.MAX_VALUE - cost);
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                squares[i] = squares[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            squares[i] = square;
+            keys[i] = key;
+        }
+
+        int pop() {
+            int top = squares[0];
+            int lastSquare = squares[--size];
+            long lastKey = keys[size];
+
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= lastKey) {
+                    break;
+                }
+                squares[i] = squares[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            squares[i] = lastSquare;
+            keys[i] = lastKey;
+            return top;
+        }
+    }
+}
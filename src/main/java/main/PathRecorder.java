@@ -0,0 +1,293 @@
+package main;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Records a walk as runs of moves in the same direction, instead of one
+ * <code>Coordinate</code> per square like <code>maze.Path</code>.
+ * <p>
+ * A run is encoded as a variable length integer <code>(length - 1) << 2 | direction</code>,
+ * 7 bits per byte with the high bit marking a continuation. Corridors of up to 32 squares
+ * take a single byte. Finished runs can be streamed to an <code>OutputStream</code> and/or
+ * a <code>RunListener</code>, in which case they needn't be kept in memory.
+ * <p>
+ * Register as <code>MoveListener</code> of a <code>HeadlessSolver</code> to record its walk.
+ */
+public class PathRecorder implements MoveListener {
+
+    /**
+     * Gets notified of every finished run.
+     */
+    public interface RunListener {
+
+        /**
+         * @param direction integer direction of the run
+         * @param length    number of moves in the run, at least 1
+         */
+        void onRun(int direction, long length);
+    }
+
+    private final int startX;
+    private final int startY;
+    private final boolean keepRuns;
+
+    private byte[] data = new byte[64];
+    private int dataSize = 0;
+
+    private int runDirection = -1;
+    private long runLength = 0;
+    private long steps = 0;
+    private long runs = 0;
+
+    private OutputStream output = null;
+    private RunListener runListener = null;
+
+    /**
+     * Create a recorder which keeps the whole walk in memory.
+     *
+     * @param startX x of the square the walk starts on
+     * @param startY y of the square the walk starts on
+     */
+    public PathRecorder(int startX, int startY) {
+        this(startX, startY, true);
+    }
+
+    /**
+     * Create new <code>PathRecorder</code>
+     *
+     * @param startX   x of the square the walk starts on
+     * @param startY   y of the square the walk starts on
+     * @param keepRuns whether to keep finished runs in memory, needed for <code>replay()</code>
+     */
+    public PathRecorder(int startX, int startY, boolean keepRuns) {
+        this.startX = startX;
+        this.startY = startY;
+        this.keepRuns = keepRuns;
+    }
+
+    /**
+     * Stream finished runs to <code>output</code>, after a header holding the start square.
+     * The stream can be read back with <code>read(InputStream)</code>.
+     *
+     * @param output stream to write to, must be set before the first move
+     * @throws IOException if writing the header fails
+     */
+    public void setOutput(OutputStream output) throws IOException {
+        if (steps != 0) {
+            throw new IllegalStateException("Output must be set before recording");
+        }
+        DataOutputStream header = new DataOutputStream(output);
+        header.writeInt(startX);
+        header.writeInt(startY);
+        header.flush();
+        this.output = output;
+    }
+
+    /**
+     * @param runListener gets notified of every finished run, may be null
+     */
+    public void setRunListener(RunListener runListener) {
+        this.runListener = runListener;
+    }
+
+    @Override
+    public void onMove(int direction) {
+        if (direction != runDirection) {
+            endRun();
+            runDirection = direction;
+        }
+        runLength++;
+        steps++;
+    }
+
+    /**
+     * Finish the current run, so everything recorded so far reaches the output and run listener.
+     */
+    public void flush() {
+        endRun();
+        if (output != null) {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return number of moves recorded
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return number of runs recorded, including the unfinished one
+     */
+    public long getRuns() {
+        return runLength > 0 ? runs + 1 : runs;
+    }
+
+    /**
+     * @return number of bytes the finished runs take in memory
+     */
+    public int getEncodedSize() {
+        return dataSize;
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    /**
+     * Replay the recorded walk square by square, starting at the start square.
+     * Moves recorded afterwards aren't seen by the returned replay.
+     *
+     * @return a new replay
+     */
+    public Replay replay() {
+        if (!keepRuns) {
+            throw new IllegalStateException("Runs aren't kept in memory");
+        }
+        return new Replay(startX, startY, new ByteArrayInputStream(data, 0, dataSize), runDirection, runLength);
+    }
+
+    /**
+     * Replay a walk streamed by a recorder (see <code>setOutput</code>).
+     *
+     * @param input stream positioned at the header
+     * @return a new replay reading lazily from <code>input</code>
+     * @throws IOException if the header can't be read
+     */
+    public static Replay read(InputStream input) throws IOException {
+        DataInputStream header = new DataInputStream(input);
+        int x = header.readInt();
+        int y = header.readInt();
+        return new Replay(x, y, input, -1, 0);
+    }
+
+    private void endRun() {
+        if (runLength == 0) {
+            return;
+        }
+
+        if (keepRuns) {
+            long value = ((runLength - 1) << 2) | runDirection;
+            do {
+                if (dataSize == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                data[dataSize++] = encodedByte(value);
+                value >>>= 7;
+            } while (value != 0);
+        }
+        if (output != null) {
+            writeRun(runDirection, runLength);
+        }
+        if (runListener != null) {
+            runListener.onRun(runDirection, runLength);
+        }
+
+        runs++;
+        runLength = 0;
+    }
+
+    private void writeRun(int direction, long length) {
+        long value = ((length - 1) << 2) | direction;
+        try {
+            do {
+                output.write(encodedByte(value));
+                value >>>= 7;
+            } while (value != 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte encodedByte(long value) {
+        return (byte) (value >>> 7 != 0 ? (value & 0x7F) | 0x80 : value);
+    }
+
+    /**
+     * Walks the squares of a recorded path without materializing it.
+     * Positioned on the start square when created.
+     */
+    public static class Replay {
+
+        private final InputStream input;
+        private int pendingDirection;
+        private long pendingLength;
+
+        private int x;
+        private int y;
+        private int direction = -1;
+        private long remaining = 0;
+
+        private Replay(int x, int y, InputStream input, int pendingDirection, long pendingLength) {
+            this.x = x;
+            this.y = y;
+            this.input = input;
+            this.pendingDirection = pendingDirection;
+            this.pendingLength = pendingLength;
+        }
+
+        /**
+         * Move to the next square of the path.
+         *
+         * @return false if the path has ended
+         */
+        public boolean next() {
+            if (remaining == 0 && !nextRun()) {
+                return false;
+            }
+            x += GridBoard.dx(direction);
+            y += GridBoard.dy(direction);
+            remaining--;
+            return true;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        private boolean nextRun() {
+            try {
+                long value = 0;
+                int shift = 0;
+                int b;
+                while ((b = input.read()) != -1) {
+                    value |= (long) (b & 0x7F) << shift;
+                    if ((b & 0x80) == 0) {
+                        direction = (int) (value & 3);
+                        remaining = (value >>> 2) + 1;
+                        return true;
+                    }
+                    shift += 7;
+                }
+                if (shift != 0) {
+                    throw new EOFException("Path ends in the middle of a run");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // The run still being recorded when the replay was created.
+            if (pendingLength > 0) {
+                direction = pendingDirection;
+                remaining = pendingLength;
+                pendingLength = 0;
+                return true;
+            }
+            return false;
+        }
+    }
+}
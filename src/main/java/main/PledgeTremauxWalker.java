@@ -0,0 +1,258 @@
+package main;
+
+import maze.*;
+
+/**
+ * Implementation of <code>Walker</code> for mazes with loops, which doesn't remember
+ * squares as objects.
+ * <p>
+ * In <code>PLEDGE</code> mode it walks in a preferred direction and, blocked by a wall,
+ * follows it with the wall on its left while counting its turns. It leaves the wall once
+ * the turns add up to zero, so it never circles an island for good. Memory is a few fields.
+ * Pledge only promises to get out of a maze; a target inside it is found as long as the
+ * walk passes it. When the walk comes back to a state it had before (found in constant memory
+ * by Brent's algorithm) it tries the next preferred direction, then plain wall following, then
+ * gives up. On perfect mazes, whose walls all touch the border, wall following always gets there.
+ * A lap along a wall adds the same number of turns every time, so a state counts as repeated
+ * when the turns differ by a multiple of 4, have the same sign and are no closer to zero: the
+ * walker would never leave that wall.
+ * <p>
+ * In <code>TREMAUX</code> mode it marks every passage it takes in <code>PassageMarks</code>,
+ * at 2 bits per passage, and never takes a passage a third time. It finds any reachable
+ * target, in at most two walks through every passage.
+ */
+public class PledgeTremauxWalker extends Walker implements WalkerStatistics {
+
+    /**
+     * Strategy of the walker.
+     */
+    public enum Mode {
+        /**
+         * Pledge algorithm, constant memory.
+         */
+        PLEDGE,
+        /**
+         * Tremaux's algorithm, 2 bits per passage of the explored part of the maze.
+         */
+        TREMAUX
+    }
+
+    /**
+     * Number of preferred directions tried by Pledge before falling back to wall following.
+     */
+    private static final int PLEDGE_ATTEMPTS = 4;
+
+    /**
+     * Turns to try when following the wall, relative to the facing direction: left, straight, right, back.
+     */
+    private static final int[] FOLLOWING_TURNS = {-1, 0, 1, 2};
+
+    private final Mode mode;
+
+    private int posX = 0;
+    private int posY = 0;
+    private int facingDirection = 0;
+    private int wallMask = -1;
+
+    // Pledge state: quarter turns taken since leaving the preferred direction, clockwise positive.
+    private int attempt = 0;
+    private int preferredDirection = 0;
+    private int turns = 0;
+    private boolean isFollowing = false;
+
+    // Brent's cycle detection over the Pledge state.
+    private int savedX;
+    private int savedY;
+    private int savedTurns;
+    private boolean savedFollowing;
+    private long power = 1;
+    private long lambda = 0;
+
+    private final PassageMarks marks;
+    private int entryDirection = -1;
+
+    private int visitedSquares = 0;
+    private long revisits = 0;
+    private long backtracks = 0;
+
+    public PledgeTremauxWalker(Mode mode) {
+        super(mode == Mode.PLEDGE ? "Pledge Walker" : "Tremaux Walker");
+        this.mode = mode;
+        this.marks = mode == Mode.TREMAUX ? new PassageMarks() : null;
+        saveState();
+    }
+
+    @Override
+    protected Direction move(View v) {
+        wallMask = v instanceof WallMaskView ? ((WallMaskView) v).wallMask() : -1;
+
+        int nextMoveDirection = mode == Mode.PLEDGE ? findPledgeMove(v) : findTremauxMove(v);
+        if (nextMoveDirection < 0) {
+            System.out.println("Cannot find next move");
+            return null;
+        }
+
+        facingDirection = nextMoveDirection;
+        posX += GridBoard.dx(nextMoveDirection);
+        posY += GridBoard.dy(nextMoveDirection);
+        return LeftWalker.getDirection(nextMoveDirection);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return squares left at least once, only counted by <code>TREMAUX</code>
+     */
+    @Override
+    public int getVisitedSquares() {
+        return visitedSquares;
+    }
+
+    /**
+     * @return returns to a square already left, only counted by <code>TREMAUX</code>
+     */
+    @Override
+    public long getRevisits() {
+        return revisits;
+    }
+
+    /**
+     * @return U-turns, out of dead ends or, with <code>TREMAUX</code>, away from squares seen before
+     */
+    @Override
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    private int findPledgeMove(View v) {
+        if (isRepeatingState()) {
+            // The walk goes round in circles, try another way.
+            attempt++;
+            if (attempt > PLEDGE_ATTEMPTS) {
+                return -1;
+            }
+            preferredDirection = attempt % 4;
+            turns = 0;
+            isFollowing = attempt == PLEDGE_ATTEMPTS;
+            power = 1;
+            lambda = 0;
+            saveState();
+        }
+
+        if (!isFollowing) {
+            if (mayMove(v, preferredDirection)) {
+                return preferredDirection;
+            }
+            // Turn right, so the wall is on the left.
+            isFollowing = true;
+            turns = 1;
+        }
+
+        for (int turn : FOLLOWING_TURNS) {
+            int direction = Math.floorMod(preferredDirection + turns + turn, 4);
+            if (mayMove(v, direction)) {
+                if (turn == 2) {
+                    backtracks++;
+                }
+                turns += turn;
+                if (attempt == PLEDGE_ATTEMPTS) {
+                    // Plain wall following only needs the facing direction.
+                    turns = Math.floorMod(turns, 4);
+                } else if (turns == 0) {
+                    // Facing the preferred direction with all turns undone, leave the wall.
+                    isFollowing = false;
+                }
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Brent's cycle detection: compare with a state saved at power-of-two distances.
+     *
+     * @return whether the walker is in a state it was in before, in the current attempt,
+     * with turns on the same side of zero and as far from it or further
+     */
+    private boolean isRepeatingState() {
+        // A lap on the other side of zero may still undo its turns and leave the wall.
+        if (posX == savedX && posY == savedY && isFollowing == savedFollowing && lambda > 0
+                && Math.floorMod(turns - savedTurns, 4) == 0 && Math.abs(turns) >= Math.abs(savedTurns)
+                && (savedTurns == 0 || Integer.signum(turns) == Integer.signum(savedTurns))) {
+            return true;
+        }
+        if (++lambda == power) {
+            saveState();
+            power *= 2;
+            lambda = 0;
+        }
+        return false;
+    }
+
+    private void saveState() {
+        savedX = posX;
+        savedY = posY;
+        savedTurns = turns;
+        savedFollowing = isFollowing;
+    }
+
+    private int findTremauxMove(View v) {
+        boolean seenBefore = false;
+        for (int direction = 0; direction != 4; ++direction) {
+            if (direction != entryDirection && marks.get(posX, posY, direction) > 0) {
+                seenBefore = true;
+            }
+        }
+        if (seenBefore) {
+            revisits++;
+        } else {
+            visitedSquares++;
+        }
+
+        int nextMoveDirection = -1;
+        if (entryDirection >= 0 && seenBefore && marks.get(posX, posY, entryDirection) == 1) {
+            // Came to a known square by a new passage, which closes a loop: go back.
+            nextMoveDirection = entryDirection;
+            backtracks++;
+        } else {
+            // An unmarked passage, left first, else back the way we came, else any passage marked once.
+            nextMoveDirection = findMarkedExit(v, 0);
+            if (nextMoveDirection < 0 && entryDirection >= 0 && marks.get(posX, posY, entryDirection) == 1) {
+                nextMoveDirection = entryDirection;
+                backtracks++;
+            }
+            if (nextMoveDirection < 0) {
+                nextMoveDirection = findMarkedExit(v, 1);
+            }
+        }
+
+        if (nextMoveDirection >= 0) {
+            marks.mark(posX, posY, nextMoveDirection);
+            entryDirection = LeftWalker.oppositeOf(nextMoveDirection);
+        }
+        return nextMoveDirection;
+    }
+
+    /**
+     * @return first open direction from the left of the facing direction clockwise,
+     * whose passage holds <code>markCount</code> marks, -1 if there's none
+     */
+    private int findMarkedExit(View v, int markCount) {
+        int direction = LeftWalker.leftOf(facingDirection);
+        for (int i = 0; i != 4; ++i, direction = LeftWalker.rightOf(direction)) {
+            if (marks.get(posX, posY, direction) == markCount && mayMove(v, direction)) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    private boolean mayMove(View v, int direction) {
+        if (wallMask >= 0) {
+            return (wallMask & (1 << direction)) == 0;
+        }
+        return v.mayMove(LeftWalker.getDirection(direction));
+    }
+}
@@ -0,0 +1,244 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent random walks from start to target of a board and collects
+ * the distribution of their hitting times, i.e. steps until the target is first reached.
+ * <p>
+ * A walk is the one <code>RandomWalker</code> takes: every step is drawn uniformly among the
+ * open exits of the square, one byte of random bits per step. Open exits of all squares are
+ * read from the board once, into one byte per square, so a step is two table lookups.
+ * Walks are split into chunks, each with its own <code>SplittableRandom</code> split from
+ * the seed, and run in parallel. Results only depend on the seed and the number of walks.
+ * <p>
+ * Hitting times are kept in a <code>LatencyHistogram</code>, so quantiles are within about 3%.
+ * Walks still short of the target after <code>maxSteps</code> steps are counted as censored.
+ */
+public class RandomWalkEngine {
+
+    /**
+     * Walks per chunk of work, each chunk has its own histogram.
+     */
+    private static final long WALKS_PER_CHUNK = 16384;
+
+    private final int width;
+    private final int start;
+    private final int target;
+    private final byte[] exits;
+    private final int[] squareSteps;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long maxSteps;
+
+    /**
+     * Hitting times of a run of walks.
+     */
+    public static class Result {
+        private final long walks;
+        private final long censored;
+        private final LatencyHistogram hittingTimes;
+        private final long wallTimeNanos;
+
+        Result(long walks, long censored, LatencyHistogram hittingTimes, long wallTimeNanos) {
+            this.walks = walks;
+            this.censored = censored;
+            this.hittingTimes = hittingTimes;
+            this.wallTimeNanos = wallTimeNanos;
+        }
+
+        public long getWalks() {
+            return walks;
+        }
+
+        /**
+         * @return walks which reached the target
+         */
+        public long getHits() {
+            return hittingTimes.getCount();
+        }
+
+        /**
+         * @return walks stopped before reaching the target
+         */
+        public long getCensored() {
+            return censored;
+        }
+
+        /**
+         * @return mean steps of the walks which reached the target
+         */
+        public double getMeanSteps() {
+            return hittingTimes.getMean();
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return steps within which <code>percentile</code> percent of the hits reached the target
+         */
+        public long getStepsAtPercentile(double percentile) {
+            return hittingTimes.getValueAtPercentile(percentile);
+        }
+
+        public long getMaxSteps() {
+            return hittingTimes.getMax();
+        }
+
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        /**
+         * @return steps walked per second of wall time, hits only
+         */
+        public double getStepsPerSecond() {
+            return wallTimeNanos == 0 ? 0 : getMeanSteps() * getHits() * 1e9 / wallTimeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d walks, %d hits, %d censored; hitting time mean %.1f, "
+                            + "p10 %d, p50 %d, p90 %d, p99 %d, max %d steps; %.0fms, %.3g steps/s",
+                    walks, getHits(), censored, getMeanSteps(), getStepsAtPercentile(10),
+                    getStepsAtPercentile(50), getStepsAtPercentile(90), getStepsAtPercentile(99),
+                    getMaxSteps(), wallTimeNanos / 1e6, getStepsPerSecond());
+        }
+    }
+
+    /**
+     * Create new <code>RandomWalkEngine</code>. Walks give up after 100 steps per square of the board.
+     *
+     * @param board the board to walk, read once
+     */
+    public RandomWalkEngine(GridBoard board) {
+        long squares = (long) board.getWidth() * board.getHeight();
+        if (squares > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board is too big for RandomWalkEngine");
+        }
+
+        width = board.getWidth();
+        start = board.getStartY() * width + board.getStartX();
+        target = board.getTargetY() * width + board.getTargetX();
+        squareSteps = new int[]{-width, 1, width, -1};
+        maxSteps = 100 * squares;
+
+        exits = new byte[(int) squares];
+        for (int y = 0; y != board.getHeight(); ++y) {
+            for (int x = 0; x != width; ++x) {
+                int open = 0;
+                for (int direction = 0; direction != 4; ++direction) {
+                    if (board.mayMove(x, y, direction)) {
+                        open |= 1 << direction;
+                    }
+                }
+                exits[y * width + x] = (byte) open;
+            }
+        }
+    }
+
+    /**
+     * @param parallelism number of threads running walks
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param maxSteps steps after which a walk is censored
+     */
+    public void setMaxSteps(long maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Run <code>walks</code> random walks.
+     *
+     * @param walks number of walks
+     * @param seed  seed of all walks
+     * @return their hitting times
+     */
+    public Result run(long walks, long seed) {
+        // Split in the calling thread, so each chunk gets the same generator whoever runs it.
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<Long>> chunks = new ArrayList<>();
+        List<LatencyHistogram> histograms = new ArrayList<>();
+        for (long first = 0; first < walks; first += WALKS_PER_CHUNK) {
+            long chunkWalks = Math.min(WALKS_PER_CHUNK, walks - first);
+            SplittableRandom random = root.split();
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            chunks.add(() -> walk(chunkWalks, random, histogram));
+        }
+
+        long time = System.nanoTime();
+        long censored = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Long> chunk : pool.invokeAll(chunks)) {
+                censored += chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while walking", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Random walk failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        time = System.nanoTime() - time;
+
+        LatencyHistogram hittingTimes = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            hittingTimes.add(histogram);
+        }
+        return new Result(walks, censored, hittingTimes, time);
+    }
+
+    /**
+     * Run walks on one thread.
+     *
+     * @return number of censored walks
+     */
+    private long walk(long walks, SplittableRandom random, LatencyHistogram hittingTimes) {
+        long censored = 0;
+        long bits = 0;
+        int bytesLeft = 0;
+        for (long i = 0; i != walks; ++i) {
+            int square = start;
+            long steps = 0;
+            while (square != target && steps != maxSteps) {
+                int open = exits[square];
+                if (open == 0) {
+                    break;
+                }
+                int direction;
+                do {
+                    if (bytesLeft == 0) {
+                        bits = random.nextLong();
+                        bytesLeft = 8;
+                    }
+                    direction = RandomWalker.pickExit(open, (int) bits & 0xFF);
+                    bits >>>= 8;
+                    bytesLeft--;
+                } while (direction < 0);
+
+                square += squareSteps[direction];
+                steps++;
+            }
+
+            if (square == target) {
+                hittingTimes.record(steps);
+            } else {
+                censored++;
+            }
+        }
+        return censored;
+    }
+}
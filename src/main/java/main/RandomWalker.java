@@ -1,29 +1,113 @@
 package main;
 
+import java.util.SplittableRandom;
+
 import maze.Direction;
 import maze.View;
 import maze.Walker;
 
 /**
  * A walker which randomly moves about the board.
+ * <p>
+ * Each move is drawn uniformly among the open exits of the current square, so no move
+ * bumps into a wall. Random bits come from the walker's own <code>SplittableRandom</code>,
+ * one byte per move, so walkers on different threads don't share a generator.
+ * <code>RandomWalkEngine</code> runs the same walk without a <code>Walker</code>.
  */
 public class RandomWalker extends Walker {
 
+    /**
+     * Choices per exit mask, the least common multiple of 1, 2, 3 and 4 open exits.
+     */
+    private static final int CHOICES = 12;
+
+    /**
+     * Random bytes from here on are drawn again, so the others split evenly into <code>CHOICES</code>.
+     */
+    private static final int REJECTED_BYTES = 256 - 256 % CHOICES;
+
+    /**
+     * Direction for every exit mask and choice, each open exit gets the same number of choices.
+     */
+    private static final byte[] EXIT_CHOICES = new byte[16 * CHOICES];
+
+    static {
+        for (int exits = 1; exits != 16; ++exits) {
+            int count = Integer.bitCount(exits);
+            for (int choice = 0; choice != CHOICES; ++choice) {
+                int skip = choice % count;
+                int direction = 0;
+                while ((exits & (1 << direction)) == 0 || skip-- > 0) {
+                    direction++;
+                }
+                EXIT_CHOICES[exits * CHOICES + choice] = (byte) direction;
+            }
+        }
+    }
+
+    private final SplittableRandom random;
+    private long bits = 0;
+    private int bytesLeft = 0;
+
     public RandomWalker() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Create new <code>RandomWalker</code>
+     *
+     * @param seed seed of the walk, walks with the same seed on the same board are the same
+     */
+    public RandomWalker(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RandomWalker(SplittableRandom random) {
         super("Random");
+        this.random = random;
     }
 
     public Direction move(View v) {
-        int random = (int) (Math.random() * 4);
-        switch (random) {
-            case 0:
-                return Direction.NORTH;
-            case 1:
-                return Direction.EAST;
-            case 2:
-                return Direction.SOUTH;
-            default:
-                return Direction.WEST;
+        int exits;
+        if (v instanceof WallMaskView) {
+            exits = ~((WallMaskView) v).wallMask() & GridBoard.ALL_WALLS;
+        } else {
+            exits = 0;
+            for (int direction = 0; direction != 4; ++direction) {
+                if (v.mayMove(LeftWalker.getDirection(direction))) {
+                    exits |= 1 << direction;
+                }
+            }
+        }
+        if (exits == 0) {
+            // Walled in.
+            return null;
+        }
+
+        int direction;
+        do {
+            if (bytesLeft == 0) {
+                bits = random.nextLong();
+                bytesLeft = 8;
+            }
+            direction = pickExit(exits, (int) bits & 0xFF);
+            bits >>>= 8;
+            bytesLeft--;
+        } while (direction < 0);
+        return LeftWalker.getDirection(direction);
+    }
+
+    /**
+     * Pick an exit uniformly with a byte of random bits.
+     *
+     * @param exits      mask of open exits, not 0
+     * @param randomByte 8 random bits
+     * @return integer direction of an open exit, -1 if the byte has to be drawn again (1.6% of bytes)
+     */
+    static int pickExit(int exits, int randomByte) {
+        if (randomByte >= REJECTED_BYTES) {
+            return -1;
         }
+        return EXIT_CHOICES[exits * CHOICES + randomByte % CHOICES];
     }
 }
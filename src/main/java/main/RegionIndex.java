@@ -0,0 +1,544 @@
+package main;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * A hierarchical index of a <code>GridBoard</code> for answering many route queries,
+ * in the style of HPA*.
+ * <p>
+ * The board is cut into square clusters. Wherever a run of open passages crosses the
+ * border of two clusters and the squares along both sides of it are joined (an entrance),
+ * the passage in its middle becomes a transition, with a node on each side. Distances between the nodes of a cluster are found by searches
+ * confined to the cluster, and kept as edges of an abstract graph in primitive arrays.
+ * Clusters are indexed in parallel.
+ * <p>
+ * A query connects start and target to the nodes of their clusters, runs A* on the abstract
+ * graph and refines each abstract edge by a search inside one cluster. It costs about the
+ * length of the route times the area of a cluster, whatever the size of the board. Routes
+ * are shortest when every entrance is a single passage, as on mazes with corridors one
+ * square wide; in open areas they may be a little longer.
+ * <p>
+ * Queries reuse scratch arrays, so they're answered one at a time.
+ */
+public class RegionIndex {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    private static final int UNREACHABLE = -1;
+
+    private final GridBoard board;
+    private final int width;
+    private final int height;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clusters;
+
+    // Nodes ordered by cluster, then square. Nodes of cluster c are clusterNodes[c] to clusterNodes[c + 1].
+    private final int[] nodeSquares;
+    private final int[] clusterNodes;
+
+    // Outgoing edges of node n are edgeStart[n] to edgeStart[n + 1].
+    private final int[] edgeStart;
+    private final int[] edgeTargets;
+    private final int[] edgeCosts;
+
+    // Scratch of queries, two extra nodes stand for start and target.
+    private final int[] costs;
+    private final int[] parents;
+    private final int[] openStamps;
+    private final int[] closedStamps;
+    private int stamp = 0;
+    private final ClusterSearch search;
+
+    public RegionIndex(GridBoard board) {
+        this(board, DEFAULT_CLUSTER_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create new <code>RegionIndex</code>
+     *
+     * @param board       the board to index, must not change afterwards
+     * @param clusterSize width and height of a cluster
+     * @param parallelism number of threads indexing clusters
+     */
+    public RegionIndex(GridBoard board, int clusterSize, int parallelism) {
+        long squares = (long) board.getWidth() * board.getHeight();
+        if (squares > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Board is too big for RegionIndex");
+        }
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Clusters must be at least 2 squares wide");
+        }
+
+        this.board = board;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.clusterSize = clusterSize;
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clusters = clustersX * ((height + clusterSize - 1) / clusterSize);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // Transitions leaving each cluster east and south, as pairs of squares.
+            int[][] transitions = new int[clusters][];
+            pool.invoke(new ClusterTask(0, clusters, cluster -> transitions[cluster] = findTransitions(cluster)));
+
+            // Both squares of a transition become nodes, ordered by cluster.
+            int transitionCount = 0;
+            for (int[] clusterTransitions : transitions) {
+                transitionCount += clusterTransitions.length / 2;
+            }
+            long[] keys = new long[transitionCount * 2];
+            int keyCount = 0;
+            for (int[] clusterTransitions : transitions) {
+                for (int square : clusterTransitions) {
+                    keys[keyCount++] = (long) clusterOf(square) << 32 | square;
+                }
+            }
+            Arrays.sort(keys);
+            int nodes = 0;
+            for (int i = 0; i != keys.length; ++i) {
+                if (i == 0 || keys[i] != keys[i - 1]) {
+                    keys[nodes++] = keys[i];
+                }
+            }
+            nodeSquares = new int[nodes];
+            clusterNodes = new int[clusters + 1];
+            for (int node = 0; node != nodes; ++node) {
+                nodeSquares[node] = (int) keys[node];
+                clusterNodes[(int) (keys[node] >>> 32) + 1]++;
+            }
+            for (int cluster = 0; cluster != clusters; ++cluster) {
+                clusterNodes[cluster + 1] += clusterNodes[cluster];
+            }
+
+            // Edges within each cluster, then across transitions.
+            int[][] clusterEdges = new int[clusters][];
+            pool.invoke(new ClusterTask(0, clusters, cluster -> clusterEdges[cluster] = findEdges(cluster)));
+
+            int[] degrees = new int[nodes + 1];
+            for (int[] edges : clusterEdges) {
+                for (int i = 0; i < edges.length; i += 3) {
+                    degrees[edges[i] + 1]++;
+                }
+            }
+            for (int[] clusterTransitions : transitions) {
+                for (int i = 0; i < clusterTransitions.length; i += 2) {
+                    int a = clusterTransitions[i];
+                    int b = clusterTransitions[i + 1];
+                    if (mayStep(a, b)) {
+                        degrees[nodeOf(a) + 1]++;
+                    }
+                    if (mayStep(b, a)) {
+                        degrees[nodeOf(b) + 1]++;
+                    }
+                }
+            }
+            edgeStart = new int[nodes + 1];
+            for (int node = 0; node != nodes; ++node) {
+                edgeStart[node + 1] = edgeStart[node] + degrees[node + 1];
+            }
+            edgeTargets = new int[edgeStart[nodes]];
+            edgeCosts = new int[edgeStart[nodes]];
+
+            int[] next = Arrays.copyOf(edgeStart, nodes);
+            for (int[] edges : clusterEdges) {
+                for (int i = 0; i < edges.length; i += 3) {
+                    int edge = next[edges[i]]++;
+                    edgeTargets[edge] = edges[i + 1];
+                    edgeCosts[edge] = edges[i + 2];
+                }
+            }
+            for (int[] clusterTransitions : transitions) {
+                for (int i = 0; i < clusterTransitions.length; i += 2) {
+                    int a = clusterTransitions[i];
+                    int b = clusterTransitions[i + 1];
+                    if (mayStep(a, b)) {
+                        int edge = next[nodeOf(a)]++;
+                        edgeTargets[edge] = nodeOf(b);
+                        edgeCosts[edge] = 1;
+                    }
+                    if (mayStep(b, a)) {
+                        int edge = next[nodeOf(b)]++;
+                        edgeTargets[edge] = nodeOf(a);
+                        edgeCosts[edge] = 1;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        costs = new int[nodeSquares.length + 2];
+        parents = new int[nodeSquares.length + 2];
+        openStamps = new int[nodeSquares.length + 2];
+        closedStamps = new int[nodeSquares.length + 2];
+        search = new ClusterSearch();
+    }
+
+    /**
+     * Find a route from start to target of the board.
+     *
+     * @return moves of the route, null if the target can't be reached
+     */
+    public MoveBuffer findRoute() {
+        return findRoute(board.getStartX(), board.getStartY(), board.getTargetX(), board.getTargetY());
+    }
+
+    /**
+     * Find a route between two squares.
+     *
+     * @param fromX x coordinate of the first square
+     * @param fromY y coordinate of the first square
+     * @param toX   x coordinate of the last square
+     * @param toY   y coordinate of the last square
+     * @return moves of the route, null if the last square can't be reached
+     */
+    public synchronized MoveBuffer findRoute(int fromX, int fromY, int toX, int toY) {
+        board.checkSquare(fromX, fromY);
+        board.checkSquare(toX, toY);
+        int from = fromY * width + fromX;
+        int to = toY * width + toX;
+        if (from == to) {
+            return new MoveBuffer(0);
+        }
+
+        int start = nodeSquares.length;
+        int target = start + 1;
+        int fromCluster = clusterOf(from);
+        int toCluster = clusterOf(to);
+
+        // Costs from the start to the nodes of its cluster, and from the nodes of the target's cluster.
+        int[] fromCosts = new int[clusterNodes[fromCluster + 1] - clusterNodes[fromCluster]];
+        search.run(fromCluster, from, false);
+        for (int node = clusterNodes[fromCluster]; node != clusterNodes[fromCluster + 1]; ++node) {
+            fromCosts[node - clusterNodes[fromCluster]] = search.distanceTo(nodeSquares[node]);
+        }
+        int directCost = fromCluster == toCluster ? search.distanceTo(to) : UNREACHABLE;
+
+        int[] toCosts = new int[clusterNodes[toCluster + 1] - clusterNodes[toCluster]];
+        search.run(toCluster, to, true);
+        for (int node = clusterNodes[toCluster]; node != clusterNodes[toCluster + 1]; ++node) {
+            toCosts[node - clusterNodes[toCluster]] = search.distanceTo(nodeSquares[node]);
+        }
+
+        // A* on the abstract graph.
+        stamp++;
+        PathFinder.Heap open = new PathFinder.Heap();
+        reach(start, 0, -1, to, open);
+        boolean found = false;
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (closedStamps[node] == stamp) {
+                // Stale entry, node was reached cheaper before.
+                continue;
+            }
+            closedStamps[node] = stamp;
+            if (node == target) {
+                found = true;
+                break;
+            }
+
+            if (node == start) {
+                for (int i = 0; i != fromCosts.length; ++i) {
+                    if (fromCosts[i] != UNREACHABLE) {
+                        reach(clusterNodes[fromCluster] + i, fromCosts[i], start, to, open);
+                    }
+                }
+                if (directCost != UNREACHABLE) {
+                    reach(target, directCost, start, to, open);
+                }
+                continue;
+            }
+
+            for (int edge = edgeStart[node]; edge != edgeStart[node + 1]; ++edge) {
+                reach(edgeTargets[edge], costs[node] + edgeCosts[edge], node, to, open);
+            }
+            if (clusterOf(nodeSquares[node]) == toCluster) {
+                int toCost = toCosts[node - clusterNodes[toCluster]];
+                if (toCost != UNREACHABLE) {
+                    reach(target, costs[node] + toCost, node, to, open);
+                }
+            }
+        }
+        if (!found) {
+            return null;
+        }
+
+        // Walk back the abstract route, then refine it from the start.
+        int length = 0;
+        int[] route = new int[16];
+        for (int node = target; node != -1; node = parents[node]) {
+            if (length == route.length) {
+                route = Arrays.copyOf(route, length * 2);
+            }
+            route[length++] = node == start ? from : node == target ? to : nodeSquares[node];
+        }
+
+        MoveBuffer moves = new MoveBuffer(costs[target]);
+        for (int i = length - 1; i > 0; --i) {
+            int a = route[i];
+            int b = route[i - 1];
+            if (clusterOf(a) != clusterOf(b)) {
+                // Across a transition.
+                moves.add(directionOf(a, b));
+            } else {
+                search.run(clusterOf(a), a, false);
+                search.appendRoute(b, moves);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * @return number of nodes of the abstract graph
+     */
+    public int getNodes() {
+        return nodeSquares.length;
+    }
+
+    /**
+     * @return number of edges of the abstract graph
+     */
+    public int getEdges() {
+        return edgeTargets.length;
+    }
+
+    private void reach(int node, int cost, int parent, int to, PathFinder.Heap open) {
+        if (closedStamps[node] == stamp || (openStamps[node] == stamp && costs[node] <= cost)) {
+            return;
+        }
+        openStamps[node] = stamp;
+        costs[node] = cost;
+        parents[node] = parent;
+
+        int square = node == nodeSquares.length ? -1 : node == nodeSquares.length + 1 ? to : nodeSquares[node];
+        int heuristic = square < 0 ? 0
+                : Math.abs(square % width - to % width) + Math.abs(square / width - to / width);
+        open.push(node, cost + heuristic, cost);
+    }
+
+    /**
+     * Transitions across the east and south borders of <code>cluster</code>.
+     *
+     * @return pairs of squares, the first one inside the cluster
+     */
+    private int[] findTransitions(int cluster) {
+        int left = (cluster % clustersX) * clusterSize;
+        int top = (cluster / clustersX) * clusterSize;
+        int right = Math.min(width, left + clusterSize) - 1;
+        int bottom = Math.min(height, top + clusterSize) - 1;
+
+        int[] transitions = new int[8];
+        int count = 0;
+        for (int side = 0; side != 2; ++side) {
+            // East border runs down the right column, south border along the bottom row.
+            int direction = side == 0 ? 1 : 2;
+            if ((side == 0 && right == width - 1) || (side == 1 && bottom == height - 1)) {
+                continue;
+            }
+
+            int length = side == 0 ? bottom - top + 1 : right - left + 1;
+            int entranceStart = -1;
+            for (int i = 0; i <= length; ++i) {
+                int x = side == 0 ? right : left + i;
+                int y = side == 0 ? top + i : bottom;
+                boolean open = i < length && (board.mayMove(x, y, direction)
+                        || board.mayMove(x + GridBoard.dx(direction), y + GridBoard.dy(direction),
+                        LeftWalker.oppositeOf(direction)));
+                // An entrance goes on while its crossings are joined along both sides of the border.
+                boolean joined = open && entranceStart >= 0
+                        && isJoined(x, y, side == 0 ? 0 : 3)
+                        && isJoined(x + GridBoard.dx(direction), y + GridBoard.dy(direction), side == 0 ? 0 : 3);
+                if (entranceStart >= 0 && !joined) {
+                    // One transition in the middle of the entrance.
+                    int middle = (entranceStart + i - 1) / 2;
+                    int middleX = side == 0 ? right : left + middle;
+                    int middleY = side == 0 ? top + middle : bottom;
+                    if (count + 2 > transitions.length) {
+                        transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                    }
+                    transitions[count++] = middleY * width + middleX;
+                    transitions[count++] = (middleY + GridBoard.dy(direction)) * width
+                            + middleX + GridBoard.dx(direction);
+                    entranceStart = -1;
+                }
+                if (open && entranceStart < 0) {
+                    entranceStart = i;
+                }
+            }
+        }
+        return Arrays.copyOf(transitions, count);
+    }
+
+    /**
+     * @return whether a square and its neighbour in <code>direction</code> are joined both ways
+     */
+    private boolean isJoined(int x, int y, int direction) {
+        return board.mayMove(x, y, direction)
+                && board.mayMove(x + GridBoard.dx(direction), y + GridBoard.dy(direction),
+                LeftWalker.oppositeOf(direction));
+    }
+
+    /**
+     * Edges between the nodes of <code>cluster</code>, by searches confined to the cluster.
+     *
+     * @return triples of source node, target node and cost
+     */
+    private int[] findEdges(int cluster) {
+        int first = clusterNodes[cluster];
+        int nodes = clusterNodes[cluster + 1] - first;
+        int[] edges = new int[3 * nodes * Math.max(0, nodes - 1)];
+        int count = 0;
+
+        ClusterSearch clusterSearch = new ClusterSearch();
+        for (int source = first; source != first + nodes; ++source) {
+            clusterSearch.run(cluster, nodeSquares[source], false);
+            for (int node = first; node != first + nodes; ++node) {
+                int cost = clusterSearch.distanceTo(nodeSquares[node]);
+                if (node != source && cost != UNREACHABLE) {
+                    edges[count++] = source;
+                    edges[count++] = node;
+                    edges[count++] = cost;
+                }
+            }
+        }
+        return Arrays.copyOf(edges, count);
+    }
+
+    private int clusterOf(int square) {
+        return (square / width / clusterSize) * clustersX + (square % width) / clusterSize;
+    }
+
+    /**
+     * @param square a square which is a node
+     */
+    private int nodeOf(int square) {
+        int cluster = clusterOf(square);
+        return Arrays.binarySearch(nodeSquares, clusterNodes[cluster], clusterNodes[cluster + 1], square);
+    }
+
+    /**
+     * @return whether the walker may step between two neighbouring squares
+     */
+    private boolean mayStep(int from, int to) {
+        return board.mayMove(from % width, from / width, directionOf(from, to));
+    }
+
+    private int directionOf(int from, int to) {
+        int difference = to - from;
+        // Vertical first, on a board one square wide they differ by 1 too.
+        return difference == width ? 2 : difference == -width ? 0 : difference == 1 ? 1 : 3;
+    }
+
+    /**
+     * Breadth-first search confined to one cluster, on arrays the size of a cluster.
+     */
+    private class ClusterSearch {
+        private final int[] distances = new int[clusterSize * clusterSize];
+        private final byte[] reachedFrom = new byte[clusterSize * clusterSize];
+        private final int[] queue = new int[clusterSize * clusterSize];
+        private int left;
+        private int top;
+        private int right;
+        private int bottom;
+
+        /**
+         * Search from <code>origin</code> to all squares of the cluster, or to <code>origin</code>
+         * from all squares when <code>reverse</code> is set.
+         */
+        void run(int cluster, int origin, boolean reverse) {
+            left = (cluster % clustersX) * clusterSize;
+            top = (cluster / clustersX) * clusterSize;
+            right = Math.min(width, left + clusterSize) - 1;
+            bottom = Math.min(height, top + clusterSize) - 1;
+            Arrays.fill(distances, UNREACHABLE);
+
+            int head = 0;
+            int tail = 0;
+            distances[local(origin)] = 0;
+            queue[tail++] = origin;
+            while (head != tail) {
+                int square = queue[head++];
+                int x = square % width;
+                int y = square / width;
+                for (int direction = 0; direction != 4; ++direction) {
+                    int nextX = x + GridBoard.dx(direction);
+                    int nextY = y + GridBoard.dy(direction);
+                    if (nextX < left || nextX > right || nextY < top || nextY > bottom) {
+                        continue;
+                    }
+                    boolean open = reverse ? board.mayMove(nextX, nextY, LeftWalker.oppositeOf(direction))
+                            : board.mayMove(x, y, direction);
+                    int next = nextY * width + nextX;
+                    if (!open || distances[local(next)] != UNREACHABLE) {
+                        continue;
+                    }
+                    distances[local(next)] = distances[local(square)] + 1;
+                    reachedFrom[local(next)] = (byte) direction;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        /**
+         * @param square a square of the cluster searched last
+         * @return its distance, <code>UNREACHABLE</code> if the search didn't get there
+         */
+        int distanceTo(int square) {
+            return distances[local(square)];
+        }
+
+        /**
+         * Append the moves of a forward search from its origin to <code>square</code>.
+         */
+        void appendRoute(int square, MoveBuffer moves) {
+            int length = distances[local(square)];
+            int[] reversed = new int[length];
+            for (int i = 0; i != length; ++i) {
+                int direction = reachedFrom[local(square)];
+                reversed[i] = direction;
+                square -= GridBoard.dy(direction) * width + GridBoard.dx(direction);
+            }
+            for (int i = length - 1; i >= 0; --i) {
+                moves.add(reversed[i]);
+            }
+        }
+
+        private int local(int square) {
+            return (square / width - top) * clusterSize + square % width - left;
+        }
+    }
+
+    /**
+     * Runs <code>work</code> for clusters <code>from</code> to <code>to</code>.
+     */
+    private static class ClusterTask extends RecursiveAction {
+        private static final int CLUSTERS_PER_TASK = 64;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer work;
+
+        ClusterTask(int from, int to, IntConsumer work) {
+            this.from = from;
+            this.to = to;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CLUSTERS_PER_TASK) {
+                int middle = from + (to - from) / 2;
+                invokeAll(new ClusterTask(from, middle, work), new ClusterTask(middle, to, work));
+                return;
+            }
+            for (int cluster = from; cluster != to; ++cluster) {
+                work.accept(cluster);
+            }
+        }
+    }
+}
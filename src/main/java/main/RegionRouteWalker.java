@@ -0,0 +1,24 @@
+package main;
+
+/**
+ * Implementation of <code>Walker</code> that finds its route with a <code>RegionIndex</code>,
+ * then walks it one move per step.
+ * <p>
+ * Building the index costs about as much as one search of the whole board, so this pays off
+ * when one index answers many queries on the same board.
+ */
+public class RegionRouteWalker extends RouteWalker {
+
+    public RegionRouteWalker(GridBoard board, int parallelism) {
+        this(new RegionIndex(board, RegionIndex.DEFAULT_CLUSTER_SIZE, parallelism));
+    }
+
+    /**
+     * Create new <code>RegionRouteWalker</code>
+     *
+     * @param index index of the board to be walked, from start to target
+     */
+    public RegionRouteWalker(RegionIndex index) {
+        super("Region Route Walker", index.findRoute());
+    }
+}
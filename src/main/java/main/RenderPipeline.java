@@ -0,0 +1,190 @@
+package main;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Shows a <code>GridBoard</code> being solved, without slowing down the solver.
+ * <p>
+ * The solver thread only appends moves to a <code>MoveLog</code>. A Swing timer
+ * picks them up at most <code>fps</code> times per second, draws the new path
+ * segments into an overlay image and repaints just the squares that changed.
+ * Walls never change, so they are drawn once into a cached image.
+ */
+public class RenderPipeline implements MoveListener {
+
+    /**
+     * Biggest board side that can be shown, in squares.
+     */
+    public static final int MAX_BOARD_SIZE = 4096;
+
+    private static final int MAX_WINDOW_SIZE = 1024;
+    private static final int MAX_SQUARE_SIZE = 16;
+
+    private final MoveLog moveLog = new MoveLog();
+    private final MazePanel panel;
+    private final JFrame frame;
+    private final Timer timer;
+
+    /**
+     * Create the window and start rendering.
+     *
+     * @param board the board being solved, with the walker on its start square
+     * @param fps   maximum number of frames per second
+     */
+    public RenderPipeline(GridBoard board, int fps) {
+        if (board.getWidth() > MAX_BOARD_SIZE || board.getHeight() > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Board is too big to be shown");
+        }
+
+        panel = new MazePanel(board, moveLog);
+        frame = new JFrame("Amazing Maze");
+        timer = new Timer(1000 / Math.max(1, fps), e -> update());
+
+        SwingUtilities.invokeLater(() -> {
+            frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+            frame.add(new JScrollPane(panel));
+            frame.pack();
+            frame.setVisible(true);
+            timer.start();
+        });
+    }
+
+    /**
+     * Queue a move for rendering. Called on the solver thread, never blocks.
+     */
+    @Override
+    public void onMove(int direction) {
+        moveLog.onMove(direction);
+    }
+
+    /**
+     * Render all queued moves and stop the timer.
+     */
+    public void finish() {
+        SwingUtilities.invokeLater(() -> {
+            timer.stop();
+            update();
+        });
+    }
+
+    private void update() {
+        panel.drainMoves();
+        frame.setTitle("Amazing Maze - " + moveLog.size() + " steps");
+    }
+
+    /**
+     * Draws cached walls, the path overlay and the walker.
+     * Only touched on the event dispatch thread.
+     */
+    private static class MazePanel extends JPanel {
+
+        private static final int BATCH_SIZE = 4096;
+
+        private final MoveLog moveLog;
+        private final int squareSize;
+        private final BufferedImage walls;
+        private final BufferedImage path;
+        private final Graphics2D pathGraphics;
+        private final int[] batch = new int[BATCH_SIZE];
+
+        private int drainedMoves = 0;
+        private int walkerX;
+        private int walkerY;
+
+        MazePanel(GridBoard board, MoveLog moveLog) {
+            this.moveLog = moveLog;
+            this.squareSize = Math.max(1, Math.min(MAX_SQUARE_SIZE,
+                    MAX_WINDOW_SIZE / Math.max(board.getWidth(), board.getHeight())));
+            this.walkerX = board.getStartX();
+            this.walkerY = board.getStartY();
+
+            int imageWidth = board.getWidth() * squareSize + 1;
+            int imageHeight = board.getHeight() * squareSize + 1;
+            walls = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+            path = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+            pathGraphics = path.createGraphics();
+            pathGraphics.setColor(Color.BLUE);
+
+            drawWalls(board);
+            setPreferredSize(new Dimension(imageWidth, imageHeight));
+        }
+
+        /**
+         * Draw moves published since the last frame and repaint the squares they touched.
+         */
+        void drainMoves() {
+            Rectangle dirty = squareBounds(walkerX, walkerY);
+
+            int count;
+            while ((count = moveLog.read(drainedMoves, batch)) > 0) {
+                for (int i = 0; i != count; ++i) {
+                    int fromX = centerOf(walkerX);
+                    int fromY = centerOf(walkerY);
+                    walkerX += GridBoard.dx(batch[i]);
+                    walkerY += GridBoard.dy(batch[i]);
+
+                    pathGraphics.drawLine(fromX, fromY, centerOf(walkerX), centerOf(walkerY));
+                    dirty.add(squareBounds(walkerX, walkerY));
+                }
+                drainedMoves += count;
+            }
+
+            repaint(dirty);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.drawImage(walls, 0, 0, null);
+            g.drawImage(path, 0, 0, null);
+
+            g.setColor(Color.ORANGE);
+            g.fillOval(walkerX * squareSize + 1, walkerY * squareSize + 1,
+                    Math.max(1, squareSize - 2), Math.max(1, squareSize - 2));
+        }
+
+        private void drawWalls(GridBoard board) {
+            Graphics2D g = walls.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, walls.getWidth(), walls.getHeight());
+
+            g.setColor(Color.GREEN);
+            g.fillRect(board.getStartX() * squareSize, board.getStartY() * squareSize, squareSize, squareSize);
+            g.setColor(Color.RED);
+            g.fillRect(board.getTargetX() * squareSize, board.getTargetY() * squareSize, squareSize, squareSize);
+
+            g.setColor(Color.BLACK);
+            for (int y = 0; y != board.getHeight(); ++y) {
+                for (int x = 0; x != board.getWidth(); ++x) {
+                    int left = x * squareSize;
+                    int top = y * squareSize;
+
+                    // Each wall is shared by two squares, draw north and west walls only,
+                    // plus the border on the east and south.
+                    if (board.hasWall(x, y, 0)) {
+                        g.drawLine(left, top, left + squareSize, top);
+                    }
+                    if (board.hasWall(x, y, 3)) {
+                        g.drawLine(left, top, left, top + squareSize);
+                    }
+                    if (x == board.getWidth() - 1 && board.hasWall(x, y, 1)) {
+                        g.drawLine(left + squareSize, top, left + squareSize, top + squareSize);
+                    }
+                    if (y == board.getHeight() - 1 && board.hasWall(x, y, 2)) {
+                        g.drawLine(left, top + squareSize, left + squareSize, top + squareSize);
+                    }
+                }
+            }
+            g.dispose();
+        }
+
+        private int centerOf(int square) {
+            return square * squareSize + squareSize / 2;
+        }
+
+        private Rectangle squareBounds(int x, int y) {
+            return new Rectangle(x * squareSize, y * squareSize, squareSize + 1, squareSize + 1);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package main;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Caches routes from start to target of boards, keyed by a fingerprint of the board.
+ * <p>
+ * Recently used routes are kept in memory, least recently used ones are dropped when
+ * they take more than <code>maxMemoryBytes</code>. With a directory, routes are also
+ * stored on disk, one file per board, encoded as runs by a <code>PathRecorder</code>.
+ * Files used least recently are deleted when they take more than <code>maxDiskBytes</code>.
+ * <p>
+ * A route read from disk is checked against the board before it's used: it must start
+ * on the start square, never cross a wall and end on the target. Broken files are deleted.
+ * <p>
+ * Methods are synchronized, a cache may be shared by threads solving different boards.
+ */
+public class RouteCache {
+
+    public static final long DEFAULT_MAX_MEMORY_BYTES = 64L << 20;
+    public static final long DEFAULT_MAX_DISK_BYTES = 1L << 30;
+
+    /**
+     * File name extension of routes on disk.
+     */
+    public static final String EXTENSION = ".route";
+
+    /**
+     * "AMZR" in ASCII.
+     */
+    private static final int MAGIC = 0x414D5A52;
+    private static final int VERSION = 1;
+
+    /**
+     * Rough memory taken by an entry besides its moves.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final Path directory;
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+
+    private final LinkedHashMap<Long, MoveBuffer> routes = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+
+    private long memoryHits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long brokenFiles = 0;
+
+    /**
+     * Create new <code>RouteCache</code> kept in memory only
+     *
+     * @param maxMemoryBytes memory routes may take
+     */
+    public RouteCache(long maxMemoryBytes) {
+        this.directory = null;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = 0;
+    }
+
+    /**
+     * Create new <code>RouteCache</code> with default limits
+     *
+     * @param directory where to store routes, created if missing
+     * @throws IOException if the directory can't be created
+     */
+    public RouteCache(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_MEMORY_BYTES, DEFAULT_MAX_DISK_BYTES);
+    }
+
+    /**
+     * Create new <code>RouteCache</code>
+     *
+     * @param directory      where to store routes, null to keep them in memory only
+     * @param maxMemoryBytes memory routes may take
+     * @param maxDiskBytes   disk space route files may take
+     * @throws IOException if the directory can't be created
+     */
+    public RouteCache(Path directory, long maxMemoryBytes, long maxDiskBytes) throws IOException {
+        this.directory = directory;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * A 64-bit hash of the walls, size, start and target of <code>board</code>.
+     * Reads every square once.
+     *
+     * @param board a board
+     * @return the fingerprint
+     */
+    public static long fingerprint(GridBoard board) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        long hash = mix(mix(((long) width << 32) | height,
+                ((long) board.getStartX() << 32) | board.getStartY()),
+                ((long) board.getTargetX() << 32) | board.getTargetY());
+
+        // Walls of 16 squares are hashed at a time.
+        long word = 0;
+        int squares = 0;
+        for (int y = 0; y != height; ++y) {
+            for (int x = 0; x != width; ++x) {
+                word = (word << 4) | board.getWalls(x, y);
+                if (++squares == 16) {
+                    hash = mix(hash, word);
+                    word = 0;
+                    squares = 0;
+                }
+            }
+        }
+        hash = mix(hash, word);
+
+        // Final avalanche, as in MurmurHash3.
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Look up the route of <code>board</code>, in memory first, then on disk.
+     *
+     * @param board a board
+     * @return moves from start to target, null if none is cached
+     * @throws IOException if reading a route file fails
+     */
+    public synchronized MoveBuffer get(GridBoard board) throws IOException {
+        long fingerprint = fingerprint(board);
+
+        MoveBuffer route = routes.get(fingerprint);
+        if (route != null) {
+            memoryHits++;
+            return route;
+        }
+
+        if (directory != null) {
+            Path file = fileOf(fingerprint);
+            if (Files.exists(file)) {
+                route = readRoute(file, board, fingerprint);
+                if (route != null) {
+                    diskHits++;
+                    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                    remember(fingerprint, route);
+                    return route;
+                }
+                brokenFiles++;
+                Files.deleteIfExists(file);
+            }
+        }
+
+        misses++;
+        return null;
+    }
+
+    /**
+     * Cache the route of <code>board</code>.
+     *
+     * @param board a board
+     * @param route moves from start to target
+     * @throws IOException if writing the route file fails
+     */
+    public synchronized void put(GridBoard board, MoveBuffer route) throws IOException {
+        long fingerprint = fingerprint(board);
+        remember(fingerprint, route);
+
+        if (directory != null) {
+            writeRoute(fileOf(fingerprint), board, fingerprint, route);
+            evictFiles();
+        }
+    }
+
+    public synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of route files deleted because they didn't match their board
+     */
+    public synchronized long getBrokenFiles() {
+        return brokenFiles;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Route cache: " + memoryHits + " memory hits, " + diskHits + " disk hits, "
+                + misses + " misses, " + brokenFiles + " broken files";
+    }
+
+    private void remember(long fingerprint, MoveBuffer route) {
+        MoveBuffer old = routes.put(fingerprint, route);
+        if (old != null) {
+            memoryBytes -= sizeOf(old);
+        }
+        memoryBytes += sizeOf(route);
+
+        Iterator<MoveBuffer> leastRecent = routes.values().iterator();
+        while (memoryBytes > maxMemoryBytes && leastRecent.hasNext()) {
+            memoryBytes -= sizeOf(leastRecent.next());
+            leastRecent.remove();
+        }
+    }
+
+    private Path fileOf(long fingerprint) {
+        return directory.resolve(String.format("%016x", fingerprint) + EXTENSION);
+    }
+
+    private static void writeRoute(Path file, GridBoard board, long fingerprint, MoveBuffer route)
+            throws IOException {
+        // Written aside and moved in place, so readers never see half a file.
+        Path temporary = Files.createTempFile(file.getParent(), "route", ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(fingerprint);
+            output.writeInt(board.getWidth());
+            output.writeInt(board.getHeight());
+            output.writeInt(route.size());
+
+            PathRecorder recorder = new PathRecorder(board.getStartX(), board.getStartY(), false);
+            recorder.setOutput(output);
+            for (int i = 0; i != route.size(); ++i) {
+                recorder.onMove(route.get(i));
+            }
+            recorder.flush();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the route, null if the file doesn't hold a valid route of <code>board</code>
+     */
+    private static MoveBuffer readRoute(Path file, GridBoard board, long fingerprint) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION || input.readLong() != fingerprint
+                    || input.readInt() != board.getWidth() || input.readInt() != board.getHeight()) {
+                return null;
+            }
+            int steps = input.readInt();
+            if (steps < 0) {
+                return null;
+            }
+
+            PathRecorder.Replay replay = PathRecorder.read(input);
+            int x = replay.getX();
+            int y = replay.getY();
+            if (x != board.getStartX() || y != board.getStartY()) {
+                return null;
+            }
+
+            MoveBuffer route = new MoveBuffer(steps);
+            for (int i = 0; i != steps; ++i) {
+                if (!replay.next()) {
+                    return null;
+                }
+                int direction = directionOf(replay.getX() - x, replay.getY() - y);
+                if (direction < 0 || !board.mayMove(x, y, direction)) {
+                    return null;
+                }
+                route.add(direction);
+                x = replay.getX();
+                y = replay.getY();
+            }
+
+            boolean complete = !replay.next() && input.read() == -1;
+            return complete && x == board.getTargetX() && y == board.getTargetY() ? route : null;
+        } catch (EOFException | UncheckedIOException e) {
+            return null;
+        }
+    }
+
+    private void evictFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        long diskBytes = 0;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Iterator<Path> i = listing.iterator(); i.hasNext(); ) {
+                Path file = i.next();
+                if (file.getFileName().toString().endsWith(EXTENSION)) {
+                    files.add(file);
+                    diskBytes += Files.size(file);
+                }
+            }
+        }
+        if (diskBytes <= maxDiskBytes) {
+            return;
+        }
+
+        Map<Path, FileTime> lastUses = new LinkedHashMap<>();
+        for (Path file : files) {
+            lastUses.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort((a, b) -> lastUses.get(a).compareTo(lastUses.get(b)));
+        for (Path file : files) {
+            if (diskBytes <= maxDiskBytes) {
+                break;
+            }
+            diskBytes -= Files.size(file);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int directionOf(int dx, int dy) {
+        for (int direction = 0; direction != 4; ++direction) {
+            if (GridBoard.dx(direction) == dx && GridBoard.dy(direction) == dy) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    private static long sizeOf(MoveBuffer route) {
+        return ENTRY_OVERHEAD + (route.size() + 3) / 4;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value * 0x9E3779B97F4A7C15L;
+        return Long.rotateLeft(hash, 31) * 0xC2B2AE3D27D4EB4FL;
+    }
+}
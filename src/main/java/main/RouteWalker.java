@@ -0,0 +1,43 @@
+package main;
+
+import maze.*;
+
+/**
+ * An implementation of <code>Walker</code> that replays a known route,
+ * one move per step, without probing the board.
+ */
+public class RouteWalker extends Walker {
+
+    private final MoveBuffer route;
+    private int nextMove = 0;
+
+    /**
+     * Create new <code>RouteWalker</code>
+     *
+     * @param route moves from start to target
+     */
+    public RouteWalker(MoveBuffer route) {
+        this("Route Walker", route);
+    }
+
+    protected RouteWalker(String name, MoveBuffer route) {
+        super(name);
+        this.route = route != null ? route : new MoveBuffer(0);
+    }
+
+    @Override
+    protected Direction move(View v) {
+        if (nextMove == route.size()) {
+            // Route is done (or there was none).
+            return null;
+        }
+        return route.getDirection(nextMove++);
+    }
+
+    /**
+     * @return the route being replayed
+     */
+    public MoveBuffer getRoute() {
+        return route;
+    }
+}
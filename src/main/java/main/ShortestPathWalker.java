@@ -0,0 +1,26 @@
+package main;
+
+/**
+ * Implementation of <code>Walker</code> that computes a shortest route
+ * up front, then walks it one move per step.
+ * <p>
+ * Needs to know the whole board, so it's created with a <code>GridBoard</code>
+ * (see <code>CompactBoard.fromBoard</code> for <code>maze.Board</code>s).
+ */
+public class ShortestPathWalker extends RouteWalker {
+
+    public ShortestPathWalker(GridBoard board) {
+        this(board, PathFinder.Strategy.A_STAR);
+    }
+
+    /**
+     * Create new <code>ShortestPathWalker</code>
+     *
+     * @param board    the board to be walked
+     * @param strategy search strategy used to find the route
+     */
+    public ShortestPathWalker(GridBoard board, PathFinder.Strategy strategy) {
+        super(strategy == PathFinder.Strategy.A_STAR ? "A* Walker" : "BFS Walker",
+                PathFinder.findRoute(board, strategy));
+    }
+}
@@ -2,10 +2,6 @@ package main;
 
 import maze.*;
 
-import java.util.Objects;
-import java.util.HashMap;
-import java.util.Stack;
-
 /**
  * Implementation of <code>Walker</code> that follows the nearest
  * left wall.
@@ -13,44 +9,47 @@ import java.util.Stack;
 public class SmarterLeftWalker extends LeftWalker {
 
     /**
-     * Store exact decision this walker made upon encountered a square in the past.
+     * Store all moves this walker made, as snapshots of the decision made
+     * upon encountering each square.
      */
-    private static class SquareSnapshot {
-        public final int takenDirection;
-        public final int facingDirection;
+    protected final SquareSnapshotStack visitedSquareHistory = new SquareSnapshotStack();
 
-        public SquareSnapshot(int takenDirection, int facingDirection) {
-            this.takenDirection = takenDirection;
-            this.facingDirection = facingDirection;
-        }
+    protected long backtracks = 0;
+
+    public SmarterLeftWalker() {
+        this(new HashVisitedSquareStore());
     }
 
     /**
-     * Store all moves this walker made.
+     * Create new <code>SmarterLeftWalker</code>
+     * @param visitedSquareLookup   a store for visited squares
      */
-    private final Stack<SquareSnapshot> visitedSquareHistory = new Stack<SquareSnapshot>();
+    public SmarterLeftWalker(VisitedSquareStore visitedSquareLookup) {
+        super("Smarter Left Walker", visitedSquareLookup);
+    }
 
-    public SmarterLeftWalker() {
-        super("Smarter Left Walker");
+    @Override
+    public long getBacktracks() {
+        return backtracks;
     }
 
     @Override
     protected Direction move(View v) {
 
-        Coord coord = new Coord(posX, posY);
+        readWallMask(v);
 
         // Get info about current square.
-        // Prepare a new one if this is the first entrance.
-        SquareInfo squareInfo = visitedSquareLookup.get(coord);
-
-        if (squareInfo == null) {
-            squareInfo = new SquareInfo(0);
-            visitedSquareLookup.put(coord, squareInfo);
+        int squareExitInfo = visitedSquareLookup.getExitInfo(posX, posY);
+        if (squareExitInfo != 0) {
+            revisits++;
         }
 
         if (visitedSquareHistory.size() > 0) {
-            SquareSnapshot previousSquareSnapshot = visitedSquareHistory.peek();
-            squareInfo.updateExitInfo(oppositeOf(previousSquareSnapshot.takenDirection));
+            // Mark the way we came in as used.
+            int previousSquareSnapshot = visitedSquareHistory.peek();
+            int entryDirection = oppositeOf(SquareSnapshotStack.takenDirectionOf(previousSquareSnapshot));
+            visitedSquareLookup.markExit(posX, posY, entryDirection);
+            squareExitInfo = setUsedExitDirection(squareExitInfo, entryDirection);
         }
 
         // Begin finding next move.
@@ -61,16 +60,15 @@ public class SmarterLeftWalker extends LeftWalker {
             }
         }
 
-        int nextMoveDirection = findNextMove(v, squareInfo.exitInfo);
+        int nextMoveDirection = findNextMove(v, squareExitInfo);
 
         if (nextMoveDirection >= 0) {
 
             // Before moving to the next square, mark next move direction as used.
-            squareInfo.updateExitInfo(nextMoveDirection);
+            visitedSquareLookup.markExit(posX, posY, nextMoveDirection);
 
             // Save snapshot.
-            SquareSnapshot newSquareSnapshot = new SquareSnapshot(nextMoveDirection, facingDirection);
-            visitedSquareHistory.push(newSquareSnapshot);
+            visitedSquareHistory.push(nextMoveDirection, facingDirection);
 
             // Change facing direction towards the open path.
             facingDirection = nextMoveDirection;
@@ -78,9 +76,10 @@ public class SmarterLeftWalker extends LeftWalker {
 
             // Try to backtrack.
             if (visitedSquareHistory.size() > 0) {
-                SquareSnapshot squareSnapshot = visitedSquareHistory.pop();
-                facingDirection = squareSnapshot.facingDirection;
-                nextMoveDirection = oppositeOf(squareSnapshot.takenDirection);
+                backtracks++;
+                int squareSnapshot = visitedSquareHistory.pop();
+                facingDirection = SquareSnapshotStack.facingDirectionOf(squareSnapshot);
+                nextMoveDirection = oppositeOf(SquareSnapshotStack.takenDirectionOf(squareSnapshot));
             }
         }
 
@@ -0,0 +1,60 @@
+package main;
+
+/**
+ * Outcome of a headless solve.
+ */
+public class SolveResult {
+
+    private final String walkerName;
+    private final boolean solved;
+    private final int steps;
+    private final long wallTimeNanos;
+    private final MoveBuffer moves;
+
+    public SolveResult(String walkerName, boolean solved, int steps, long wallTimeNanos, MoveBuffer moves) {
+        this.walkerName = walkerName;
+        this.solved = solved;
+        this.steps = steps;
+        this.wallTimeNanos = wallTimeNanos;
+        this.moves = moves;
+    }
+
+    public String getWalkerName() {
+        return walkerName;
+    }
+
+    /**
+     * @return whether the walker reached the target
+     */
+    public boolean isSolved() {
+        return solved;
+    }
+
+    /**
+     * @return number of moves actually made on the board
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    public long getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000;
+    }
+
+    /**
+     * @return moves made on the board, in order
+     */
+    public MoveBuffer getMoves() {
+        return moves;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s in %dms, %d steps",
+                walkerName, solved ? "solved" : "gave up", getWallTimeMillis(), steps);
+    }
+}
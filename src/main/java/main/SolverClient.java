@@ -0,0 +1,171 @@
+package main;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends mazes to a <code>SolverServer</code> and reads back the routes.
+ * <p>
+ * <code>solve</code> waits for each response. To have many mazes solved in one batch,
+ * <code>send</code> them all, then <code>receive</code> the responses in the same order.
+ * Not thread safe.
+ */
+public class SolverClient implements Closeable {
+
+    /**
+     * Response of the server to one maze.
+     */
+    public static class Response {
+        private final int status;
+        private final int steps;
+        private final long solveNanos;
+        private final byte[] route;
+        private final String error;
+
+        Response(int status, int steps, long solveNanos, byte[] route, String error) {
+            this.status = status;
+            this.steps = steps;
+            this.solveNanos = solveNanos;
+            this.route = route;
+            this.error = error;
+        }
+
+        /**
+         * @return whether the walker reached the target
+         */
+        public boolean isSolved() {
+            return status == SolverServer.SOLVED;
+        }
+
+        /**
+         * @return whether the server couldn't solve the maze at all, see <code>getError</code>
+         */
+        public boolean isError() {
+            return status == SolverServer.ERROR;
+        }
+
+        public int getSteps() {
+            return steps;
+        }
+
+        /**
+         * @return time the walker took on the server, in nanoseconds
+         */
+        public long getSolveNanos() {
+            return solveNanos;
+        }
+
+        /**
+         * @return the walk, square by square from the start square
+         */
+        public PathRecorder.Replay getRoute() {
+            if (route == null) {
+                throw new IllegalStateException("Server sent no route: " + error);
+            }
+            try {
+                return PathRecorder.read(new ByteArrayInputStream(route));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return message of the server, null unless <code>isError()</code>
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+
+    /**
+     * Connect to a server on the loopback address.
+     *
+     * @param port port the server listens on
+     * @throws IOException if the connection fails
+     */
+    public SolverClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Have <code>board</code> solved and wait for the response.
+     *
+     * @param walkerName name of a walker in <code>WalkerRegistry</code>
+     * @param board      the maze, sent in binary format
+     * @return response of the server
+     * @throws IOException if the connection fails
+     */
+    public Response solve(String walkerName, GridBoard board) throws IOException {
+        send(walkerName, board);
+        return receive();
+    }
+
+    /**
+     * Queue <code>board</code> for solving without waiting for the response.
+     *
+     * @param walkerName name of a walker in <code>WalkerRegistry</code>
+     * @param board      the maze, sent in binary format
+     * @throws IOException if the connection fails
+     */
+    public void send(String walkerName, GridBoard board) throws IOException {
+        ByteArrayOutputStream maze = new ByteArrayOutputStream();
+        MazeFile.write(board, maze);
+        send(SolverServer.FORMAT_BINARY, walkerName, maze.toByteArray());
+    }
+
+    /**
+     * Queue a maze in the text format read by <code>Board(Reader)</code> for solving,
+     * without waiting for the response.
+     *
+     * @param walkerName name of a walker in <code>WalkerRegistry</code>
+     * @param maze       the maze as text
+     * @throws IOException if the connection fails
+     */
+    public void sendText(String walkerName, String maze) throws IOException {
+        send(SolverServer.FORMAT_TEXT, walkerName, maze.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Wait for the response to the oldest maze sent and not received yet.
+     * Mazes still buffered are sent first.
+     *
+     * @return response of the server
+     * @throws IOException if the connection fails
+     */
+    public Response receive() throws IOException {
+        output.flush();
+        int status = input.readUnsignedByte();
+        if (status == SolverServer.ERROR) {
+            return new Response(status, 0, 0, null, input.readUTF());
+        }
+        int steps = input.readInt();
+        long solveNanos = input.readLong();
+        byte[] route = new byte[input.readInt()];
+        input.readFully(route);
+        return new Response(status, steps, solveNanos, route, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Queue a maze in any format, as is.
+     */
+    void send(int format, String walkerName, byte[] maze) throws IOException {
+        output.writeByte(format);
+        output.writeUTF(walkerName);
+        output.writeInt(maze.length);
+        output.write(maze);
+    }
+}
@@ -0,0 +1,450 @@
+package main;
+
+import maze.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A long-running solver listening on a loopback TCP port, so clients don't pay for
+ * starting a JVM and warming up the walkers on every maze.
+ * <p>
+ * A connection carries any number of requests, answered in order. A request is a format byte
+ * (<code>FORMAT_TEXT</code> for the text format read by <code>Board(Reader)</code>,
+ * <code>FORMAT_BINARY</code> for the binary maze format of <code>MazeFile</code>), the name of a
+ * walker in <code>WalkerRegistry</code> as written by <code>DataOutput.writeUTF</code>, then the
+ * length of the maze as an <code>int</code> and the maze itself. A response is a status byte,
+ * then for <code>SOLVED</code> and <code>GAVE_UP</code> the number of steps, the solve time in
+ * nanoseconds as a <code>long</code>, the length of the route as an <code>int</code> and the
+ * route as streamed by a <code>PathRecorder</code>; for <code>ERROR</code> a message written by
+ * <code>writeUTF</code>. See <code>SolverClient</code>.
+ * <p>
+ * Connections only read requests, which are queued for a pool of workers. A worker takes
+ * all queued requests at once, up to <code>MAX_BATCH</code>, solves them and hands the responses
+ * to the writer thread of their connection. The writer writes all responses it has in order and
+ * flushes once, so clients sending many requests before reading the responses get them with
+ * few writes. A connection has at most <code>MAX_PENDING</code> unanswered requests and the
+ * queue of requests is bounded, so a client that doesn't read its responses only stalls itself.
+ * <p>
+ * With a <code>RouteCache</code>, routes are only cached for walkers planning on the whole
+ * board: they all walk a shortest route, so any of them may replay another's.
+ */
+public class SolverServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7543;
+    public static final int MAX_BATCH = 64;
+
+    /**
+     * Most requests of a connection waiting for their response.
+     */
+    public static final int MAX_PENDING = MAX_BATCH;
+
+    /**
+     * Most requests queued for the workers, of all connections.
+     */
+    private static final int MAX_QUEUED = 2 * MAX_BATCH;
+
+    /**
+     * Longest maze accepted, in bytes.
+     */
+    public static final int MAX_MAZE_SIZE = 1 << 28;
+
+    static final int FORMAT_TEXT = 'T';
+    static final int FORMAT_BINARY = 'B';
+
+    static final int SOLVED = 0;
+    static final int GAVE_UP = 1;
+    static final int ERROR = 2;
+
+    private final ServerSocket serverSocket;
+    private final int workers;
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>(MAX_QUEUED);
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private RouteCache routeCache = null;
+    private long maxMovesPerSquare = 100;
+    private volatile boolean closed = false;
+
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Create new <code>SolverServer</code> bound to the loopback address.
+     *
+     * @param port    port to listen on, 0 for any free port
+     * @param workers number of threads solving mazes
+     * @throws IOException if the port can't be bound
+     */
+    public SolverServer(int port, int workers) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Need at least one worker");
+        }
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.workers = workers;
+    }
+
+    /**
+     * @param routeCache cache of routes shared by all requests, may be null
+     */
+    public void setRouteCache(RouteCache routeCache) {
+        this.routeCache = routeCache;
+    }
+
+    /**
+     * @param maxMovesPerSquare moves per square of a maze after which a walker gives up
+     */
+    public void setMaxMovesPerSquare(long maxMovesPerSquare) {
+        this.maxMovesPerSquare = maxMovesPerSquare;
+    }
+
+    /**
+     * Start accepting connections and solving requests, on daemon threads.
+     */
+    public synchronized void start() {
+        if (!threads.isEmpty()) {
+            throw new IllegalStateException("Server already started");
+        }
+        for (int i = 0; i != workers; ++i) {
+            threads.add(startThread(this::work, "solver-worker-" + i));
+        }
+        threads.add(startThread(this::accept, "solver-acceptor"));
+    }
+
+    /**
+     * Wait until the server is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void join() throws InterruptedException {
+        Thread acceptor;
+        synchronized (this) {
+            if (threads.isEmpty()) {
+                return;
+            }
+            acceptor = threads.get(threads.size() - 1);
+        }
+        acceptor.join();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return number of requests answered with a route, solved or not
+     */
+    public long getSolved() {
+        return solved.get();
+    }
+
+    /**
+     * @return number of requests answered with an error
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return number of batches taken by workers
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Solver on " + serverSocket.getLocalSocketAddress() + ": " + getSolved() + " solved, "
+                + getErrors() + " errors, " + getBatches() + " batches";
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+                connection.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Cannot accept connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void work() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                batch.add(requests.take());
+                requests.drainTo(batch, MAX_BATCH - 1);
+                batches.incrementAndGet();
+
+                for (Request request : batch) {
+                    byte[] response;
+                    try {
+                        response = solve(request);
+                        solved.incrementAndGet();
+                    } catch (Throwable e) {
+                        // A bad maze or walker name, even a maze too big for memory, only fails its own request.
+                        response = error(e);
+                        errors.incrementAndGet();
+                    }
+                    request.connection.respond(request.sequence, response);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Server closed.
+        }
+    }
+
+    /**
+     * @return the encoded response to <code>request</code>
+     * @throws IOException if the maze can't be read
+     */
+    private byte[] solve(Request request) throws IOException {
+        GridBoard board;
+        if (request.format == FORMAT_TEXT) {
+            checkTextSize(request.maze);
+            board = CompactBoard.read(new InputStreamReader(
+                    new ByteArrayInputStream(request.maze), StandardCharsets.US_ASCII));
+        } else {
+            board = MazeFile.read(new ByteArrayInputStream(request.maze), request.maze.length);
+        }
+
+        WalkerRegistry.Kind kind = WalkerRegistry.kindOf(request.walkerName);
+        if (kind == WalkerRegistry.Kind.INTERACTIVE) {
+            throw new IllegalArgumentException("Walker " + request.walkerName + " needs a window");
+        }
+        Walker walker = routeCache != null && kind == WalkerRegistry.Kind.PLANNING
+                ? CachedRouteWalker.forBoard(routeCache, board,
+                () -> WalkerRegistry.create(request.walkerName, board, 1))
+                : WalkerRegistry.create(request.walkerName, board, 1);
+
+        ByteArrayOutputStream route = new ByteArrayOutputStream();
+        PathRecorder recorder = new PathRecorder(board.getStartX(), board.getStartY(), false);
+        recorder.setOutput(route);
+        HeadlessSolver solver = new HeadlessSolver(maxMovesPerSquare * board.getWidth() * board.getHeight());
+        solver.setMoveListener(recorder);
+        SolveResult result = solver.solve(walker, board);
+        recorder.flush();
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream(route.size() + 32);
+        DataOutputStream output = new DataOutputStream(response);
+        output.writeByte(result.isSolved() ? SOLVED : GAVE_UP);
+        output.writeInt(result.getSteps());
+        output.writeLong(result.getWallTimeNanos());
+        output.writeInt(route.size());
+        route.writeTo(output);
+        output.flush();
+        return response.toByteArray();
+    }
+
+    /**
+     * Every square of a text maze takes at least a digit and a separator, so a maze claiming
+     * more squares than it has bytes is rejected before the board is allocated.
+     */
+    private static void checkTextSize(byte[] maze) throws IOException {
+        BoardTextReader textReader = new BoardTextReader(new InputStreamReader(
+                new ByteArrayInputStream(maze), StandardCharsets.US_ASCII));
+        long squares = (long) textReader.getWidth() * textReader.getHeight();
+        if (squares > maze.length) {
+            throw new IOException("Maze of " + maze.length + " bytes can't hold "
+                    + textReader.getWidth() + "x" + textReader.getHeight() + " squares");
+        }
+    }
+
+    /**
+     * @return the encoded error response
+     */
+    private static byte[] error(Throwable e) {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(response);
+        try {
+            output.writeByte(ERROR);
+            output.writeUTF(e.getMessage() != null ? e.getMessage() : e.toString());
+            output.flush();
+        } catch (IOException impossible) {
+            throw new UncheckedIOException(impossible);
+        }
+        return response.toByteArray();
+    }
+
+    private static Thread startThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * A request read from a connection, numbered in order of arrival on it.
+     */
+    private static class Request {
+        final Connection connection;
+        final long sequence;
+        final int format;
+        final String walkerName;
+        final byte[] maze;
+
+        Request(Connection connection, long sequence, int format, String walkerName, byte[] maze) {
+            this.connection = connection;
+            this.sequence = sequence;
+            this.format = format;
+            this.walkerName = walkerName;
+            this.maze = maze;
+        }
+    }
+
+    /**
+     * A response of a connection, or the end of its requests if <code>response</code> is null.
+     */
+    private static class Response {
+        final long sequence;
+        final byte[] response;
+
+        Response(long sequence, byte[] response) {
+            this.sequence = sequence;
+            this.response = response;
+        }
+    }
+
+    /**
+     * A client connection. Its reader thread queues requests, its writer thread writes
+     * responses in order of the requests.
+     */
+    private class Connection {
+        private final Socket socket;
+        private final Semaphore pending = new Semaphore(MAX_PENDING);
+        private final BlockingQueue<Response> responses = new LinkedBlockingQueue<>();
+        private final Thread reader;
+        private final Thread writer;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+            this.reader = new Thread(this::read, "solver-reader-" + socket.getPort());
+            this.writer = new Thread(this::write, "solver-writer-" + socket.getPort());
+            reader.setDaemon(true);
+            writer.setDaemon(true);
+        }
+
+        void start() {
+            writer.start();
+            reader.start();
+        }
+
+        /**
+         * Hand over the response to request number <code>sequence</code>. Never blocks.
+         */
+        void respond(long sequence, byte[] response) {
+            responses.add(new Response(sequence, response));
+        }
+
+        private void read() {
+            try {
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                for (long sequence = 0; ; ++sequence) {
+                    int format = input.read();
+                    if (format < 0) {
+                        // The client may still wait for responses.
+                        responses.add(new Response(sequence, null));
+                        break;
+                    }
+                    if (format != FORMAT_TEXT && format != FORMAT_BINARY) {
+                        throw new IOException("Unknown maze format " + format);
+                    }
+                    String walkerName = input.readUTF();
+                    int length = input.readInt();
+                    if (length < 0 || length > MAX_MAZE_SIZE) {
+                        throw new IOException("Maze of " + length + " bytes is too long");
+                    }
+                    byte[] maze = new byte[length];
+                    input.readFully(maze);
+
+                    pending.acquire();
+                    requests.put(new Request(this, sequence, format, walkerName, maze));
+                }
+            } catch (SocketException | InterruptedException e) {
+                // Closed by the client or the server.
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Dropping connection from " + socket.getRemoteSocketAddress()
+                            + ": " + e.getMessage());
+                }
+                close();
+            }
+        }
+
+        private void write() {
+            Map<Long, byte[]> waiting = new HashMap<>();
+            long nextResponse = 0;
+            long requestCount = -1;
+            try {
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                while (nextResponse != requestCount) {
+                    // Take everything ready, write what's next in order and flush once.
+                    for (Response next = responses.take(); next != null; next = responses.poll()) {
+                        if (next.response == null) {
+                            requestCount = next.sequence;
+                        } else {
+                            waiting.put(next.sequence, next.response);
+                        }
+                    }
+                    for (byte[] next; (next = waiting.remove(nextResponse)) != null; ++nextResponse) {
+                        output.write(next);
+                        pending.release();
+                    }
+                    output.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Closed by the client or the server.
+            }
+            close();
+        }
+
+        void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to do with it.
+            }
+            if (Thread.currentThread() != reader) {
+                reader.interrupt();
+            }
+            if (Thread.currentThread() != writer) {
+                writer.interrupt();
+            }
+        }
+    }
+}
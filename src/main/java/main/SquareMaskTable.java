@@ -0,0 +1,163 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * A table of one byte per square, backed by a 4-way set associative array with
+ * primitive <code>long</code> keys.
+ * <p>
+ * Ways of a set are kept in order of last use, most recent first. An unbounded table
+ * grows when a set overflows. A bounded table never grows, it drops the least recently
+ * used square of the set instead.
+ * <p>
+ * Value 0 marks an empty way, so 0 can't be stored.
+ */
+public class SquareMaskTable {
+
+    private static final int WAYS = 4;
+    private static final int DEFAULT_SETS = 16;
+
+    private final boolean bounded;
+
+    private long[] keys;
+    private byte[] values;
+    private int setMask;
+    private int size = 0;
+    private long evictions = 0;
+
+    /**
+     * Create new unbounded <code>SquareMaskTable</code>
+     */
+    public SquareMaskTable() {
+        bounded = false;
+        allocate(DEFAULT_SETS);
+    }
+
+    /**
+     * Create new bounded <code>SquareMaskTable</code>
+     *
+     * @param maxSquares number of squares held at most, rounded up to a power of two
+     */
+    public SquareMaskTable(int maxSquares) {
+        if (maxSquares < 1) {
+            throw new IllegalArgumentException("Table must hold at least one square");
+        }
+        bounded = true;
+        int sets = 1;
+        while ((long) sets * WAYS < maxSquares) {
+            sets <<= 1;
+        }
+        allocate(sets);
+    }
+
+    /**
+     * @return value stored for the square, 0 if none
+     */
+    public int get(int x, int y) {
+        long key = HashVisitedSquareStore.toKey(x, y);
+        int first = (HashVisitedSquareStore.hash(key) & setMask) * WAYS;
+
+        for (int way = first; way != first + WAYS && values[way] != 0; ++way) {
+            if (keys[way] == key) {
+                byte value = values[way];
+                promote(first, way, key, value);
+                return value & 0xFF;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param value a non-zero value, only the low 8 bits are kept
+     */
+    public void put(int x, int y, int value) {
+        if ((value & 0xFF) == 0) {
+            throw new IllegalArgumentException("Cannot store 0");
+        }
+        long key = HashVisitedSquareStore.toKey(x, y);
+
+        while (true) {
+            int first = (HashVisitedSquareStore.hash(key) & setMask) * WAYS;
+            int way = first;
+            while (way != first + WAYS - 1 && values[way] != 0 && keys[way] != key) {
+                way++;
+            }
+
+            if (values[way] == 0) {
+                size++;
+            } else if (keys[way] != key) {
+                // Set is full.
+                if (!bounded) {
+                    allocate((setMask + 1) << 1);
+                    continue;
+                }
+                evictions++;
+            }
+            promote(first, way, key, (byte) value);
+            return;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of squares dropped to make room, always 0 for an unbounded table
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void clear() {
+        Arrays.fill(values, (byte) 0);
+        size = 0;
+    }
+
+    /**
+     * Store <code>key</code> in the first way of the set, shifting the ways before
+     * <code>way</code> one down. Whatever was in <code>way</code> is overwritten.
+     */
+    private void promote(int first, int way, long key, byte value) {
+        for (; way != first; --way) {
+            keys[way] = keys[way - 1];
+            values[way] = values[way - 1];
+        }
+        keys[first] = key;
+        values[first] = value;
+    }
+
+    private void allocate(int sets) {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+
+        keys = new long[sets * WAYS];
+        values = new byte[sets * WAYS];
+        setMask = sets - 1;
+
+        if (oldKeys == null) {
+            return;
+        }
+        // Reinsert least recently used first, so the order within each set survives.
+        for (int way = WAYS - 1; way >= 0; --way) {
+            for (int i = way; i < oldKeys.length; i += WAYS) {
+                if (oldValues[i] != 0) {
+                    int first = (HashVisitedSquareStore.hash(oldKeys[i]) & setMask) * WAYS;
+                    int last = first;
+                    while (last != first + WAYS - 1 && values[last] != 0) {
+                        last++;
+                    }
+                    if (values[last] != 0) {
+                        // Still no room, grow further.
+                        keys = oldKeys;
+                        values = oldValues;
+                        setMask = oldKeys.length / WAYS - 1;
+                        allocate(sets << 1);
+                        return;
+                    }
+                    promote(first, last, oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+}
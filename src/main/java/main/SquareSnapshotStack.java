@@ -0,0 +1,134 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * A stack of square snapshots, i.e. decisions a walker made upon encountering a square:
+ * the direction it took and the direction it was facing.
+ * <p>
+ * Each snapshot is packed into 4 bits, 16 snapshots per <code>long</code>, so pushing
+ * doesn't allocate. The stack isn't synchronized and gives memory back after long unwinds.
+ */
+public class SquareSnapshotStack {
+
+    private static final int SNAPSHOTS_PER_WORD = 16;
+    private static final int MIN_WORDS = 16;
+
+    private long[] words = new long[MIN_WORDS];
+    private int size = 0;
+    private int lowWaterMark = 0;
+
+    /**
+     * Push a snapshot.
+     *
+     * @param takenDirection  integer direction taken from the square
+     * @param facingDirection integer direction the walker was facing
+     */
+    public void push(int takenDirection, int facingDirection) {
+        int wordIndex = size / SNAPSHOTS_PER_WORD;
+        if (wordIndex == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+
+        int shift = (size % SNAPSHOTS_PER_WORD) * 4;
+        long snapshot = takenDirection | (facingDirection << 2);
+        words[wordIndex] = (words[wordIndex] & ~(0xFL << shift)) | (snapshot << shift);
+        size++;
+    }
+
+    /**
+     * Remove the top snapshot.
+     *
+     * @return the removed snapshot, use <code>takenDirectionOf</code> and
+     * <code>facingDirectionOf</code> to unpack it
+     */
+    public int pop() {
+        int snapshot = peek();
+        size--;
+        if (size < lowWaterMark) {
+            lowWaterMark = size;
+        }
+
+        // Shrink after long unwinds, keeping some slack to avoid resizing back and forth.
+        if (words.length > MIN_WORDS && size < words.length * SNAPSHOTS_PER_WORD / 4) {
+            words = Arrays.copyOf(words, words.length / 2);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the top snapshot, use <code>takenDirectionOf</code> and
+     * <code>facingDirectionOf</code> to unpack it
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Stack is empty");
+        }
+        int index = size - 1;
+        return (int) (words[index / SNAPSHOTS_PER_WORD] >>> ((index % SNAPSHOTS_PER_WORD) * 4)) & 0xF;
+    }
+
+    /**
+     * @param index position from the bottom of the stack
+     * @return the snapshot at <code>index</code>
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No snapshot at " + index);
+        }
+        return (int) (words[index / SNAPSHOTS_PER_WORD] >>> ((index % SNAPSHOTS_PER_WORD) * 4)) & 0xF;
+    }
+
+    /**
+     * Drop snapshots from the top until <code>size</code> are left.
+     *
+     * @param size number of snapshots to keep
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IndexOutOfBoundsException("Cannot truncate " + this.size + " snapshots to " + size);
+        }
+        this.size = size;
+        lowWaterMark = Math.min(lowWaterMark, size);
+    }
+
+    /**
+     * @return smallest size since the last <code>resetLowWaterMark</code>, snapshots below it haven't changed
+     */
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    public void resetLowWaterMark() {
+        lowWaterMark = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of snapshots the stack can hold without growing
+     */
+    public int capacity() {
+        return words.length * SNAPSHOTS_PER_WORD;
+    }
+
+    public void clear() {
+        words = new long[MIN_WORDS];
+        size = 0;
+        lowWaterMark = 0;
+    }
+
+    public static int takenDirectionOf(int snapshot) {
+        return snapshot & 3;
+    }
+
+    public static int facingDirectionOf(int snapshot) {
+        return (snapshot >>> 2) & 3;
+    }
+}
@@ -1,6 +1,7 @@
 package main;
 
 import java.util.*;
+import java.util.concurrent.locks.LockSupport;
 
 import maze.*;
 
@@ -10,14 +11,33 @@ import java.awt.event.KeyListener;
 /**
  * An implementation of <code>Walker</code> that allows user
  * to control another <code>Walker</code>.
+ * <p>
+ * The step key posts a command into an <code>InputRing</code>, and a worker thread steps
+ * the controlled walker, so the EDT never waits for a step. Typing a number before the
+ * step key takes that many steps, e.g. <code>1000</code> then the step key. Escape drops
+ * the steps not taken yet.
  */
 public class StepWalker extends Walker
                         implements KeyListener {
 
+    private static final int QUEUED_COMMANDS = 256;
+
+    /**
+     * Marks where Escape was pressed among the queued step counts.
+     */
+    private static final int CANCEL = -1;
+
     private final Board board;
     private final Walker walker;
     private int stepKeyCode;
 
+    private final InputRing commands = new InputRing(QUEUED_COMMANDS);
+    private volatile int cancels = 0; // written by the EDT only
+
+    // Only touched by the EDT.
+    private Thread worker = null;
+    private int repeatCount = 0;
+
     public StepWalker(Board board, Walker walker) {
         super(String.format("Step Walker (%s)", walker.getName()));
         this.board = board;
@@ -43,14 +63,70 @@ public class StepWalker extends Walker
 
     @Override
     public void keyPressed(KeyEvent e) {
-        if (e.getKeyCode() == stepKeyCode) {
-            if (!board.isSolved()) {
-                walker.step(board);
+        int digit = KeyWalker.digitOf(e);
+        if (digit >= 0) {
+            repeatCount = (int) Math.min(Integer.MAX_VALUE, repeatCount * 10L + digit);
+        } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+            repeatCount = 0;
+            if (worker != null) {
+                // Counted first, so the worker stops its current steps right away.
+                cancels++;
+                while (!commands.offer(CANCEL)) {
+                    // The worker is dropping commands, room comes soon.
+                    Thread.onSpinWait();
+                }
+                LockSupport.unpark(worker);
             }
+        } else if (e.getKeyCode() == stepKeyCode) {
+            if (worker == null) {
+                worker = new Thread(this::takeSteps, "step-worker");
+                worker.setDaemon(true);
+                worker.start();
+            }
+            if (commands.offer(Math.max(1, repeatCount))) {
+                LockSupport.unpark(worker);
+            }
+            repeatCount = 0;
         }
     }
 
     @Override
     public void keyReleased(KeyEvent e) {
     }
-}
\ No newline at end of file
+
+    /**
+     * Stop the worker thread. Steps not taken yet are dropped.
+     */
+    public void close() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Body of the worker thread.
+     */
+    private void takeSteps() {
+        int cancelsSeen = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            if (cancels != cancelsSeen) {
+                // Drop everything queued before the Escape.
+                if (commands.poll(0) == CANCEL) {
+                    cancelsSeen++;
+                }
+                continue;
+            }
+
+            int steps = commands.poll(0);
+            if (steps == 0) {
+                // Woken up by the next command, or by a spurious wakeup.
+                LockSupport.park(this);
+                continue;
+            }
+
+            for (int i = 0; i < steps && cancels == cancelsSeen && !board.isSolved(); ++i) {
+                walker.step(board);
+            }
+        }
+    }
+}
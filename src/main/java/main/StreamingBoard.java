@@ -0,0 +1,148 @@
+package main;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A read-only <code>GridBoard</code> reading a binary maze file (see <code>MazeFile</code>)
+ * through a small cache of row pages.
+ * <p>
+ * Only <code>cachedPages</code> pages of rows are held at a time, least recently used ones
+ * are dropped first. Memory use doesn't depend on the height of the maze, so it suits mazes
+ * bigger than memory walked by strategies which stay local, like <code>LeftWalker</code>.
+ * A page always holds at least one row.
+ */
+public class StreamingBoard extends GridBoard implements Closeable {
+
+    /**
+     * Default size of a page, in bytes.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1 << 16;
+    public static final int DEFAULT_CACHED_PAGES = 8;
+
+    private final FileChannel channel;
+    private final int rowsPerPage;
+
+    private final long[] pageNumbers;
+    private final byte[][] pages;
+    private final long[] pageOffsets; // index of the square in the low nibble of each page's first byte
+    private final long[] lastUses;
+    private long useCount = 0;
+    private int lastSlot = 0;
+    private long pageReads = 0;
+
+    public StreamingBoard(Path file) throws IOException {
+        this(file, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Create new <code>StreamingBoard</code>
+     *
+     * @param file        a binary maze file
+     * @param pageSize    bytes per page, rounded to whole rows
+     * @param cachedPages number of pages held in memory
+     * @throws IOException if the file can't be read or isn't a binary maze file
+     */
+    public StreamingBoard(Path file, int pageSize, int cachedPages) throws IOException {
+        this(file, MazeFile.readHeader(file), pageSize, cachedPages);
+    }
+
+    private StreamingBoard(Path file, ByteBuffer header, int pageSize, int cachedPages) throws IOException {
+        super(header.getInt(8), header.getInt(12));
+        if (cachedPages < 1) {
+            throw new IllegalArgumentException("Need at least one cached page");
+        }
+
+        rowsPerPage = (int) Math.max(1, Math.min(height, 2L * pageSize / width));
+
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        long dataSize = ((long) width * height + 1) / 2;
+        if (channel.size() < MazeFile.HEADER_SIZE + dataSize) {
+            channel.close();
+            throw new IOException("Maze file " + file + " is truncated");
+        }
+
+        // One extra byte, a page may start and end in the middle of one.
+        int pageBytes = (int) Math.min(Integer.MAX_VALUE - 8, (long) rowsPerPage * width / 2 + 2);
+        pageNumbers = new long[cachedPages];
+        pages = new byte[cachedPages][pageBytes];
+        pageOffsets = new long[cachedPages];
+        lastUses = new long[cachedPages];
+        Arrays.fill(pageNumbers, -1);
+
+        setStart(header.getInt(16), header.getInt(20));
+        setTarget(header.getInt(24), header.getInt(28));
+    }
+
+    @Override
+    public int getWalls(int x, int y) {
+        long page = y / rowsPerPage;
+        int slot = pageNumbers[lastSlot] == page ? lastSlot : slotOf(page);
+        lastUses[slot] = ++useCount;
+        lastSlot = slot;
+
+        long index = (long) y * width + x - pageOffsets[slot];
+        return (pages[slot][(int) (index >>> 1)] >>> ((index & 1) << 2)) & ALL_WALLS;
+    }
+
+    /**
+     * @return number of pages read from the file so far, i.e. cache misses
+     */
+    public long getPageReads() {
+        return pageReads;
+    }
+
+    public int getRowsPerPage() {
+        return rowsPerPage;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int slotOf(long page) {
+        int leastRecent = 0;
+        for (int slot = 0; slot != pageNumbers.length; ++slot) {
+            if (pageNumbers[slot] == page) {
+                return slot;
+            }
+            if (lastUses[slot] < lastUses[leastRecent]) {
+                leastRecent = slot;
+            }
+        }
+
+        try {
+            readPage(leastRecent, page);
+        } catch (IOException e) {
+            // View.mayMove can't throw checked exceptions.
+            throw new RuntimeException("Cannot read rows of maze file", e);
+        }
+        return leastRecent;
+    }
+
+    private void readPage(int slot, long page) throws IOException {
+        long firstSquare = page * rowsPerPage * width;
+        long endSquare = Math.min(height, (page + 1) * rowsPerPage) * (long) width;
+        long firstByte = firstSquare >>> 1;
+        long endByte = (endSquare + 1) >>> 1;
+
+        pageNumbers[slot] = -1;
+        ByteBuffer buffer = ByteBuffer.wrap(pages[slot], 0, (int) (endByte - firstByte));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, MazeFile.HEADER_SIZE + firstByte + buffer.position()) < 0) {
+                throw new EOFException("Maze file ends in the middle of page " + page);
+            }
+        }
+
+        pageNumbers[slot] = page;
+        pageOffsets[slot] = firstByte << 1;
+        pageReads++;
+    }
+}
@@ -0,0 +1,350 @@
+package main;
+
+import maze.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs registered walkers against the same seeded boards, for a range of board sizes,
+ * and summarizes steps, time and allocation per walker and size.
+ * <p>
+ * Boards are generated by a <code>MazeGenerator</code>, so a tournament can be repeated
+ * exactly. Boards are solved in parallel, each by every walker in turn on one thread, so
+ * the bytes allocated by that thread during a solve are the walker's allocation (threads
+ * a walker starts itself aren't counted). Time includes creating the walker, which is when
+ * planning walkers search their route. With several threads solves compete for cores,
+ * use a parallelism of 1 for the most stable timings.
+ */
+public class Tournament {
+
+    /**
+     * Results of one walker on all boards of one size.
+     */
+    public static class Summary {
+        private final String walkerName;
+        private final int size;
+        private final int solved;
+        private final long[] steps;
+        private final long[] timesNanos;
+        private final long[] allocatedBytes;
+
+        Summary(String walkerName, int size, int solved, long[] steps, long[] timesNanos, long[] allocatedBytes) {
+            this.walkerName = walkerName;
+            this.size = size;
+            this.solved = solved;
+            this.steps = steps;
+            this.timesNanos = timesNanos;
+            this.allocatedBytes = allocatedBytes;
+            Arrays.sort(this.steps);
+            Arrays.sort(this.timesNanos);
+        }
+
+        public String getWalkerName() {
+            return walkerName;
+        }
+
+        /**
+         * @return width and height of the boards
+         */
+        public int getSize() {
+            return size;
+        }
+
+        public int getBoards() {
+            return steps.length;
+        }
+
+        public int getSolved() {
+            return solved;
+        }
+
+        public double getMeanSteps() {
+            return mean(steps);
+        }
+
+        /**
+         * @return half width of the 95% confidence interval of the mean steps
+         */
+        public double getStepsConfidence() {
+            return confidence95(steps);
+        }
+
+        public long getMedianSteps() {
+            return percentile(steps, 50);
+        }
+
+        public long getP99Steps() {
+            return percentile(steps, 99);
+        }
+
+        public long getMaxSteps() {
+            return steps.length == 0 ? 0 : steps[steps.length - 1];
+        }
+
+        public double getMeanMillis() {
+            return mean(timesNanos) / 1e6;
+        }
+
+        /**
+         * @return half width of the 95% confidence interval of the mean time, in milliseconds
+         */
+        public double getMillisConfidence() {
+            return confidence95(timesNanos) / 1e6;
+        }
+
+        public double getMedianMillis() {
+            return percentile(timesNanos, 50) / 1e6;
+        }
+
+        public double getP99Millis() {
+            return percentile(timesNanos, 99) / 1e6;
+        }
+
+        public double getMaxMillis() {
+            return timesNanos.length == 0 ? 0 : timesNanos[timesNanos.length - 1] / 1e6;
+        }
+
+        /**
+         * @return mean bytes allocated per solve, -1 if the JVM can't tell
+         */
+        public double getMeanAllocatedBytes() {
+            for (long bytes : allocatedBytes) {
+                if (bytes < 0) {
+                    return -1;
+                }
+            }
+            return mean(allocatedBytes);
+        }
+    }
+
+    private static final String CSV_HEADER = "walker,size,boards,solved,steps_mean,steps_ci95,steps_p50,"
+            + "steps_p99,steps_max,time_mean_ms,time_ci95_ms,time_p50_ms,time_p99_ms,time_max_ms,alloc_mean_bytes";
+
+    private final List<String> walkerNames;
+    private final int[] sizes;
+    private final int boardsPerSize;
+    private final MazeGenerator.Algorithm algorithm;
+    private final long seed;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long maxMovesPerSquare = 100;
+
+    /**
+     * Create new <code>Tournament</code>
+     *
+     * @param walkerNames   names of registered walkers, see <code>WalkerRegistry</code>
+     * @param sizes         width and height of the boards, one size after the other
+     * @param boardsPerSize number of boards of each size
+     * @param algorithm     generates the boards
+     * @param seed          seed of the first board, the others follow from it
+     */
+    public Tournament(List<String> walkerNames, int[] sizes, int boardsPerSize,
+                      MazeGenerator.Algorithm algorithm, long seed) {
+        for (String walkerName : walkerNames) {
+            if (WalkerRegistry.kindOf(walkerName) == WalkerRegistry.Kind.INTERACTIVE) {
+                throw new IllegalArgumentException("Walker " + walkerName + " can't run in a tournament");
+            }
+        }
+        this.walkerNames = new ArrayList<>(walkerNames);
+        this.sizes = sizes.clone();
+        this.boardsPerSize = boardsPerSize;
+        this.algorithm = algorithm;
+        this.seed = seed;
+    }
+
+    /**
+     * @param parallelism number of boards solved at the same time
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param maxMovesPerSquare moves per square of the board after which a walker gives up
+     */
+    public void setMaxMovesPerSquare(long maxMovesPerSquare) {
+        this.maxMovesPerSquare = maxMovesPerSquare;
+    }
+
+    /**
+     * Solve all boards with all walkers.
+     *
+     * @return one summary per size and walker, sizes in the order given, then walkers
+     * @throws InterruptedException if interrupted while waiting for the boards
+     */
+    public List<Summary> run() throws InterruptedException {
+        int walkers = walkerNames.size();
+        List<Callable<long[][]>> tasks = new ArrayList<>();
+        for (int sizeIndex = 0; sizeIndex != sizes.length; ++sizeIndex) {
+            for (int board = 0; board != boardsPerSize; ++board) {
+                int size = sizes[sizeIndex];
+                long boardSeed = seed + (long) sizeIndex * boardsPerSize + board;
+                tasks.add(() -> solveBoard(size, boardSeed));
+            }
+        }
+
+        List<Summary> summaries = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<long[][]>> futures = pool.invokeAll(tasks);
+            for (int sizeIndex = 0; sizeIndex != sizes.length; ++sizeIndex) {
+                // Per walker: solved flags, steps, times and allocations of every board.
+                long[][][] results = new long[walkers][4][boardsPerSize];
+                for (int board = 0; board != boardsPerSize; ++board) {
+                    long[][] boardResults = futures.get(sizeIndex * boardsPerSize + board).get();
+                    for (int walker = 0; walker != walkers; ++walker) {
+                        for (int value = 0; value != 4; ++value) {
+                            results[walker][value][board] = boardResults[walker][value];
+                        }
+                    }
+                }
+                for (int walker = 0; walker != walkers; ++walker) {
+                    int solved = (int) Arrays.stream(results[walker][0]).sum();
+                    summaries.add(new Summary(walkerNames.get(walker), sizes[sizeIndex], solved,
+                            results[walker][1], results[walker][2], results[walker][3]));
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Solving board failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return summaries;
+    }
+
+    /**
+     * Write summaries as CSV, a header line and one row per summary.
+     */
+    public static void writeCsv(List<Summary> summaries, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        for (Summary s : summaries) {
+            writer.write(String.format(Locale.ROOT, "\"%s\",%d,%d,%d,%.2f,%.2f,%d,%d,%d,%.4f,%.4f,%.4f,%.4f,%.4f,%.0f\n",
+                    s.getWalkerName().replace("\"", "\"\""), s.getSize(), s.getBoards(), s.getSolved(),
+                    s.getMeanSteps(), s.getStepsConfidence(), s.getMedianSteps(), s.getP99Steps(),
+                    s.getMaxSteps(), s.getMeanMillis(), s.getMillisConfidence(), s.getMedianMillis(),
+                    s.getP99Millis(), s.getMaxMillis(), s.getMeanAllocatedBytes()));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write summaries as a JSON array, one object per line.
+     */
+    public static void writeJson(List<Summary> summaries, Writer writer) throws IOException {
+        writer.write("[\n");
+        for (int i = 0; i != summaries.size(); ++i) {
+            Summary s = summaries.get(i);
+            writer.write(String.format(Locale.ROOT, "  {\"walker\":\"%s\",\"size\":%d,\"boards\":%d,\"solved\":%d,"
+                            + "\"steps\":{\"mean\":%.2f,\"ci95\":%.2f,\"p50\":%d,\"p99\":%d,\"max\":%d},"
+                            + "\"timeMs\":{\"mean\":%.4f,\"ci95\":%.4f,\"p50\":%.4f,\"p99\":%.4f,\"max\":%.4f},"
+                            + "\"allocMeanBytes\":%.0f}%s\n",
+                    s.getWalkerName().replace("\\", "\\\\").replace("\"", "\\\""), s.getSize(), s.getBoards(),
+                    s.getSolved(), s.getMeanSteps(), s.getStepsConfidence(), s.getMedianSteps(),
+                    s.getP99Steps(), s.getMaxSteps(), s.getMeanMillis(), s.getMillisConfidence(),
+                    s.getMedianMillis(), s.getP99Millis(), s.getMaxMillis(), s.getMeanAllocatedBytes(),
+                    i + 1 == summaries.size() ? "" : ","));
+        }
+        writer.write("]\n");
+        writer.flush();
+    }
+
+    /**
+     * @return summaries as a table for the console
+     */
+    public static String toTable(List<Summary> summaries) {
+        StringBuilder table = new StringBuilder(String.format("%-10s %6s %9s %22s %8s %8s %24s %12s%n",
+                "walker", "size", "solved", "steps mean (95% CI)", "p99", "max", "time mean (95% CI) ms",
+                "alloc/solve"));
+        for (Summary s : summaries) {
+            table.append(String.format(Locale.ROOT, "%-10s %6d %4d/%-4d %12.1f +- %-7.1f %8d %8d %13.3f +- %-8.3f %12s%n",
+                    s.getWalkerName(), s.getSize(), s.getSolved(), s.getBoards(), s.getMeanSteps(),
+                    s.getStepsConfidence(), s.getP99Steps(), s.getMaxSteps(), s.getMeanMillis(),
+                    s.getMillisConfidence(), s.getMeanAllocatedBytes() < 0 ? "n/a"
+                            : String.format(Locale.ROOT, "%.0fB", s.getMeanAllocatedBytes())));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Solve one board with every walker on the current thread.
+     *
+     * @return per walker: solved (0 or 1), steps, time in nanoseconds and bytes allocated
+     */
+    private long[][] solveBoard(int size, long boardSeed) {
+        MazeGenerator generator = new MazeGenerator(algorithm, boardSeed);
+        generator.setParallelism(1);
+        CompactBoard board = generator.generate(size, size);
+        HeadlessSolver solver = new HeadlessSolver(maxMovesPerSquare * size * size);
+
+        long[][] results = new long[walkerNames.size()][];
+        for (int walker = 0; walker != results.length; ++walker) {
+            board.reset();
+            String walkerName = walkerNames.get(walker);
+            boolean planning = WalkerRegistry.kindOf(walkerName) == WalkerRegistry.Kind.PLANNING;
+
+            long allocated = allocatedBytes();
+            long time = System.nanoTime();
+            SolveResult result = solver.solve(WalkerRegistry.create(walkerName, planning ? board : null, 1), board);
+            time = System.nanoTime() - time;
+            allocated = allocated < 0 ? -1 : allocatedBytes() - allocated;
+
+            results[walker] = new long[]{result.isSolved() ? 1 : 0, result.getSteps(), time, allocated};
+        }
+        return results;
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, -1 if the JVM can't tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspotThreads = (com.sun.management.ThreadMXBean) threads;
+            if (hotspotThreads.isThreadAllocatedMemorySupported() && hotspotThreads.isThreadAllocatedMemoryEnabled()) {
+                return hotspotThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static double mean(long[] values) {
+        return values.length == 0 ? 0 : (double) Arrays.stream(values).sum() / values.length;
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the mean, by the normal approximation.
+     */
+    private static double confidence95(long[] values) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double mean = mean(values);
+        double squares = 0;
+        for (long value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        return 1.96 * Math.sqrt(squares / (values.length - 1) / values.length);
+    }
+
+    /**
+     * @param sorted values in ascending order
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
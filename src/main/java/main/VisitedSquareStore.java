@@ -0,0 +1,40 @@
+package main;
+
+/**
+ * Stores exit info for squares a walker has visited (i.e. which directions
+ * had been used before).
+ * <p>
+ * Squares are addressed by the walker's own coordinates, which are relative
+ * to the square it started on. Exit info is kept as a 4-bit mask, one bit
+ * per integer direction used by <code>LeftWalker</code>.
+ */
+public interface VisitedSquareStore {
+
+    /**
+     * Get exit info for a square.
+     *
+     * @param x x coordinate of the square
+     * @param y y coordinate of the square
+     * @return a 4-bit mask of used exits, 0 if the square hasn't been visited
+     */
+    int getExitInfo(int x, int y);
+
+    /**
+     * Mark an exit of a square as used.
+     *
+     * @param x         x coordinate of the square
+     * @param y         y coordinate of the square
+     * @param direction integer direction of the used exit
+     */
+    void markExit(int x, int y, int direction);
+
+    /**
+     * @return number of squares with at least one used exit
+     */
+    int size();
+
+    /**
+     * Forget all visited squares.
+     */
+    void clear();
+}
@@ -0,0 +1,439 @@
+package main;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Checkpoints a <code>LeftWalker</code> or <code>SmarterLeftWalker</code> solving a
+ * <code>GridBoard</code>, so an interrupted solve can resume where it stopped.
+ * <p>
+ * Register as <code>MoveListener</code> of the <code>HeadlessSolver</code>. Every
+ * <code>periodMillis</code> the solving thread takes a snapshot of what changed since the last
+ * one: the walker's position and direction, exits marked in its <code>VisitedSquareStore</code>
+ * and, for <code>SmarterLeftWalker</code>, the top of its history above the lowest point it
+ * unwound to. The snapshot is encoded and appended to the file by a daemon thread, so a
+ * snapshot costs the solving thread little more than copying the changes.
+ * <p>
+ * The file starts with a header: magic number, format version, walker kind and the
+ * fingerprint of the board (see <code>RouteCache</code>). Each snapshot follows as its length,
+ * a CRC32 and the snapshot itself. A snapshot cut short by a crash fails its check and is
+ * dropped on resume, along with anything after it.
+ */
+public class WalkCheckpoint implements MoveListener, Closeable {
+
+    public static final long DEFAULT_PERIOD_MILLIS = 10_000;
+
+    /**
+     * "AMZC" in ASCII.
+     */
+    private static final int MAGIC = 0x414D5A43;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 17;
+
+    private static final int LEFT = 0;
+    private static final int SMARTER_LEFT = 1;
+
+    /**
+     * Moves between looks at the clock.
+     */
+    private static final int CLOCK_INTERVAL = 4096;
+
+    private final FileChannel channel;
+    private final LeftWalker walker;
+    private final GridBoard board;
+    private final JournalingStore store;
+
+    private final BlockingQueue<Snapshot> snapshots = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile IOException writeError = null;
+
+    private long periodNanos = DEFAULT_PERIOD_MILLIS * 1_000_000;
+    private long nextSnapshotNanos;
+    private long steps = 0;
+    private long snapshotCount = 0;
+
+    /**
+     * What changed since the previous snapshot.
+     */
+    private static class Snapshot {
+        long steps;
+        int boardX;
+        int boardY;
+        int walkerX;
+        int walkerY;
+        int facingDirection;
+        boolean isFollowingLeft;
+        long revisits;
+        long backtracks;
+        int[] marks;
+        int markCount;
+        int historyKept;
+        byte[] historyPushed;
+        int historyPushedCount;
+    }
+
+    private WalkCheckpoint(FileChannel channel, LeftWalker walker, JournalingStore store, GridBoard board) {
+        this.channel = channel;
+        this.walker = walker;
+        this.store = store;
+        this.board = board;
+        this.nextSnapshotNanos = System.nanoTime() + periodNanos;
+
+        writer = new Thread(this::write, "checkpoint-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * @param walkerName name of a walker in <code>WalkerRegistry</code>
+     * @return whether the walker can be checkpointed
+     */
+    public static boolean supports(String walkerName) {
+        return walkerName.equals("left") || walkerName.equals("smart");
+    }
+
+    /**
+     * Start a new solve, replacing <code>file</code> if it exists.
+     *
+     * @param file       checkpoint file
+     * @param board      the board to be solved, with the walker on its start square
+     * @param walkerName "left" or "smart"
+     * @return new <code>WalkCheckpoint</code>, use its <code>getWalker()</code>
+     * @throws IOException if the file can't be written
+     */
+    public static WalkCheckpoint start(Path file, GridBoard board, String walkerName) throws IOException {
+        if (!supports(walkerName)) {
+            throw new IllegalArgumentException("Walker " + walkerName + " can't be checkpointed");
+        }
+        int kind = walkerName.equals("left") ? LEFT : SMARTER_LEFT;
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).put((byte) kind).putLong(RouteCache.fingerprint(board));
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        JournalingStore store = new JournalingStore(new HashVisitedSquareStore());
+        WalkCheckpoint checkpoint = new WalkCheckpoint(channel, createWalker(kind, store), store, board);
+        checkpoint.writer.start();
+        return checkpoint;
+    }
+
+    /**
+     * Restore the walker and the board from <code>file</code>. Later snapshots are appended to it.
+     *
+     * @param file  checkpoint file written by an earlier solve of <code>board</code>
+     * @param board the board being solved, the walker is put back where it was
+     * @return new <code>WalkCheckpoint</code>, use its <code>getWalker()</code>
+     * @throws IOException if the file can't be read or belongs to another board
+     */
+    public static WalkCheckpoint resume(Path file, GridBoard board) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(0))));
+            if (input.readInt() != MAGIC) {
+                throw new IOException(file + " isn't a checkpoint file");
+            }
+            if (input.readInt() != VERSION) {
+                throw new IOException("Unsupported checkpoint version");
+            }
+            int kind = input.readUnsignedByte();
+            if (kind != LEFT && kind != SMARTER_LEFT) {
+                throw new IOException("Unknown walker in checkpoint");
+            }
+            if (input.readLong() != RouteCache.fingerprint(board)) {
+                throw new IOException("Checkpoint " + file + " is of another board");
+            }
+
+            JournalingStore store = new JournalingStore(new HashVisitedSquareStore());
+            LeftWalker walker = createWalker(kind, store);
+            WalkCheckpoint checkpoint = new WalkCheckpoint(channel, walker, store, board);
+
+            long end = HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] data;
+                try {
+                    int length = input.readInt();
+                    int checksum = input.readInt();
+                    if (length < 0 || length > channel.size()) {
+                        break;
+                    }
+                    data = new byte[length];
+                    input.readFully(data);
+                    crc.reset();
+                    crc.update(data);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                checkpoint.apply(new DataInputStream(new ByteArrayInputStream(data)));
+                end += 8 + data.length;
+                checkpoint.snapshotCount++;
+            }
+
+            // Drop a snapshot cut short, appends go right after the last good one.
+            channel.truncate(end);
+            channel.position(end);
+            checkpoint.writer.start();
+            return checkpoint;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param periodMillis time between snapshots
+     */
+    public void setPeriodMillis(long periodMillis) {
+        this.periodNanos = periodMillis * 1_000_000;
+        this.nextSnapshotNanos = System.nanoTime() + periodNanos;
+    }
+
+    /**
+     * @return the walker to solve the board with
+     */
+    public LeftWalker getWalker() {
+        return walker;
+    }
+
+    /**
+     * @return moves made on the board, including those before resuming
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return snapshots in the file, including those before resuming
+     */
+    public long getSnapshots() {
+        return snapshotCount;
+    }
+
+    @Override
+    public void onMove(int direction) {
+        steps++;
+        if ((steps & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() >= nextSnapshotNanos) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Take a snapshot now. It reaches the file in the background.
+     */
+    public void snapshot() {
+        if (writeError != null) {
+            throw new UncheckedIOException("Cannot write checkpoint", writeError);
+        }
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.steps = steps;
+        snapshot.boardX = board.getPosX();
+        snapshot.boardY = board.getPosY();
+        snapshot.walkerX = walker.posX;
+        snapshot.walkerY = walker.posY;
+        snapshot.facingDirection = walker.facingDirection;
+        snapshot.isFollowingLeft = walker.isFollowingLeft;
+        snapshot.revisits = walker.revisits;
+        snapshot.marks = store.journal;
+        snapshot.markCount = store.journalSize;
+        store.journal = new int[Math.max(JournalingStore.MIN_JOURNAL, store.journalSize)];
+        store.journalSize = 0;
+
+        if (walker instanceof SmarterLeftWalker) {
+            SmarterLeftWalker smarter = (SmarterLeftWalker) walker;
+            SquareSnapshotStack history = smarter.visitedSquareHistory;
+            snapshot.backtracks = smarter.backtracks;
+            snapshot.historyKept = history.getLowWaterMark();
+            snapshot.historyPushedCount = history.size() - snapshot.historyKept;
+            snapshot.historyPushed = new byte[snapshot.historyPushedCount];
+            for (int i = 0; i != snapshot.historyPushedCount; ++i) {
+                snapshot.historyPushed[i] = (byte) history.get(snapshot.historyKept + i);
+            }
+            history.resetLowWaterMark();
+        }
+
+        snapshots.add(snapshot);
+        snapshotCount++;
+        nextSnapshotNanos = System.nanoTime() + periodNanos;
+    }
+
+    /**
+     * Take a last snapshot, wait until everything is on disk and close the file.
+     *
+     * @throws IOException if writing failed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            snapshot();
+            // A snapshot without marks tells the writer to stop.
+            snapshots.add(new Snapshot());
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            // Reported below.
+        } finally {
+            channel.close();
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    private static LeftWalker createWalker(int kind, VisitedSquareStore store) {
+        return kind == LEFT ? new LeftWalker(store) : new SmarterLeftWalker(store);
+    }
+
+    private void write() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        CRC32 crc = new CRC32();
+        try {
+            while (true) {
+                Snapshot snapshot = snapshots.take();
+                if (snapshot.marks == null) {
+                    break;
+                }
+
+                bytes.reset();
+                output.writeInt(0);
+                output.writeInt(0);
+                encode(snapshot, output);
+                output.flush();
+
+                byte[] record = bytes.toByteArray();
+                crc.reset();
+                crc.update(record, 8, record.length - 8);
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                buffer.putInt(0, record.length - 8).putInt(4, (int) crc.getValue());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (InterruptedException e) {
+            // Abandoned.
+        } catch (IOException e) {
+            writeError = e;
+        }
+    }
+
+    private static void encode(Snapshot snapshot, DataOutputStream output) throws IOException {
+        output.writeLong(snapshot.steps);
+        output.writeInt(snapshot.boardX);
+        output.writeInt(snapshot.boardY);
+        output.writeInt(snapshot.walkerX);
+        output.writeInt(snapshot.walkerY);
+        output.writeByte(snapshot.facingDirection | (snapshot.isFollowingLeft ? 4 : 0));
+        output.writeLong(snapshot.revisits);
+        output.writeLong(snapshot.backtracks);
+
+        output.writeInt(snapshot.markCount / 3);
+        for (int i = 0; i != snapshot.markCount; i += 3) {
+            output.writeInt(snapshot.marks[i]);
+            output.writeInt(snapshot.marks[i + 1]);
+            output.writeByte(snapshot.marks[i + 2]);
+        }
+
+        output.writeInt(snapshot.historyKept);
+        output.writeInt(snapshot.historyPushedCount);
+        output.write(snapshot.historyPushed == null ? new byte[0] : snapshot.historyPushed);
+    }
+
+    /**
+     * Replay one snapshot on the walker and board.
+     */
+    private void apply(DataInputStream input) throws IOException {
+        steps = input.readLong();
+        board.setPosition(input.readInt(), input.readInt());
+        walker.posX = input.readInt();
+        walker.posY = input.readInt();
+        int direction = input.readUnsignedByte();
+        walker.facingDirection = direction & 3;
+        walker.isFollowingLeft = (direction & 4) != 0;
+        walker.revisits = input.readLong();
+        long backtracks = input.readLong();
+
+        int marks = input.readInt();
+        for (int i = 0; i != marks; ++i) {
+            store.store.markExit(input.readInt(), input.readInt(), input.readUnsignedByte());
+        }
+
+        int historyKept = input.readInt();
+        int historyPushed = input.readInt();
+        if (walker instanceof SmarterLeftWalker) {
+            SmarterLeftWalker smarter = (SmarterLeftWalker) walker;
+            smarter.backtracks = backtracks;
+            SquareSnapshotStack history = smarter.visitedSquareHistory;
+            history.truncate(historyKept);
+            for (int i = 0; i != historyPushed; ++i) {
+                int squareSnapshot = input.readUnsignedByte();
+                history.push(SquareSnapshotStack.takenDirectionOf(squareSnapshot),
+                        SquareSnapshotStack.facingDirectionOf(squareSnapshot));
+            }
+            history.resetLowWaterMark();
+        }
+    }
+
+    /**
+     * Passes exits on to a store and notes the newly marked ones.
+     */
+    private static class JournalingStore implements VisitedSquareStore {
+        static final int MIN_JOURNAL = 3 * 1024;
+
+        final VisitedSquareStore store;
+        int[] journal = new int[MIN_JOURNAL];
+        int journalSize = 0;
+
+        JournalingStore(VisitedSquareStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public int getExitInfo(int x, int y) {
+            return store.getExitInfo(x, y);
+        }
+
+        @Override
+        public void markExit(int x, int y, int direction) {
+            if (LeftWalker.exitDirectionUsed(store.getExitInfo(x, y), direction)) {
+                return;
+            }
+            store.markExit(x, y, direction);
+            if (journalSize + 3 > journal.length) {
+                journal = Arrays.copyOf(journal, journal.length * 2);
+            }
+            journal[journalSize++] = x;
+            journal[journalSize++] = y;
+            journal[journalSize++] = direction;
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+
+        @Override
+        public void clear() {
+            store.clear();
+            journalSize = 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package main;
+
+import maze.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Gives code outside of the <code>maze</code> package access to
+ * <code>Walker.move(View)</code> and <code>Board.move(Direction)</code>.
+ * <p>
+ * Both methods are protected, so drivers other than <code>Walker.solve</code>
+ * and <code>Walker.step</code> have to go through method handles.
+ */
+final class WalkerAccess {
+
+    private static final MethodHandle WALKER_MOVE =
+            unreflect(Walker.class, "move", View.class, Direction.class);
+
+    private static final MethodHandle BOARD_MOVE =
+            unreflect(Board.class, "move", Direction.class, void.class);
+
+    private WalkerAccess() { }
+
+    /**
+     * Ask <code>walker</code> for its next move.
+     *
+     * @param walker a <code>Walker</code>
+     * @param v      a <code>View</code> into current maze
+     * @return direction chosen by the walker, may be null
+     */
+    static Direction move(Walker walker, View v) {
+        try {
+            return (Direction) WALKER_MOVE.invokeExact(walker, v);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Move the walker on <code>board</code>, without any GUI calls if no window is shown.
+     *
+     * @param board     a <code>Board</code>
+     * @param direction direction to move to
+     */
+    static void move(Board board, Direction direction) {
+        try {
+            BOARD_MOVE.invokeExact(board, direction);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    private static MethodHandle unreflect(Class<?> owner, String name, Class<?> parameterType, Class<?> returnType) {
+        try {
+            Method method = owner.getDeclaredMethod(name, parameterType);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.methodType(returnType, owner, parameterType));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package main;
+
+import maze.*;
+
+/**
+ * Creates a fresh <code>Walker</code> for a board.
+ * <p>
+ * Walkers keep per-instance state (position, visited squares...),
+ * so a walker must never be shared between boards.
+ */
+public interface WalkerFactory {
+
+    /**
+     * @param board the board the walker is going to solve
+     * @return new <code>Walker</code>
+     */
+    Walker create(GridBoard board);
+}
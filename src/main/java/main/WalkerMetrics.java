@@ -0,0 +1,163 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics collected by an <code>InstrumentedWalker</code>: steps, <code>mayMove</code> probes,
+ * <code>move</code> latency and the walker's own <code>WalkerStatistics</code>, if it keeps any.
+ * <p>
+ * Written by the solving thread only. Readers on other threads, like JMX or a
+ * <code>MetricsReporter</code>, may see slightly stale values while the walker runs.
+ */
+public class WalkerMetrics implements WalkerMetricsMXBean {
+
+    private final String walkerName;
+    private final WalkerStatistics statistics;
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    private volatile boolean enabled = true;
+    private long steps = 0;
+    private long probes = 0;
+
+    private ObjectName objectName = null;
+
+    /**
+     * Create new <code>WalkerMetrics</code>
+     *
+     * @param walkerName name of the walker measured
+     * @param statistics the walker's own counters, may be null
+     */
+    public WalkerMetrics(String walkerName, WalkerStatistics statistics) {
+        this.walkerName = walkerName;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Record one call of <code>move</code>.
+     *
+     * @param latencyNanos time the call took
+     * @param probeCount   number of <code>mayMove</code> calls it made
+     */
+    public void recordMove(long latencyNanos, long probeCount) {
+        steps++;
+        probes += probeCount;
+        moveLatency.record(latencyNanos);
+    }
+
+    /**
+     * Register under <code>main:type=WalkerMetrics,name=&lt;walker name&gt;</code>
+     * with the platform MBean server.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("main:type=WalkerMetrics,name=" + ObjectName.quote(walkerName));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new RuntimeException("Cannot register walker metrics", e);
+        }
+    }
+
+    public void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        } catch (JMException e) {
+            throw new RuntimeException("Cannot unregister walker metrics", e);
+        }
+    }
+
+    public String getWalkerName() {
+        return walkerName;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled whether an <code>InstrumentedWalker</code> should record anything
+     */
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getSteps() {
+        return steps;
+    }
+
+    @Override
+    public long getProbes() {
+        return probes;
+    }
+
+    @Override
+    public double getProbesPerStep() {
+        return steps == 0 ? 0 : (double) probes / steps;
+    }
+
+    @Override
+    public int getVisitedSquares() {
+        return statistics == null ? 0 : statistics.getVisitedSquares();
+    }
+
+    @Override
+    public long getRevisits() {
+        return statistics == null ? 0 : statistics.getRevisits();
+    }
+
+    @Override
+    public long getBacktracks() {
+        return statistics == null ? 0 : statistics.getBacktracks();
+    }
+
+    @Override
+    public double getMeanMoveNanos() {
+        return moveLatency.getMean();
+    }
+
+    @Override
+    public long getMedianMoveNanos() {
+        return moveLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP99MoveNanos() {
+        return moveLatency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getMaxMoveNanos() {
+        return moveLatency.getMax();
+    }
+
+    /**
+     * Clear steps, probes and latencies. The walker's own counters aren't touched.
+     */
+    @Override
+    public void reset() {
+        steps = 0;
+        probes = 0;
+        moveLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d steps, %.2f probes/step, %d squares visited, %d revisits, %d backtracks, "
+                        + "move mean %.0fns, p50 %dns, p99 %dns, max %dns",
+                walkerName, steps, getProbesPerStep(), getVisitedSquares(), getRevisits(), getBacktracks(),
+                getMeanMoveNanos(), getMedianMoveNanos(), getP99MoveNanos(), getMaxMoveNanos());
+    }
+}
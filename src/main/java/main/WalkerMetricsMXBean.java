@@ -0,0 +1,33 @@
+package main;
+
+/**
+ * JMX view of <code>WalkerMetrics</code>. Latencies are in nanoseconds.
+ */
+public interface WalkerMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getSteps();
+
+    long getProbes();
+
+    double getProbesPerStep();
+
+    int getVisitedSquares();
+
+    long getRevisits();
+
+    long getBacktracks();
+
+    double getMeanMoveNanos();
+
+    long getMedianMoveNanos();
+
+    long getP99MoveNanos();
+
+    long getMaxMoveNanos();
+
+    void reset();
+}
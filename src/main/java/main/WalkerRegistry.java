@@ -0,0 +1,142 @@
+package main;
+
+import maze.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walkers known by name, for <code>Main</code> and <code>Tournament</code>.
+ * <p>
+ * New strategies plug in with <code>register</code>, nothing else has to know them.
+ * The built-in walkers are registered when the class is loaded.
+ */
+public final class WalkerRegistry {
+
+    /**
+     * Creates a fresh walker for a board.
+     */
+    public interface Factory {
+
+        /**
+         * @param board   the board to be walked, null unless the walker needs the whole board
+         * @param threads number of threads the walker may use to plan its route
+         * @return new <code>Walker</code>
+         */
+        Walker create(GridBoard board, int threads);
+    }
+
+    /**
+     * How a walker can be used.
+     */
+    public enum Kind {
+        /**
+         * Walks by looking around only.
+         */
+        EXPLORING,
+        /**
+         * Plans its route on the whole board, so it needs a <code>GridBoard</code>.
+         */
+        PLANNING,
+        /**
+         * Controlled by the user, only works with a window.
+         */
+        INTERACTIVE
+    }
+
+    private static final Map<String, Kind> kinds = new LinkedHashMap<>();
+    private static final Map<String, Factory> factories = new LinkedHashMap<>();
+
+    static {
+        register("left", Kind.EXPLORING, (board, threads) -> new LeftWalker());
+        register("smart", Kind.EXPLORING, (board, threads) -> new SmarterLeftWalker());
+        register("random", Kind.EXPLORING, (board, threads) -> new RandomWalker());
+        register("pledge", Kind.EXPLORING,
+                (board, threads) -> new PledgeTremauxWalker(PledgeTremauxWalker.Mode.PLEDGE));
+        register("tremaux", Kind.EXPLORING,
+                (board, threads) -> new PledgeTremauxWalker(PledgeTremauxWalker.Mode.TREMAUX));
+        register("bfs", Kind.PLANNING, (board, threads) -> new ShortestPathWalker(board, PathFinder.Strategy.BFS));
+        register("astar", Kind.PLANNING,
+                (board, threads) -> new ShortestPathWalker(board, PathFinder.Strategy.A_STAR));
+        register("parallel", Kind.PLANNING, (board, threads) -> {
+            if (board instanceof StreamingBoard) {
+                throw new RuntimeException("Parallel walker can't search a streamed board");
+            }
+            return new ParallelShortestPathWalker(board, threads);
+        });
+        register("hpa", Kind.PLANNING, (board, threads) -> {
+            if (board instanceof StreamingBoard) {
+                throw new RuntimeException("Region walker can't index a streamed board");
+            }
+            return new RegionRouteWalker(board, threads);
+        });
+        register("key", Kind.INTERACTIVE, (board, threads) -> new KeyWalker());
+    }
+
+    private WalkerRegistry() { }
+
+    /**
+     * Register a walker, replacing any walker of the same name.
+     *
+     * @param name    name of the walker, as given on the command line
+     * @param kind    how the walker can be used
+     * @param factory creates the walker
+     */
+    public static synchronized void register(String name, Kind kind, Factory factory) {
+        kinds.put(name, kind);
+        factories.put(name, factory);
+    }
+
+    /**
+     * Create a walker.
+     *
+     * @param name    name of a registered walker
+     * @param board   the board to be walked, needed by <code>PLANNING</code> walkers only
+     * @param threads number of threads the walker may use to plan its route
+     * @return new <code>Walker</code>
+     */
+    public static Walker create(String name, GridBoard board, int threads) {
+        Factory factory;
+        synchronized (WalkerRegistry.class) {
+            factory = factories.get(name);
+        }
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown walker: " + name + ", known walkers are " + names());
+        }
+        return factory.create(board, threads);
+    }
+
+    /**
+     * @param name name of a registered walker
+     * @return how the walker can be used
+     */
+    public static synchronized Kind kindOf(String name) {
+        Kind kind = kinds.get(name);
+        if (kind == null) {
+            throw new IllegalArgumentException("Unknown walker: " + name + ", known walkers are " + names());
+        }
+        return kind;
+    }
+
+    /**
+     * @return names of all registered walkers, in order of registration
+     */
+    public static synchronized List<String> names() {
+        return new ArrayList<>(kinds.keySet());
+    }
+
+    /**
+     * @return names of the registered walkers which can run without a window
+     */
+    public static synchronized List<String> headlessNames() {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Kind> entry : kinds.entrySet()) {
+            if (entry.getValue() != Kind.INTERACTIVE) {
+                names.add(entry.getKey());
+            }
+        }
+        return names;
+    }
+}
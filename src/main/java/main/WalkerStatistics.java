@@ -0,0 +1,22 @@
+package main;
+
+/**
+ * Counters a walker keeps about its own exploration of a maze.
+ */
+public interface WalkerStatistics {
+
+    /**
+     * @return number of distinct squares the walker has left at least once
+     */
+    int getVisitedSquares();
+
+    /**
+     * @return number of times the walker came back to a square it had already left
+     */
+    long getRevisits();
+
+    /**
+     * @return number of moves undoing an earlier move to get out of a dead end
+     */
+    long getBacktracks();
+}
@@ -0,0 +1,15 @@
+package main;
+
+import maze.*;
+
+/**
+ * A <code>View</code> which can tell all walls around the walker in one call.
+ */
+public interface WallMaskView extends View {
+
+    /**
+     * @return 4-bit mask with bit <code>d</code> set iff integer direction <code>d</code>
+     * can't be taken (see <code>LeftWalker</code>)
+     */
+    int wallMask();
+}
@@ -0,0 +1,64 @@
+package main;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>BatchRunner</code> and <code>BatchStatistics</code> against boards solved one by one.
+ */
+public class BatchRunnerTests {
+
+    private static final int BOARDS = 24;
+
+    @Test
+    public void statisticsMatchSingleSolves() throws InterruptedException {
+        BatchRunner runner = new BatchRunner(BOARDS, 30, 20, board -> new SmarterLeftWalker());
+        runner.setAlgorithm(MazeGenerator.Algorithm.KRUSKAL);
+        runner.setSeed(100);
+        runner.setParallelism(3);
+        BatchStatistics statistics = runner.run();
+
+        int[] steps = new int[BOARDS];
+        int solved = 0;
+        for (int i = 0; i != BOARDS; ++i) {
+            CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 100 + i).generate(30, 20);
+            SolveResult result = new HeadlessSolver().solve(new SmarterLeftWalker(), board);
+            steps[i] = result.getSteps();
+            if (result.isSolved()) {
+                solved++;
+            }
+        }
+
+        assertEquals(BOARDS, statistics.getBoards());
+        assertEquals(solved, statistics.getSolved());
+        assertArrayEquals(steps, statistics.getSteps());
+        assertEquals(Arrays.stream(steps).min().getAsInt(), statistics.getMinSteps());
+        assertEquals(Arrays.stream(steps).max().getAsInt(), statistics.getMaxSteps());
+        assertEquals(Arrays.stream(steps).sum(), statistics.getMeanSteps() * BOARDS, 1e-6);
+        assertEquals(BOARDS, statistics.getSolveTimesNanos().length);
+    }
+
+    @Test
+    public void sameSeedSameBatch() throws InterruptedException {
+        BatchRunner runner = new BatchRunner(BOARDS, 25, 25, board -> new LeftWalker());
+        runner.setSeed(7);
+        runner.setParallelism(1);
+        int[] first = runner.run().getSteps();
+        runner.setParallelism(4);
+        assertArrayEquals(first, runner.run().getSteps());
+    }
+
+    @Test
+    public void maxMovesCapsEveryBoard() throws InterruptedException {
+        BatchRunner runner = new BatchRunner(BOARDS, 40, 40, board -> new LeftWalker());
+        runner.setSeed(3);
+        runner.setMaxMoves(10);
+        BatchStatistics statistics = runner.run();
+
+        assertEquals(BOARDS, statistics.getBoards());
+        assertTrue(statistics.getMaxSteps() <= 10);
+    }
+}
@@ -0,0 +1,79 @@
+package main;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>CachingWalker</code> and the table behind its <code>CachingView</code>.
+ */
+public class CachingViewTests {
+
+    @Test
+    public void boundedTableEvictsLeastRecentlyUsed() {
+        // A single set of 4 ways
+        SquareMaskTable table = new SquareMaskTable(4);
+        for (int i = 0; i != 4; ++i) {
+            table.put(i, 0, i + 1);
+        }
+        assertEquals(1, table.get(0, 0));
+
+        table.put(4, 0, 5);
+
+        assertEquals(4, table.size());
+        assertEquals(1, table.getEvictions());
+        assertEquals(0, table.get(1, 0));
+        assertEquals(1, table.get(0, 0));
+        assertEquals(5, table.get(4, 0));
+    }
+
+    @Test
+    public void unboundedTableGrows() {
+        SquareMaskTable table = new SquareMaskTable();
+        for (int x = -50; x != 50; ++x) {
+            for (int y = -50; y != 50; ++y) {
+                table.put(x, y, (x ^ y) | 0x80);
+            }
+        }
+
+        assertEquals(100 * 100, table.size());
+        assertEquals(0, table.getEvictions());
+        for (int x = -50; x != 50; ++x) {
+            for (int y = -50; y != 50; ++y) {
+                assertEquals(((x ^ y) | 0x80) & 0xFF, table.get(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void cachedWalkerProbesEveryWallOnce() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 7).generate(30, 30);
+        SolveResult uncached = new HeadlessSolver().solve(new LeftWalker(), board);
+
+        board.reset();
+        CachingWalker cachingWalker = new CachingWalker(new LeftWalker());
+        InstrumentedWalker instrumentedWalker = new InstrumentedWalker(cachingWalker);
+        SolveResult cached = new HeadlessSolver().solve(instrumentedWalker, board);
+
+        assertTrue(cached.isSolved());
+        assertEquals(uncached.getSteps(), cached.getSteps());
+        // Every probe reaching the board is about a new wall
+        int squares = cachingWalker.getView().getTable().size();
+        assertEquals(4L * squares, instrumentedWalker.getMetrics().getProbes());
+        assertEquals(instrumentedWalker.getMetrics().getProbes(), cachingWalker.getView().getProbes());
+    }
+
+    @Test
+    public void wallMaskViewAnswersInOneCall() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.ELLER, 7).generate(30, 30);
+        CachingWalker cachingWalker = new CachingWalker(new SmarterLeftWalker(), new SquareMaskTable(64));
+
+        SolveResult result = new HeadlessSolver().solve(cachingWalker, board);
+
+        assertTrue(result.isSolved());
+        // Only misses ask the board, one call per square
+        SquareMaskTable table = cachingWalker.getView().getTable();
+        assertTrue(table.size() <= 64);
+        assertTrue(cachingWalker.getView().getProbes() <= result.getSteps() + 1);
+    }
+}
@@ -0,0 +1,130 @@
+package main;
+
+import java.io.*;
+
+import maze.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>CompactBoard</code> against <code>Board</code>.
+ */
+public class CompactBoardTests {
+
+    private static final String MAZE = "5,5\n9,3,1,1,5\n8,1,4,44,12\n10,2,2,4,12\n9,19,3,6,12\n10,3,2,3,6";
+
+    /**
+     * Mazes of <code>LeftWalkerTests</code>, many give a wall on one of its sides only.
+     */
+    static final String[] LEFT_WALKER_MAZES = {
+            "3,3\n41,1,5\n8,0,4\n10,2,22\n",
+            "3,3\n3,1,45\n8,8,28\n10,10,12",
+            "3,3\n3,1,13\n8,8,28\n10,10,44",
+            "3,3\n9,1,5\n8,8,12\n10,42,30",
+            "3,3\n41,1,5\n8,16,4\n10,2,6\n",
+            "5,5\n45,9,17,1,7\n8,0,0,0,5\n8,2,2,2,4\n8,3,3,3,4\n10,3,3,3,6",
+            "5,5\n9,1,1,1,5\n8,0,0,0,36\n8,0,15,0,4\n8,0,16,0,4\n10,2,2,2,6\n",
+            "10,10\n9,3,3,3,1,3,3,3,3,5\n10,3,3,3,0,3,3,3,7,12\n9,5,9,3,2,3,3,1,7,12\n10,0,2,3,3,3,1,2,7,12\n"
+                    + "9,2,3,3,1,3,2,3,7,12\n12,11,3,3,2,3,3,1,5,44\n24,3,3,1,3,3,3,2,2,4\n12,9,1,2,3,3,3,3,7,12\n"
+                    + "8,2,2,3,1,3,3,3,7,12\n10,3,3,3,2,3,3,3,3,6",
+            "5,6\n9,1,1,1,37\n8,0,0,0,4\n8,15,15,15,4\n8,15,13,15,4\n8,15,16,0,4\n10,2,2,2,6",
+            "5,5\n9,3,1,1,5\n8,1,4,44,12\n10,2,2,4,12\n9,19,3,6,12\n10,3,2,3,6",
+    };
+
+    /**
+     * Fail unless both boards have the same walls, start and target.
+     */
+    static void assertSameBoard(String message, GridBoard expected, GridBoard actual) {
+        assertEquals(message, expected.getWidth(), actual.getWidth());
+        assertEquals(message, expected.getHeight(), actual.getHeight());
+        for (int y = 0; y != expected.getHeight(); ++y) {
+            for (int x = 0; x != expected.getWidth(); ++x) {
+                assertEquals(message + ", walls of " + x + "," + y, expected.getWalls(x, y), actual.getWalls(x, y));
+            }
+        }
+        assertEquals(message, expected.getStartX(), actual.getStartX());
+        assertEquals(message, expected.getStartY(), actual.getStartY());
+        assertEquals(message, expected.getTargetX(), actual.getTargetX());
+        assertEquals(message, expected.getTargetY(), actual.getTargetY());
+    }
+
+    @Test
+    public void readWalls() throws IOException {
+        CompactBoard board = CompactBoard.read(new StringReader(MAZE));
+
+        assertEquals(5, board.getWidth());
+        assertEquals(5, board.getHeight());
+        assertEquals(1, board.getStartX());
+        assertEquals(3, board.getStartY());
+        assertEquals(3, board.getTargetX());
+        assertEquals(1, board.getTargetY());
+
+        // Square (1,3) has walls north and south: 19 = start | north | south.
+        assertEquals(0b0101, board.getWalls(1, 3));
+        assertTrue(board.mayMove(Direction.EAST));
+        assertFalse(board.mayMove(Direction.NORTH));
+    }
+
+    @Test
+    public void readWallsBlockBothSides() throws IOException {
+        for (String maze : LEFT_WALKER_MAZES) {
+            assertSameBoard(maze, CompactBoard.fromBoard(new Board(new StringReader(maze))),
+                    CompactBoard.read(new StringReader(maze)));
+        }
+    }
+
+    @Test
+    public void walkersSolveReadMazes() throws IOException {
+        // Walls given on one side only used to leave the walkers lost in maze 4.
+        for (String maze : LEFT_WALKER_MAZES) {
+            SolveResult expected = new HeadlessSolver().solve(new SmarterLeftWalker(), new Board(new StringReader(maze)));
+            SolveResult actual = new HeadlessSolver(100_000).solve(new SmarterLeftWalker(),
+                    CompactBoard.read(new StringReader(maze)));
+
+            assertTrue(maze, actual.isSolved());
+            assertEquals(maze, expected.getSteps(), actual.getSteps());
+        }
+    }
+
+    @Test
+    public void textRoundTrip() throws IOException {
+        for (int i = 0; i != 10; ++i) {
+            Board board = new Board(20, 15);
+            assertEquals(board.toString(), CompactBoard.fromBoard(board).toString());
+        }
+    }
+
+    @Test
+    public void setWallKeepsBothSides() {
+        CompactBoard board = new CompactBoard(3, 3);
+
+        board.setWall(1, 1, 1, false);
+        assertEquals(0b1101, board.getWalls(1, 1));
+        assertEquals(0b0111, board.getWalls(2, 1));
+
+        board.setWall(2, 1, 3, true);
+        assertEquals(GridBoard.ALL_WALLS, board.getWalls(1, 1));
+        assertEquals(GridBoard.ALL_WALLS, board.getWalls(2, 1));
+    }
+
+    @Test
+    public void walkersSeeSameMaze() throws IOException {
+        for (int i = 0; i != 20; ++i) {
+            Board board = new Board(30, 30);
+            CompactBoard compactBoard = CompactBoard.fromBoard(board);
+
+            SolveResult expected = new HeadlessSolver().solve(new SmarterLeftWalker(), board);
+            SolveResult actual = new HeadlessSolver().solve(new SmarterLeftWalker(), compactBoard);
+
+            assertEquals(expected.isSolved(), actual.isSolved());
+            assertEquals(expected.getSteps(), actual.getSteps());
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void missingStart() throws IOException {
+        CompactBoard.read(new StringReader("2,1\n41,4"));
+    }
+}
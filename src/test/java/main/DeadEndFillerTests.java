@@ -0,0 +1,84 @@
+package main;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>DeadEndFiller</code>.
+ */
+public class DeadEndFillerTests {
+
+    @Test
+    public void perfectMazeLeavesSolutionPath() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            CompactBoard board = new MazeGenerator(algorithm, 11).generate(40, 30);
+            int shortest = PathFinder.findRoute(board, PathFinder.Strategy.BFS).size();
+
+            DeadEndFiller filler = new DeadEndFiller();
+            CompactBoard filled = filler.fill(board);
+
+            assertEquals(40 * 30 - shortest - 1, filler.getFilledSquares());
+            // Every square left open lies on the path
+            int open = 0;
+            for (int y = 0; y != 30; ++y) {
+                for (int x = 0; x != 40; ++x) {
+                    if (filled.getWalls(x, y) != GridBoard.ALL_WALLS) {
+                        open++;
+                    }
+                }
+            }
+            assertEquals(shortest + 1, open);
+        }
+    }
+
+    @Test
+    public void walkersTakeShortestPathOnFilledMaze() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 3).generate(50, 50);
+        int shortest = PathFinder.findRoute(board, PathFinder.Strategy.BFS).size();
+        SolveResult unfilled = new HeadlessSolver().solve(new SmarterLeftWalker(), board);
+
+        CompactBoard filled = new DeadEndFiller().fill(board);
+        SolveResult result = new HeadlessSolver().solve(new SmarterLeftWalker(), filled);
+
+        assertTrue(result.isSolved());
+        assertEquals(shortest, result.getSteps());
+        assertTrue(result.getSteps() <= unfilled.getSteps());
+    }
+
+    @Test
+    public void loopsAreKept() {
+        CompactBoard board = new CompactBoard(3, 3);
+        board.clearInnerWalls();
+        board.setStart(0, 0);
+        board.setTarget(2, 2);
+
+        DeadEndFiller filler = new DeadEndFiller();
+        CompactBoard filled = filler.fill(board);
+
+        // An open room has no dead ends
+        assertEquals(0, filler.getFilledSquares());
+        assertEquals(board.toString(), filled.toString());
+    }
+
+    @Test
+    public void walledInSquaresAreNotCounted() {
+        // A corridor of 3 squares above a row of squares walled in on all sides.
+        CompactBoard board = new CompactBoard(3, 2);
+        for (int x = 0; x != 2; ++x) {
+            board.setWall(x, 0, 1, false);
+        }
+        board.setStart(1, 0);
+        board.setTarget(2, 0);
+
+        DeadEndFiller filler = new DeadEndFiller();
+        CompactBoard filled = filler.fill(board);
+
+        // Only the west end gets new walls
+        assertEquals(1, filler.getFilledSquares());
+        assertEquals(GridBoard.ALL_WALLS, filled.getWalls(0, 0));
+        for (int x = 0; x != 3; ++x) {
+            assertEquals(GridBoard.ALL_WALLS, filled.getWalls(x, 1));
+        }
+    }
+}
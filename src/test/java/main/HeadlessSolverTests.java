@@ -0,0 +1,107 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import maze.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks when <code>HeadlessSolver</code> stops and which moves it keeps.
+ */
+public class HeadlessSolverTests {
+
+    /**
+     * Makes the given moves, then gives up.
+     */
+    private static class ScriptedWalker extends Walker {
+        private final Direction[] moves;
+        private int next = 0;
+
+        ScriptedWalker(Direction... moves) {
+            super("Scripted Walker");
+            this.moves = moves;
+        }
+
+        @Override
+        protected Direction move(View v) {
+            return next < moves.length ? moves[next++] : null;
+        }
+    }
+
+    /**
+     * Walks east and west forever.
+     */
+    private static class PacingWalker extends Walker {
+        private int moves = 0;
+
+        PacingWalker() {
+            super("Pacing Walker");
+        }
+
+        @Override
+        protected Direction move(View v) {
+            return moves++ % 2 == 0 ? Direction.EAST : Direction.WEST;
+        }
+    }
+
+    /**
+     * A corridor of three squares, from west to east.
+     */
+    private static CompactBoard corridor() {
+        CompactBoard board = new CompactBoard(3, 1);
+        board.clearInnerWalls();
+        board.setStart(0, 0);
+        board.setTarget(2, 0);
+        return board;
+    }
+
+    @Test
+    public void maxMovesStopsWalker() {
+        SolveResult result = new HeadlessSolver(10).solve(new PacingWalker(), corridor());
+        assertFalse(result.isSolved());
+        assertEquals(10, result.getSteps());
+
+        result = new HeadlessSolver(10).solve(new PacingWalker(), corridor().toBoard());
+        assertFalse(result.isSolved());
+        assertEquals(10, result.getSteps());
+    }
+
+    @Test
+    public void nullDirectionEndsSolve() {
+        SolveResult result = new HeadlessSolver().solve(new ScriptedWalker(Direction.EAST), corridor());
+        assertFalse(result.isSolved());
+        assertEquals(1, result.getSteps());
+
+        result = new HeadlessSolver().solve(new ScriptedWalker(Direction.EAST), corridor().toBoard());
+        assertFalse(result.isSolved());
+        assertEquals(1, result.getSteps());
+    }
+
+    @Test
+    public void blockedMovesAreNotKept() {
+        Direction[] script = {Direction.NORTH, Direction.WEST, Direction.EAST, Direction.SOUTH, Direction.EAST};
+
+        List<Integer> heard = new ArrayList<>();
+        HeadlessSolver solver = new HeadlessSolver();
+        solver.setMoveListener(heard::add);
+        checkOnlyRealMoves(solver.solve(new ScriptedWalker(script), corridor()));
+        assertEquals(Arrays.asList(1, 1), heard);
+
+        heard.clear();
+        checkOnlyRealMoves(solver.solve(new ScriptedWalker(script), corridor().toBoard()));
+        assertEquals(Arrays.asList(1, 1), heard);
+    }
+
+    private void checkOnlyRealMoves(SolveResult result) {
+        assertTrue(result.isSolved());
+        assertEquals(2, result.getSteps());
+        assertEquals(2, result.getMoves().size());
+        assertEquals(Direction.EAST, result.getMoves().getDirection(0));
+        assertEquals(Direction.EAST, result.getMoves().getDirection(1));
+    }
+}
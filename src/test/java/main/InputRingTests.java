@@ -0,0 +1,164 @@
+package main;
+
+import java.awt.Canvas;
+import java.awt.event.KeyEvent;
+import java.io.StringReader;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import maze.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>InputRing</code> and the key commands posted through it.
+ */
+public class InputRingTests {
+
+    @Test
+    public void fullRingRefusesValues() {
+        InputRing ring = new InputRing(3);
+        assertEquals(4, ring.capacity());
+
+        for (int i = 0; i != 4; ++i) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+
+        assertEquals(0, ring.poll(-1));
+        assertTrue(ring.offer(4));
+        for (int i = 1; i != 5; ++i) {
+            assertEquals(i, ring.poll(-1));
+        }
+        assertEquals(-1, ring.poll(-1));
+    }
+
+    @Test
+    public void valuesCrossThreadsInOrder() throws InterruptedException {
+        InputRing ring = new InputRing(64);
+        int count = 1_000_000;
+
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= count; ) {
+                if (ring.offer(i)) {
+                    i++;
+                } else {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        for (int expected = 1; expected <= count; ) {
+            int value = ring.poll(0);
+            if (value == 0) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(expected++, value);
+        }
+        producer.join();
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void keyWalkerRepeatsCountedMoves() throws Exception {
+        // A corridor 5 squares long.
+        CompactBoard layout = new CompactBoard(5, 1);
+        layout.clearInnerWalls();
+        layout.setStart(0, 0);
+        layout.setTarget(4, 0);
+        Board board = new Board(new StringReader(layout.toString()));
+
+        KeyWalker walker = new KeyWalker();
+        Canvas source = new Canvas();
+        walker.keyPressed(key(source, KeyEvent.VK_4));
+        walker.keyPressed(key(source, KeyEvent.VK_RIGHT));
+
+        SolveResult result = new HeadlessSolver(10).solve(walker, board);
+
+        assertTrue(result.isSolved());
+        assertEquals(4, result.getSteps());
+    }
+
+    /**
+     * Paces between the first two squares of a corridor, one move per permit.
+     */
+    private static class GatedWalker extends Walker {
+        private final Semaphore permits = new Semaphore(0);
+        private final AtomicInteger moves = new AtomicInteger();
+
+        GatedWalker() {
+            super("Gated Walker");
+        }
+
+        @Override
+        protected Direction move(View v) {
+            permits.acquireUninterruptibly();
+            return moves.getAndIncrement() % 2 == 0 ? Direction.EAST : Direction.WEST;
+        }
+    }
+
+    @Test
+    public void stepWalkerRepeatsAndCancelsSteps() throws Exception {
+        CompactBoard layout = new CompactBoard(3, 1);
+        layout.clearInnerWalls();
+        layout.setStart(0, 0);
+        layout.setTarget(2, 0);
+        Board board = new Board(new StringReader(layout.toString()));
+
+        GatedWalker walker = new GatedWalker();
+        StepWalker stepWalker = new StepWalker(board, walker);
+        Canvas source = new Canvas();
+        try {
+            stepWalker.keyPressed(key(source, KeyEvent.VK_5));
+            stepWalker.keyPressed(key(source, KeyEvent.VK_Q));
+            walker.permits.release(100);
+            awaitMoves(walker, 5);
+            Thread.sleep(50);
+            assertEquals(5, walker.moves.get());
+            walker.permits.drainPermits();
+
+            // 1000 steps, and two more commands queued behind them.
+            for (int keyCode : new int[]{KeyEvent.VK_1, KeyEvent.VK_0, KeyEvent.VK_0, KeyEvent.VK_0, KeyEvent.VK_Q,
+                    KeyEvent.VK_3, KeyEvent.VK_Q, KeyEvent.VK_Q}) {
+                stepWalker.keyPressed(key(source, keyCode));
+            }
+            walker.permits.release(10);
+            awaitMoves(walker, 15);
+            while (!walker.permits.hasQueuedThreads()) {
+                Thread.sleep(1);
+            }
+
+            // The worker waits in the 16th move, Escape lets it finish that one only.
+            stepWalker.keyPressed(key(source, KeyEvent.VK_ESCAPE));
+            walker.permits.release(2000);
+            awaitMoves(walker, 16);
+            Thread.sleep(50);
+            assertEquals(16, walker.moves.get());
+
+            // The queue was cleared, the next step key takes one step.
+            stepWalker.keyPressed(key(source, KeyEvent.VK_Q));
+            awaitMoves(walker, 17);
+            Thread.sleep(50);
+            assertEquals(17, walker.moves.get());
+        } finally {
+            stepWalker.close();
+            walker.permits.release(2000);
+        }
+    }
+
+    private static void awaitMoves(GatedWalker walker, int moves) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (walker.moves.get() < moves) {
+            assertTrue("Only " + walker.moves.get() + " of " + moves + " moves taken", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static KeyEvent key(Canvas source, int keyCode) {
+        return new KeyEvent(source, KeyEvent.KEY_PRESSED, 0, 0, keyCode, KeyEvent.CHAR_UNDEFINED);
+    }
+}
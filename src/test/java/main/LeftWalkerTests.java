@@ -3,7 +3,6 @@ package main;
 import java.io.*;
 
 import maze.*;
-import maze.gui.MazeWindow;
 
 import org.junit.Test;
 
@@ -122,18 +121,21 @@ public class LeftWalkerTests {
         try {
             Board board = new Board(new StringReader(inputMaze));
             Walker walker = new LeftWalker();
-            MazeWindow.getWindowAndShow(board);
-            walker.solve(board);
-            Path p = board.getPath();
-
-            // First, need to generate the walker's path
-            int[][] walkerPath = new int[p.getSteps()][2];
-            Coordinate c;
-            int idx = walkerPath.length - 1;
-            while ((c = p.pop()) != null) {
-                walkerPath[idx][0] = c.getX();
-                walkerPath[idx][1] = c.getY();
-                idx--;
+            // Board doesn't tell where the walk starts
+            GridBoard layout = CompactBoard.read(new StringReader(inputMaze));
+            PathRecorder recorder = new PathRecorder(layout.getStartX(), layout.getStartY());
+            HeadlessSolver solver = new HeadlessSolver();
+            solver.setMoveListener(recorder);
+            solver.solve(walker, board);
+
+            // First, need to generate the walker's path: from the start square,
+            // one square per move, leaving out the final square
+            int[][] walkerPath = new int[(int) recorder.getSteps()][2];
+            PathRecorder.Replay replay = recorder.replay();
+            for (int idx = 0; idx != walkerPath.length; ++idx) {
+                walkerPath[idx][0] = replay.getX();
+                walkerPath[idx][1] = replay.getY();
+                replay.next();
             }
 
             // Now, check the walker's path was correct
@@ -0,0 +1,88 @@
+package main;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import maze.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips between the text format and binary maze files.
+ */
+public class MazeFileTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void textRoundTrip() throws IOException {
+        // Odd number of squares, so the last byte is half used.
+        String text = new MazeGenerator(MazeGenerator.Algorithm.ELLER, 1).generate(7, 5).toString();
+
+        Path textFile = folder.newFile("maze.txt").toPath();
+        Path binaryFile = folder.newFile("maze" + MazeFile.EXTENSION).toPath();
+        Path convertedFile = folder.newFile("converted.txt").toPath();
+
+        Files.write(textFile, text.getBytes(StandardCharsets.US_ASCII));
+        MazeFile.textToBinary(textFile, binaryFile);
+        MazeFile.binaryToText(binaryFile, convertedFile);
+
+        assertEquals(text, new String(Files.readAllBytes(convertedFile), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void textToBinaryWallsBlockBothSides() throws IOException {
+        for (String maze : CompactBoardTests.LEFT_WALKER_MAZES) {
+            Path textFile = folder.newFile().toPath();
+            Path binaryFile = folder.newFile().toPath();
+            Files.write(textFile, maze.getBytes(StandardCharsets.US_ASCII));
+            MazeFile.textToBinary(textFile, binaryFile);
+
+            CompactBoardTests.assertSameBoard(maze, CompactBoard.fromBoard(new Board(new StringReader(maze))),
+                    MazeFile.map(binaryFile));
+        }
+    }
+
+    @Test
+    public void mapWrittenBoard() throws IOException {
+        CompactBoard board = CompactBoard.fromBoard(new Board(40, 30));
+        Path binaryFile = folder.newFile("maze" + MazeFile.EXTENSION).toPath();
+
+        MazeFile.write(board, binaryFile);
+        MappedBoard mappedBoard = MazeFile.map(binaryFile);
+
+        assertEquals(board.toString(), mappedBoard.toString());
+        assertEquals(board.getPosX(), mappedBoard.getPosX());
+        assertEquals(board.getPosY(), mappedBoard.getPosY());
+    }
+
+    @Test
+    public void streamGeneratedBoard() throws IOException {
+        Path binaryFile = folder.newFile("maze" + MazeFile.EXTENSION).toPath();
+        new MazeGenerator(MazeGenerator.Algorithm.ELLER, 3).generate(37, 300, binaryFile);
+
+        // Pages of 3 rows, starting and ending in the middle of a byte
+        try (StreamingBoard streamingBoard = new StreamingBoard(binaryFile, 64, 2)) {
+            assertEquals(3, streamingBoard.getRowsPerPage());
+            assertEquals(MazeFile.map(binaryFile).toString(), streamingBoard.toString());
+
+            streamingBoard.reset();
+            SolveResult result = new HeadlessSolver().solve(new LeftWalker(), streamingBoard);
+            assertTrue(result.isSolved());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectTextFile() throws IOException {
+        Path file = folder.newFile("maze.txt").toPath();
+        Files.write(file, "3,3\n41,1,5\n8,0,4\n10,2,22\n123456789012345678901234567890".getBytes(StandardCharsets.US_ASCII));
+        MazeFile.map(file);
+    }
+}
@@ -0,0 +1,102 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that <code>MazeGenerator</code> makes perfect, reproducible mazes.
+ */
+public class MazeGeneratorTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mazesArePerfect() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            // Big enough for several division tasks and Eller bands
+            checkPerfect(new MazeGenerator(algorithm, 7).generate(300, 600));
+            checkPerfect(new MazeGenerator(algorithm, 7).generate(1, 40));
+            checkPerfect(new MazeGenerator(algorithm, 7).generate(40, 1));
+        }
+    }
+
+    @Test
+    public void sameSeedSameMaze() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            MazeGenerator sequential = new MazeGenerator(algorithm, 42);
+            sequential.setParallelism(1);
+            MazeGenerator parallel = new MazeGenerator(algorithm, 42);
+            parallel.setParallelism(4);
+
+            assertEquals(sequential.generate(300, 600).toString(), parallel.generate(300, 600).toString());
+            assertNotEquals(sequential.generate(30, 30).toString(),
+                    new MazeGenerator(algorithm, 43).generate(30, 30).toString());
+        }
+    }
+
+    @Test
+    public void streamedMazesArePerfect() throws IOException {
+        Path file = folder.newFile("maze" + MazeFile.EXTENSION).toPath();
+        new MazeGenerator(MazeGenerator.Algorithm.ELLER, 11).generate(301, 700, file);
+
+        try (StreamingBoard board = new StreamingBoard(file, 1024, 3)) {
+            checkPerfect(board);
+        }
+    }
+
+    @Test
+    public void mazesAreSolvable() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            for (long seed = 0; seed != 10; ++seed) {
+                CompactBoard board = new MazeGenerator(algorithm, seed).generate(30, 20);
+                SolveResult result = new HeadlessSolver().solve(new SmarterLeftWalker(), board);
+
+                assertTrue(result.isSolved());
+            }
+        }
+    }
+
+    /**
+     * A maze is perfect if it's connected and has one passage less than squares.
+     */
+    private void checkPerfect(GridBoard board) {
+        int width = board.getWidth();
+        int passages = 0;
+        for (int y = 0; y != board.getHeight(); ++y) {
+            for (int x = 0; x != width; ++x) {
+                assertEquals(board.hasWall(x, y, 1), x == width - 1 || board.hasWall(x + 1, y, 3));
+                assertEquals(board.hasWall(x, y, 2), y == board.getHeight() - 1 || board.hasWall(x, y + 1, 0));
+                passages += board.hasWall(x, y, 1) ? 0 : 1;
+                passages += board.hasWall(x, y, 2) ? 0 : 1;
+            }
+        }
+        assertEquals(width * board.getHeight() - 1, passages);
+
+        BitSet visited = new BitSet();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        visited.set(0);
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int square = queue.poll();
+            int x = square % width;
+            int y = square / width;
+            for (int direction = 0; direction != 4; ++direction) {
+                int next = (y + GridBoard.dy(direction)) * width + x + GridBoard.dx(direction);
+                if (board.mayMove(x, y, direction) && !visited.get(next)) {
+                    visited.set(next);
+                    queue.add(next);
+                }
+            }
+        }
+        assertEquals(width * board.getHeight(), visited.cardinality());
+    }
+}
@@ -0,0 +1,74 @@
+package main;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>MoveLog</code>, read on the writing thread and on another one.
+ */
+public class MoveLogTests {
+
+    private static int moveAt(int index) {
+        return (index * 7 + index / 5) & 3;
+    }
+
+    @Test
+    public void readBack() {
+        MoveLog log = new MoveLog();
+        for (int i = 0; i != 100; ++i) {
+            log.onMove(moveAt(i));
+        }
+        assertEquals(100, log.size());
+
+        int[] moves = new int[30];
+        assertEquals(30, log.read(10, moves));
+        for (int i = 0; i != 30; ++i) {
+            assertEquals(moveAt(10 + i), moves[i]);
+        }
+
+        // Only as many as published.
+        assertEquals(5, log.read(95, moves));
+        assertEquals(moveAt(99), moves[4]);
+        assertEquals(0, log.read(100, moves));
+        assertEquals(0, log.read(120, moves));
+    }
+
+    @Test
+    public void publishAcrossThreads() throws InterruptedException {
+        int total = 1 << 20;
+        MoveLog log = new MoveLog();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        // Reads while the log grows, every move must be there and right once published.
+        Thread reader = new Thread(() -> {
+            int[] moves = new int[1000];
+            int read = 0;
+            while (read != total && failure.get() == null) {
+                int count = log.read(read, moves);
+                for (int i = 0; i != count; ++i) {
+                    if (moves[i] != moveAt(read + i)) {
+                        failure.set("Move " + (read + i) + " is " + moves[i]);
+                        return;
+                    }
+                }
+                read += count;
+                if (count == 0) {
+                    Thread.yield();
+                }
+            }
+        }, "move-log-reader");
+        reader.start();
+
+        for (int i = 0; i != total; ++i) {
+            log.onMove(moveAt(i));
+        }
+        reader.join(60_000);
+
+        assertFalse("Reader didn't finish", reader.isAlive());
+        assertNull(failure.get());
+        assertEquals(total, log.size());
+    }
+}
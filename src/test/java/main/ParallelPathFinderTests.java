@@ -0,0 +1,56 @@
+package main;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>ParallelPathFinder</code> against <code>PathFinder</code>.
+ */
+public class ParallelPathFinderTests {
+
+    @Test
+    public void findsShortestRoutes() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            for (int parallelism : new int[]{1, 4}) {
+                CompactBoard board = new MazeGenerator(algorithm, 21).generate(300, 200);
+                ParallelPathFinder finder = new ParallelPathFinder(board);
+                finder.setParallelism(parallelism);
+
+                MoveBuffer route = finder.findRoute();
+
+                assertEquals(PathFinder.findRoute(board, PathFinder.Strategy.BFS).size(), route.size());
+                assertTrue(finder.getExpandedSquares() <= 300 * 200);
+            }
+        }
+    }
+
+    @Test
+    public void walkerReachesTarget() {
+        CompactBoard board = new CompactBoard(64, 64);
+        board.clearInnerWalls();
+        board.setStart(3, 60);
+        board.setTarget(50, 2);
+
+        SolveResult result = new HeadlessSolver().solve(new ParallelShortestPathWalker(board, 4), board);
+
+        assertTrue(result.isSolved());
+        assertEquals(47 + 58, result.getSteps());
+    }
+
+    @Test
+    public void unreachableTarget() {
+        CompactBoard board = new CompactBoard(10, 10);
+        board.clearInnerWalls();
+        for (int y = 0; y != 10; ++y) {
+            board.setWall(4, y, 1, true);
+        }
+        board.setStart(0, 0);
+        board.setTarget(9, 9);
+
+        assertNull(new ParallelPathFinder(board).findRoute());
+
+        board.setTarget(0, 0);
+        assertEquals(0, new ParallelPathFinder(board).findRoute().size());
+    }
+}
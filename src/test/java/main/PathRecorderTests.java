@@ -0,0 +1,89 @@
+package main;
+
+import java.io.*;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks encoding and replay of walks recorded by <code>PathRecorder</code>.
+ */
+public class PathRecorderTests {
+
+    private static final int[] WALK = {1, 1, 1, 2, 2, 3, 0, 0, 0, 0, 1};
+
+    @Test
+    public void straightRunsShareBytes() {
+        PathRecorder recorder = record(new PathRecorder(0, 0), WALK);
+
+        assertEquals(WALK.length, recorder.getSteps());
+        assertEquals(5, recorder.getRuns());
+        // The last run isn't finished yet
+        assertEquals(4, recorder.getEncodedSize());
+    }
+
+    @Test
+    public void longRunsSpanBytes() {
+        PathRecorder recorder = new PathRecorder(0, 0);
+        for (int i = 0; i != 1000; ++i) {
+            recorder.onMove(2);
+        }
+        recorder.flush();
+
+        assertEquals(1, recorder.getRuns());
+        assertEquals(2, recorder.getEncodedSize());
+        int[] walk = new int[1000];
+        Arrays.fill(walk, 2);
+        checkReplay(recorder.replay(), 0, 0, walk);
+    }
+
+    @Test
+    public void replayIncludesUnfinishedRun() {
+        PathRecorder recorder = record(new PathRecorder(3, 4), WALK);
+
+        checkReplay(recorder.replay(), 3, 4, WALK);
+    }
+
+    @Test
+    public void streamedWalkReadsBack() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PathRecorder recorder = new PathRecorder(3, 4, false);
+        recorder.setOutput(output);
+        record(recorder, WALK).flush();
+
+        assertEquals(0, recorder.getEncodedSize());
+        checkReplay(PathRecorder.read(new ByteArrayInputStream(output.toByteArray())), 3, 4, WALK);
+    }
+
+    @Test
+    public void runListenerSeesEveryRun() {
+        PathRecorder recorder = new PathRecorder(0, 0, false);
+        long[] moves = new long[4];
+        recorder.setRunListener((direction, length) -> moves[direction] += length);
+        record(recorder, WALK).flush();
+
+        assertArrayEquals(new long[]{4, 4, 2, 1}, moves);
+    }
+
+    private static PathRecorder record(PathRecorder recorder, int[] walk) {
+        for (int direction : walk) {
+            recorder.onMove(direction);
+        }
+        return recorder;
+    }
+
+    private static void checkReplay(PathRecorder.Replay replay, int x, int y, int[] walk) {
+        assertEquals(x, replay.getX());
+        assertEquals(y, replay.getY());
+        for (int direction : walk) {
+            assertTrue(replay.next());
+            x += GridBoard.dx(direction);
+            y += GridBoard.dy(direction);
+            assertEquals(x, replay.getX());
+            assertEquals(y, replay.getY());
+        }
+        assertFalse(replay.next());
+    }
+}
@@ -0,0 +1,135 @@
+package main;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import maze.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks both modes of <code>PledgeTremauxWalker</code> on mazes with islands.
+ */
+public class PledgeTremauxWalkerTests {
+
+    // Mazes 7 and 10 of LeftWalkerTests, the target sits next to an island.
+    private static final String MAZE7 = "5,5\n9,1,1,1,5\n8,0,0,0,36\n8,0,15,0,4\n8,0,16,0,4\n10,2,2,2,6\n";
+    private static final String MAZE10 = "5,5\n9,3,1,1,5\n8,1,4,44,12\n10,2,2,4,12\n9,19,3,6,12\n10,3,2,3,6";
+
+    @Test
+    public void escapesIslands() throws IOException {
+        for (PledgeTremauxWalker.Mode mode : PledgeTremauxWalker.Mode.values()) {
+            for (String maze : new String[]{MAZE7, MAZE10}) {
+                SolveResult result = new HeadlessSolver(10_000).solve(new PledgeTremauxWalker(mode),
+                        new Board(new StringReader(maze)));
+                assertTrue(mode + " on\n" + maze, result.isSolved());
+            }
+        }
+    }
+
+    /**
+     * Open field with walled-in squares standing alone, no wall touches the target.
+     */
+    private static CompactBoard pillars() {
+        CompactBoard board = new CompactBoard(31, 31);
+        board.clearInnerWalls();
+        for (int y = 2; y < 29; y += 4) {
+            for (int x = 2; x < 29; x += 4) {
+                for (int direction = 0; direction != 4; ++direction) {
+                    board.setWall(x, y, direction, true);
+                }
+            }
+        }
+        board.setStart(0, 0);
+        board.setTarget(16, 16);
+        return board;
+    }
+
+    @Test
+    public void tremauxFindsTargetBetweenLoops() {
+        CompactBoard board = pillars();
+
+        PledgeTremauxWalker walker = new PledgeTremauxWalker(PledgeTremauxWalker.Mode.TREMAUX);
+        SolveResult result = new HeadlessSolver(100_000).solve(walker, board);
+
+        assertTrue(result.isSolved());
+        assertTrue(walker.getVisitedSquares() <= 31 * 31);
+    }
+
+    @Test
+    public void pledgeGivesUpCirclingTheBorder() {
+        // Every attempt ends up following the border, which never passes the target.
+        PledgeTremauxWalker walker = new PledgeTremauxWalker(PledgeTremauxWalker.Mode.PLEDGE);
+        SolveResult result = new HeadlessSolver(20_000_000).solve(walker, pillars());
+
+        assertFalse(result.isSolved());
+        assertTrue(result.getSteps() < 100 * 31 * 4);
+    }
+
+    @Test
+    public void pledgeGivesUpOnLapsDippingBelowSavedTurns() {
+        // Open field whose border has a short wall every 4 squares. Going round one of them turns
+        // left and back right, so each lap along the border dips below the turns it started with
+        // before adding 4 to them.
+        CompactBoard board = new CompactBoard(15, 15);
+        board.clearInnerWalls();
+        for (int i = 3; i < 12; i += 4) {
+            board.setWall(i, 0, 1, true);
+            board.setWall(14, i, 2, true);
+            board.setWall(i, 14, 1, true);
+            board.setWall(0, i, 2, true);
+        }
+        board.setStart(0, 14);
+        board.setTarget(7, 7);
+
+        PledgeTremauxWalker walker = new PledgeTremauxWalker(PledgeTremauxWalker.Mode.PLEDGE);
+        SolveResult result = new HeadlessSolver(20_000_000).solve(walker, board);
+
+        assertFalse(result.isSolved());
+        assertTrue(result.getSteps() < 100 * 15 * 4);
+        board.reset();
+        MoveBuffer moves = result.getMoves();
+        for (int i = 0; i != moves.size(); ++i) {
+            assertTrue(board.move(moves.get(i)));
+        }
+    }
+
+    @Test
+    public void tremauxGivesUpOnUnreachableTarget() {
+        CompactBoard board = new CompactBoard(12, 12);
+        board.clearInnerWalls();
+        for (int y = 0; y != 12; ++y) {
+            board.setWall(5, y, 1, true);
+        }
+        board.setStart(0, 0);
+        board.setTarget(11, 11);
+
+        SolveResult result = new HeadlessSolver(100_000).solve(
+                new PledgeTremauxWalker(PledgeTremauxWalker.Mode.TREMAUX), board);
+
+        assertFalse(result.isSolved());
+        // Every passage of the 6x12 half is walked at most twice.
+        int passages = 5 * 12 + 6 * 11;
+        assertTrue(result.getSteps() <= 2 * passages);
+    }
+
+    @Test
+    public void marksGrowWithTheWalk() {
+        PassageMarks marks = new PassageMarks(4);
+        marks.mark(0, 0, 1);
+        marks.mark(1, 0, 3);
+        marks.mark(0, 0, 1);
+        marks.mark(100, -70, 0);
+        marks.mark(-55, 3, 2);
+
+        assertEquals(2, marks.get(0, 0, 1));
+        assertEquals(2, marks.get(1, 0, 3));
+        assertEquals(1, marks.get(100, -71, 2));
+        assertEquals(1, marks.get(-55, 4, 0));
+        assertEquals(0, marks.get(0, 0, 2));
+        assertEquals(0, marks.get(-1000, 1000, 1));
+        assertTrue(marks.getCoveredSquares() >= 156 * 72);
+    }
+}
@@ -0,0 +1,78 @@
+package main;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>RandomWalkEngine</code> against known hitting times, and <code>RandomWalker</code>.
+ */
+public class RandomWalkEngineTests {
+
+    @Test
+    public void corridorHittingTime() {
+        // From one end of a corridor of n squares to the other takes (n - 1)^2 steps on average.
+        CompactBoard board = new CompactBoard(21, 1);
+        board.clearInnerWalls();
+        board.setStart(0, 0);
+        board.setTarget(20, 0);
+        RandomWalkEngine engine = new RandomWalkEngine(board);
+        engine.setParallelism(2);
+        engine.setMaxSteps(Long.MAX_VALUE);
+
+        RandomWalkEngine.Result result = engine.run(40_000, 7);
+
+        assertEquals(40_000, result.getHits());
+        assertEquals(0, result.getCensored());
+        assertEquals(400, result.getMeanSteps(), 400 * 0.03);
+        assertTrue(result.getStepsAtPercentile(10) >= 20);
+        assertTrue(result.getStepsAtPercentile(10) <= result.getStepsAtPercentile(50));
+        assertTrue(result.getStepsAtPercentile(50) <= result.getStepsAtPercentile(99));
+        assertTrue(result.getStepsAtPercentile(99) <= result.getMaxSteps());
+    }
+
+    @Test
+    public void sameSeedSameResult() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 2).generate(12, 12);
+        RandomWalkEngine engine = new RandomWalkEngine(board);
+
+        engine.setParallelism(1);
+        RandomWalkEngine.Result first = engine.run(20_000, 11);
+        engine.setParallelism(3);
+        RandomWalkEngine.Result second = engine.run(20_000, 11);
+
+        assertEquals(first.getMeanSteps(), second.getMeanSteps(), 0);
+        assertEquals(first.getStepsAtPercentile(90), second.getStepsAtPercentile(90));
+        assertEquals(first.getMaxSteps(), second.getMaxSteps());
+    }
+
+    @Test
+    public void unreachableTargetIsCensored() {
+        CompactBoard board = new CompactBoard(6, 6);
+        board.clearInnerWalls();
+        for (int y = 0; y != 6; ++y) {
+            board.setWall(2, y, 1, true);
+        }
+        board.setStart(0, 0);
+        board.setTarget(5, 5);
+        RandomWalkEngine engine = new RandomWalkEngine(board);
+        engine.setMaxSteps(1000);
+
+        RandomWalkEngine.Result result = engine.run(100, 1);
+
+        assertEquals(0, result.getHits());
+        assertEquals(100, result.getCensored());
+    }
+
+    @Test
+    public void walkerNeverBumpsIntoWalls() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.DIVISION, 5).generate(30, 30);
+        board.setTarget(29, 29);
+        board.setStart(0, 0);
+
+        SolveResult result = new HeadlessSolver(5000).solve(new RandomWalker(3), board);
+
+        // Every move asked for was made.
+        assertTrue(result.isSolved() || result.getSteps() == 5000);
+    }
+}
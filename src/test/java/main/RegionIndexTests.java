@@ -0,0 +1,80 @@
+package main;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks routes of <code>RegionIndex</code> against <code>PathFinder</code>.
+ */
+public class RegionIndexTests {
+
+    @Test
+    public void findsShortestRoutesOnPerfectMazes() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            // Sides which aren't multiples of the cluster size.
+            CompactBoard board = new MazeGenerator(algorithm, 5).generate(203, 117);
+            RegionIndex index = new RegionIndex(board, 16, 2);
+            PathFinder finder = new PathFinder(board);
+
+            Random random = new Random(algorithm.ordinal());
+            for (int query = 0; query != 50; ++query) {
+                int fromX = random.nextInt(203);
+                int fromY = random.nextInt(117);
+                int toX = random.nextInt(203);
+                int toY = random.nextInt(117);
+
+                MoveBuffer route = index.findRoute(fromX, fromY, toX, toY);
+
+                assertEquals(finder.findRoute(fromX, fromY, toX, toY, PathFinder.Strategy.BFS).size(), route.size());
+                assertRouteLeads(board, fromX, fromY, toX, toY, route);
+            }
+        }
+    }
+
+    @Test
+    public void findsRoutesInOpenField() {
+        CompactBoard board = new CompactBoard(50, 40);
+        board.clearInnerWalls();
+        for (int y = 0; y != 35; ++y) {
+            board.setWall(20, y, 1, true);
+        }
+        RegionIndex index = new RegionIndex(board, 8, 1);
+
+        MoveBuffer route = index.findRoute(0, 0, 49, 0);
+
+        assertRouteLeads(board, 0, 0, 49, 0, route);
+        int shortest = new PathFinder(board).findRoute(0, 0, 49, 0, PathFinder.Strategy.BFS).size();
+        assertTrue(route.size() >= shortest && route.size() <= shortest + 16);
+        assertEquals(0, index.findRoute(7, 7, 7, 7).size());
+    }
+
+    @Test
+    public void unreachableTarget() {
+        CompactBoard board = new CompactBoard(40, 40);
+        board.clearInnerWalls();
+        for (int y = 0; y != 40; ++y) {
+            board.setWall(25, y, 1, true);
+        }
+        board.setStart(0, 0);
+        board.setTarget(39, 39);
+        RegionIndex index = new RegionIndex(board, 16, 1);
+
+        assertNull(index.findRoute());
+        assertNotNull(index.findRoute(0, 0, 25, 39));
+    }
+
+    private static void assertRouteLeads(GridBoard board, int fromX, int fromY, int toX, int toY, MoveBuffer route) {
+        int x = fromX;
+        int y = fromY;
+        for (int i = 0; i != route.size(); ++i) {
+            assertTrue("Move " + i + " crosses a wall", board.mayMove(x, y, route.get(i)));
+            x += GridBoard.dx(route.get(i));
+            y += GridBoard.dy(route.get(i));
+        }
+        assertEquals(toX, x);
+        assertEquals(toY, y);
+    }
+}
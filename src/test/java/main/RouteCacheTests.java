@@ -0,0 +1,93 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import maze.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>RouteCache</code> and walkers filling and replaying it.
+ */
+public class RouteCacheTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void routeSurvivesOnDisk() throws IOException {
+        Path directory = folder.newFolder("routes").toPath();
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.ELLER, 4).generate(60, 40);
+
+        Walker walker = CachedRouteWalker.forBoard(new RouteCache(directory), board, SmarterLeftWalker::new);
+        assertTrue(walker instanceof CachedRouteWalker);
+        SolveResult walked = new HeadlessSolver().solve(walker, board);
+        assertTrue(walked.isSolved());
+
+        // A new cache only finds it on disk
+        RouteCache cache = new RouteCache(directory);
+        board.reset();
+        walker = CachedRouteWalker.forBoard(cache, board, SmarterLeftWalker::new);
+        SolveResult replayed = new HeadlessSolver().solve(walker, board);
+
+        assertTrue(walker instanceof RouteWalker);
+        assertTrue(replayed.isSolved());
+        assertEquals(walked.getSteps(), replayed.getSteps());
+        assertEquals(1, cache.getDiskHits());
+
+        assertNotNull(cache.get(board));
+        assertEquals(1, cache.getMemoryHits());
+    }
+
+    @Test
+    public void brokenFileIsDeleted() throws IOException {
+        Path directory = folder.newFolder("routes").toPath();
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 4).generate(30, 30);
+        new RouteCache(directory).put(board, PathFinder.findRoute(board, PathFinder.Strategy.BFS));
+
+        Path file = directory.resolve(String.format("%016x", RouteCache.fingerprint(board)) + RouteCache.EXTENSION);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1; // the last run turns into another direction
+        Files.write(file, bytes);
+
+        RouteCache cache = new RouteCache(directory);
+        assertNull(cache.get(board));
+        assertEquals(1, cache.getBrokenFiles());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void leastRecentlyUsedRouteIsDropped() throws IOException {
+        // Room for two small routes
+        RouteCache cache = new RouteCache(250);
+        CompactBoard[] boards = new CompactBoard[3];
+        for (int i = 0; i != boards.length; ++i) {
+            boards[i] = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, i).generate(10, 10);
+            cache.put(boards[i], PathFinder.findRoute(boards[i], PathFinder.Strategy.BFS));
+        }
+
+        assertNull(cache.get(boards[0]));
+        assertNotNull(cache.get(boards[1]));
+        assertNotNull(cache.get(boards[2]));
+    }
+
+    @Test
+    public void fingerprintCoversWallsAndEnds() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.DIVISION, 4).generate(50, 50);
+        long fingerprint = RouteCache.fingerprint(board);
+        assertEquals(fingerprint, RouteCache.fingerprint(CompactBoard.fromBoard(board.toBoard())));
+
+        board.setWall(25, 25, 1, !board.hasWall(25, 25, 1));
+        long changedWall = RouteCache.fingerprint(board);
+        assertNotEquals(fingerprint, changedWall);
+
+        board.setTarget(board.getStartX(), board.getStartY());
+        assertNotEquals(changedWall, RouteCache.fingerprint(board));
+    }
+}
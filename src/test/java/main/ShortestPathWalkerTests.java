@@ -0,0 +1,79 @@
+package main;
+
+import java.io.*;
+
+import maze.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks routes found by <code>PathFinder</code> and walked by <code>ShortestPathWalker</code>.
+ */
+public class ShortestPathWalkerTests {
+
+    @Test
+    public void maze1() throws IOException {
+        CompactBoard board = CompactBoard.read(new StringReader("3,3\n41,1,5\n8,0,4\n10,2,22\n"));
+
+        for (PathFinder.Strategy strategy : PathFinder.Strategy.values()) {
+            board.reset();
+            SolveResult result = new HeadlessSolver().solve(new ShortestPathWalker(board, strategy), board);
+
+            assertTrue(result.isSolved());
+            assertEquals(4, result.getSteps());
+        }
+    }
+
+    @Test
+    public void shorterThanWallFollowing() throws IOException {
+        // maze10 of LeftWalkerTests, the left walker needs 33 steps.
+        CompactBoard board = CompactBoard.read(new StringReader(
+                "5,5\n9,3,1,1,5\n8,1,4,44,12\n10,2,2,4,12\n9,19,3,6,12\n10,3,2,3,6"));
+
+        SolveResult result = new HeadlessSolver().solve(new ShortestPathWalker(board), board);
+
+        assertTrue(result.isSolved());
+        assertEquals(4, result.getSteps());
+    }
+
+    @Test
+    public void strategiesAgree() {
+        for (int i = 0; i != 20; ++i) {
+            CompactBoard board = CompactBoard.fromBoard(new Board(40, 30));
+
+            MoveBuffer bfsRoute = PathFinder.findRoute(board, PathFinder.Strategy.BFS);
+            MoveBuffer aStarRoute = PathFinder.findRoute(board, PathFinder.Strategy.A_STAR);
+
+            if (bfsRoute == null) {
+                // Generated boards don't always connect start and target.
+                assertNull(aStarRoute);
+                continue;
+            }
+
+            assertEquals(bfsRoute.size(), aStarRoute.size());
+            checkRoute(board, bfsRoute);
+            checkRoute(board, aStarRoute);
+        }
+    }
+
+    @Test
+    public void unreachableTarget() throws IOException {
+        // Wall between the only two squares.
+        CompactBoard board = CompactBoard.read(new StringReader("2,1\n29,43"));
+
+        SolveResult result = new HeadlessSolver().solve(new ShortestPathWalker(board), board);
+
+        assertFalse(result.isSolved());
+        assertEquals(0, result.getSteps());
+    }
+
+    private void checkRoute(CompactBoard board, MoveBuffer route) {
+        board.reset();
+        for (int i = 0; i != route.size(); ++i) {
+            assertTrue("move " + i + " goes through a wall", board.move(route.get(i)));
+        }
+        assertTrue(board.isSolved());
+    }
+}
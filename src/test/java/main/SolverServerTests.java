@@ -0,0 +1,217 @@
+package main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import maze.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>SolverServer</code> through a <code>SolverClient</code>.
+ */
+public class SolverServerTests {
+
+    private SolverServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new SolverServer(0, 2);
+        server.start();
+    }
+
+    @After
+    public void closeServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void solvesBinaryAndTextMazes() throws IOException {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 8).generate(40, 30);
+        StringWriter text = new StringWriter();
+        board.write(text);
+
+        try (SolverClient client = new SolverClient(server.getPort())) {
+            SolverClient.Response binary = client.solve("bfs", board);
+            client.sendText("smart", text.toString());
+            SolverClient.Response fromText = client.receive();
+
+            assertTrue(binary.isSolved());
+            assertEquals(PathFinder.findRoute(board, PathFinder.Strategy.BFS).size(), binary.getSteps());
+            assertRouteReachesTarget(board, binary);
+            assertTrue(fromText.isSolved());
+            assertRouteReachesTarget(board, fromText);
+        }
+    }
+
+    @Test
+    public void textMazesBlockWallsBothWays() throws IOException {
+        // Maze 4 of LeftWalkerTests gives some walls on one side only, Board(Reader) blocks them both ways.
+        String maze = CompactBoardTests.LEFT_WALKER_MAZES[3];
+        GridBoard board = CompactBoard.fromBoard(new Board(new StringReader(maze)));
+        SolveResult expected = new HeadlessSolver().solve(new SmarterLeftWalker(), new Board(new StringReader(maze)));
+
+        try (SolverClient client = new SolverClient(server.getPort())) {
+            client.sendText("smart", maze);
+            client.sendText("bfs", maze);
+            SolverClient.Response smart = client.receive();
+            SolverClient.Response bfs = client.receive();
+
+            assertTrue(smart.isSolved());
+            assertEquals(expected.getSteps(), smart.getSteps());
+            assertRouteWalksOpenPassages(board, smart);
+            assertTrue(bfs.isSolved());
+            assertEquals(PathFinder.findRoute(board, PathFinder.Strategy.BFS).size(), bfs.getSteps());
+            assertRouteWalksOpenPassages(board, bfs);
+        }
+    }
+
+    @Test
+    public void answersBatchesInOrder() throws IOException {
+        CompactBoard[] boards = new CompactBoard[50];
+        try (SolverClient client = new SolverClient(server.getPort())) {
+            for (int i = 0; i != boards.length; ++i) {
+                boards[i] = new MazeGenerator(MazeGenerator.Algorithm.ELLER, i).generate(10 + i, 10);
+                client.send(i % 2 == 0 ? "left" : "astar", boards[i]);
+            }
+            for (CompactBoard board : boards) {
+                SolverClient.Response response = client.receive();
+                assertTrue(response.isSolved());
+                assertRouteReachesTarget(board, response);
+            }
+        }
+        assertEquals(50, server.getSolved());
+        assertTrue(server.getBatches() <= 50);
+    }
+
+    @Test
+    public void badRequestsOnlyFailThemselves() throws IOException {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.DIVISION, 3).generate(12, 12);
+
+        try (SolverClient client = new SolverClient(server.getPort())) {
+            client.send("nobody", board);
+            client.send("key", board);
+            client.sendText("left", "3,3\n1,2\n");
+            client.send("left", board);
+
+            assertTrue(client.receive().getError().contains("Unknown walker"));
+            assertTrue(client.receive().isError());
+            assertTrue(client.receive().isError());
+            assertTrue(client.receive().isSolved());
+        }
+        assertEquals(3, server.getErrors());
+    }
+
+    @Test
+    public void hugeMazeHeadersOnlyFailThemselves() throws IOException {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 4).generate(20, 20);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        MazeFile.write(board, binary);
+        ByteBuffer header = ByteBuffer.wrap(binary.toByteArray(), 0, MazeFile.HEADER_SIZE).slice();
+        header.putInt(8, 40000).putInt(12, 40000);
+        byte[] headerOnly = new byte[MazeFile.HEADER_SIZE];
+        header.get(headerOnly);
+
+        try (SolverServer single = new SolverServer(0, 1)) {
+            single.start();
+            try (SolverClient client = new SolverClient(single.getPort())) {
+                client.send(SolverServer.FORMAT_BINARY, "left", headerOnly);
+                client.sendText("left", "40000,40000\n0\n");
+                client.send("left", board);
+
+                assertTrue(client.receive().getError().contains("can't hold"));
+                assertTrue(client.receive().getError().contains("can't hold"));
+                assertTrue(client.receive().isSolved());
+            }
+            assertEquals(2, single.getErrors());
+        }
+    }
+
+    @Test
+    public void cacheOnlyReplaysPlanningWalkers() throws IOException {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 6).generate(30, 30);
+        RouteCache cache = new RouteCache(1 << 20);
+        CompactBoard walked = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 6).generate(30, 30);
+        int leftSteps = new HeadlessSolver().solve(new LeftWalker(), walked).getSteps();
+
+        try (SolverServer cached = new SolverServer(0, 1)) {
+            cached.setRouteCache(cache);
+            cached.start();
+            try (SolverClient client = new SolverClient(cached.getPort())) {
+                int shortest = client.solve("astar", board).getSteps();
+                assertEquals(leftSteps, client.solve("left", board).getSteps());
+                assertEquals(shortest, client.solve("bfs", board).getSteps());
+            }
+        }
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test(timeout = 60_000)
+    public void clientNotReadingOnlyStallsItself() throws Exception {
+        // Responses of many long walks fill the socket buffers of a client that never reads.
+        CompactBoard big = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 2).generate(300, 300);
+        ByteArrayOutputStream maze = new ByteArrayOutputStream();
+        MazeFile.write(big, maze);
+        CompactBoard small = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 3).generate(10, 10);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (SolverClient stalled = new SolverClient(server.getPort())) {
+            Future<?> sending = executor.submit(() -> {
+                for (int i = 0; i != 4 * SolverServer.MAX_PENDING; ++i) {
+                    stalled.send(SolverServer.FORMAT_BINARY, "left", maze.toByteArray());
+                }
+                return null;
+            });
+            Thread.sleep(500);
+
+            try (SolverClient other = new SolverClient(server.getPort())) {
+                assertTrue(other.solve("left", small).isSolved());
+            }
+            sending.cancel(true);
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void assertRouteWalksOpenPassages(GridBoard board, SolverClient.Response response) {
+        assertRouteReachesTarget(board, response);
+        PathRecorder.Replay replay = response.getRoute();
+        int x = replay.getX();
+        int y = replay.getY();
+        while (replay.next()) {
+            int direction = 0;
+            while (x + GridBoard.dx(direction) != replay.getX() || y + GridBoard.dy(direction) != replay.getY()) {
+                direction++;
+            }
+            assertTrue("Route walks through a wall at " + x + "," + y, board.mayMove(x, y, direction));
+            x = replay.getX();
+            y = replay.getY();
+        }
+    }
+
+    private static void assertRouteReachesTarget(GridBoard board, SolverClient.Response response) {
+        PathRecorder.Replay replay = response.getRoute();
+        assertEquals(board.getStartX(), replay.getX());
+        assertEquals(board.getStartY(), replay.getY());
+        int steps = 0;
+        while (replay.next()) {
+            steps++;
+        }
+        assertEquals(response.getSteps(), steps);
+        assertEquals(board.getTargetX(), replay.getX());
+        assertEquals(board.getTargetY(), replay.getY());
+    }
+}
@@ -0,0 +1,139 @@
+package main;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>SquareSnapshotStack</code> against <code>ArrayDeque</code>.
+ */
+public class SquareSnapshotStackTests {
+
+    @Test
+    public void snapshotsRoundTrip() {
+        SquareSnapshotStack stack = new SquareSnapshotStack();
+        for (int taken = 0; taken != 4; ++taken) {
+            for (int facing = 0; facing != 4; ++facing) {
+                stack.push(taken, facing);
+                assertEquals(taken, SquareSnapshotStack.takenDirectionOf(stack.peek()));
+                assertEquals(facing, SquareSnapshotStack.facingDirectionOf(stack.peek()));
+            }
+        }
+
+        assertEquals(16, stack.size());
+        for (int i = 15; i >= 0; --i) {
+            int snapshot = stack.pop();
+            assertEquals(i / 4, SquareSnapshotStack.takenDirectionOf(snapshot));
+            assertEquals(i % 4, SquareSnapshotStack.facingDirectionOf(snapshot));
+        }
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    public void growsAndShrinks() {
+        SquareSnapshotStack stack = new SquareSnapshotStack();
+        int initialCapacity = stack.capacity();
+        Deque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(42);
+
+        // Push well past the initial capacity, in words overwritten by earlier pops.
+        for (int i = 0; i != 10 * initialCapacity; ++i) {
+            if (!expected.isEmpty() && random.nextInt(4) == 0) {
+                assertEquals((int) expected.pop(), stack.pop());
+            } else {
+                int taken = random.nextInt(4);
+                int facing = random.nextInt(4);
+                stack.push(taken, facing);
+                expected.push(taken | facing << 2);
+            }
+        }
+        assertEquals(expected.size(), stack.size());
+        assertTrue(stack.capacity() > initialCapacity);
+        int index = stack.size();
+        for (int snapshot : expected) {
+            assertEquals(snapshot, stack.get(--index));
+        }
+
+        // A long unwind gives memory back, down to the initial capacity.
+        while (!expected.isEmpty()) {
+            assertEquals((int) expected.pop(), stack.pop());
+            assertTrue(stack.capacity() >= stack.size());
+        }
+        assertEquals(initialCapacity, stack.capacity());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void popEmpty() {
+        new SquareSnapshotStack().pop();
+    }
+
+    @Test
+    public void truncateBounds() {
+        SquareSnapshotStack stack = new SquareSnapshotStack();
+        for (int i = 0; i != 40; ++i) {
+            stack.push(i % 4, 3 - i % 4);
+        }
+
+        stack.truncate(40);
+        assertEquals(40, stack.size());
+        stack.truncate(17);
+        assertEquals(17, stack.size());
+        assertEquals(16 % 4, SquareSnapshotStack.takenDirectionOf(stack.peek()));
+
+        try {
+            stack.truncate(18);
+            fail("Truncated to more snapshots than there are");
+        } catch (IndexOutOfBoundsException e) {
+            // Expected.
+        }
+        try {
+            stack.truncate(-1);
+            fail("Truncated to a negative size");
+        } catch (IndexOutOfBoundsException e) {
+            // Expected.
+        }
+
+        stack.truncate(0);
+        assertTrue(stack.isEmpty());
+        try {
+            stack.get(0);
+            fail("Got a truncated snapshot");
+        } catch (IndexOutOfBoundsException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void lowWaterMark() {
+        SquareSnapshotStack stack = new SquareSnapshotStack();
+        assertEquals(0, stack.getLowWaterMark());
+
+        for (int i = 0; i != 10; ++i) {
+            stack.push(1, 2);
+        }
+        assertEquals(0, stack.getLowWaterMark());
+        stack.resetLowWaterMark();
+        assertEquals(10, stack.getLowWaterMark());
+
+        // Pushes never lower it, pops do.
+        stack.push(0, 0);
+        stack.pop();
+        stack.pop();
+        stack.pop();
+        stack.push(3, 3);
+        assertEquals(8, stack.getLowWaterMark());
+        assertEquals(9, stack.size());
+
+        stack.truncate(5);
+        assertEquals(5, stack.getLowWaterMark());
+        stack.resetLowWaterMark();
+        assertEquals(5, stack.getLowWaterMark());
+
+        stack.clear();
+        assertEquals(0, stack.getLowWaterMark());
+    }
+}
@@ -0,0 +1,66 @@
+package main;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>Tournament</code> and the <code>WalkerRegistry</code> it draws walkers from.
+ */
+public class TournamentTests {
+
+    @Test
+    public void summarizesEveryWalkerAndSize() throws InterruptedException, IOException {
+        Tournament tournament = new Tournament(Arrays.asList("smart", "bfs", "astar"), new int[]{8, 16}, 10,
+                MazeGenerator.Algorithm.KRUSKAL, 3);
+        tournament.setParallelism(2);
+
+        List<Tournament.Summary> summaries = tournament.run();
+
+        assertEquals(6, summaries.size());
+        Tournament.Summary smart = summaries.get(3);
+        Tournament.Summary bfs = summaries.get(4);
+        Tournament.Summary astar = summaries.get(5);
+        assertEquals("smart", smart.getWalkerName());
+        assertEquals(16, smart.getSize());
+        assertEquals(10, bfs.getSolved());
+        // Same boards for every walker, both searches find shortest routes
+        assertEquals(bfs.getMeanSteps(), astar.getMeanSteps(), 0);
+        assertEquals(bfs.getMaxSteps(), astar.getMaxSteps());
+        assertTrue(smart.getMeanSteps() >= bfs.getMeanSteps());
+        assertTrue(bfs.getMedianSteps() <= bfs.getP99Steps());
+        assertTrue(bfs.getP99Steps() <= bfs.getMaxSteps());
+        assertTrue(bfs.getStepsConfidence() > 0);
+
+        StringWriter csv = new StringWriter();
+        Tournament.writeCsv(summaries, csv);
+        assertEquals(7, csv.toString().split("\n").length);
+
+        StringWriter json = new StringWriter();
+        Tournament.writeJson(summaries, json);
+        assertTrue(json.toString().startsWith("[\n  {\"walker\":\"smart\",\"size\":8,\"boards\":10,"));
+    }
+
+    @Test
+    public void registeredWalkersJoin() throws InterruptedException {
+        WalkerRegistry.register("test-route", WalkerRegistry.Kind.PLANNING,
+                (board, threads) -> new RouteWalker(PathFinder.findRoute(board, PathFinder.Strategy.BFS)));
+        assertTrue(WalkerRegistry.headlessNames().contains("test-route"));
+        assertFalse(WalkerRegistry.headlessNames().contains("key"));
+
+        List<Tournament.Summary> summaries = new Tournament(Arrays.asList("test-route"), new int[]{12}, 5,
+                MazeGenerator.Algorithm.ELLER, 1).run();
+
+        assertEquals(5, summaries.get(0).getSolved());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownWalker() {
+        WalkerRegistry.create("no-such-walker", null, 1);
+    }
+}
@@ -0,0 +1,76 @@
+package main;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks both <code>VisitedSquareStore</code> implementations against each other.
+ */
+public class VisitedSquareStoreTests {
+
+    @Test
+    public void emptyStore() {
+        checkEmpty(new HashVisitedSquareStore());
+        checkEmpty(DenseVisitedSquareStore.forBoard(5, 5));
+    }
+
+    @Test
+    public void markExits() {
+        checkMarkExits(new HashVisitedSquareStore());
+        checkMarkExits(DenseVisitedSquareStore.forBoard(5, 5));
+    }
+
+    @Test
+    public void storesAgree() {
+        // Small initial capacity so the hash store has to grow a few times.
+        VisitedSquareStore hashStore = new HashVisitedSquareStore(1);
+        VisitedSquareStore denseStore = DenseVisitedSquareStore.forBoard(100, 100);
+        Random random = new Random(42);
+
+        for (int i = 0; i != 20000; ++i) {
+            int x = random.nextInt(199) - 99;
+            int y = random.nextInt(199) - 99;
+            int direction = random.nextInt(4);
+
+            hashStore.markExit(x, y, direction);
+            denseStore.markExit(x, y, direction);
+        }
+
+        assertEquals(hashStore.size(), denseStore.size());
+        for (int x = -99; x <= 99; ++x) {
+            for (int y = -99; y <= 99; ++y) {
+                assertEquals(hashStore.getExitInfo(x, y), denseStore.getExitInfo(x, y));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void denseStoreBounds() {
+        DenseVisitedSquareStore.forBoard(3, 3).markExit(3, 0, 0);
+    }
+
+    private void checkEmpty(VisitedSquareStore store) {
+        assertEquals(0, store.size());
+        assertEquals(0, store.getExitInfo(0, 0));
+        assertEquals(0, store.getExitInfo(-4, 4));
+    }
+
+    private void checkMarkExits(VisitedSquareStore store) {
+        store.markExit(0, 0, 0);
+        store.markExit(0, 0, 2);
+        store.markExit(-4, 4, 3);
+        store.markExit(4, -4, 1);
+
+        assertEquals(3, store.size());
+        assertEquals(0b0101, store.getExitInfo(0, 0));
+        assertEquals(0b1000, store.getExitInfo(-4, 4));
+        assertEquals(0b0010, store.getExitInfo(4, -4));
+        assertEquals(0, store.getExitInfo(4, 4));
+
+        store.clear();
+        checkEmpty(store);
+    }
+}
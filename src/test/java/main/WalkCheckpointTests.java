@@ -0,0 +1,106 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that walks resumed from a <code>WalkCheckpoint</code> end like uninterrupted ones.
+ */
+public class WalkCheckpointTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static CompactBoard board(long seed) {
+        return new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, seed).generate(40, 30);
+    }
+
+    @Test
+    public void resumedWalkEndsLikeUninterruptedOne() throws IOException {
+        for (String walkerName : new String[]{"left", "smart"}) {
+            CompactBoard board = board(5);
+            LeftWalker walker = walkerName.equals("left") ? new LeftWalker() : new SmarterLeftWalker();
+            SolveResult uninterrupted = new HeadlessSolver().solve(walker, board);
+            assertTrue(uninterrupted.isSolved());
+
+            // Walk a bit at a time, as if the process was killed after the last snapshot.
+            Path file = folder.newFile().toPath();
+            CompactBoard interruptedBoard = board(5);
+            WalkCheckpoint checkpoint = WalkCheckpoint.start(file, interruptedBoard, walkerName);
+            HeadlessSolver solver = new HeadlessSolver(uninterrupted.getSteps() / 5);
+            solver.setMoveListener(checkpoint);
+            for (int i = 0; i != 3; ++i) {
+                solver.solve(checkpoint.getWalker(), interruptedBoard);
+                checkpoint.snapshot();
+            }
+            checkpoint.close();
+            assertEquals(4, checkpoint.getSnapshots());
+            assertFalse(interruptedBoard.isSolved());
+
+            CompactBoard resumedBoard = board(5);
+            WalkCheckpoint resumed = WalkCheckpoint.resume(file, resumedBoard);
+            assertEquals(checkpoint.getSteps(), resumed.getSteps());
+            assertEquals(interruptedBoard.getPosX(), resumedBoard.getPosX());
+            assertEquals(interruptedBoard.getPosY(), resumedBoard.getPosY());
+
+            HeadlessSolver resumedSolver = new HeadlessSolver();
+            resumedSolver.setMoveListener(resumed);
+            assertTrue(resumedSolver.solve(resumed.getWalker(), resumedBoard).isSolved());
+            resumed.close();
+            assertEquals(walkerName, uninterrupted.getSteps(), resumed.getSteps());
+            assertEquals(walkerName, walker.getRevisits(), resumed.getWalker().getRevisits());
+            assertEquals(walkerName, walker.getBacktracks(), resumed.getWalker().getBacktracks());
+        }
+    }
+
+    @Test
+    public void truncatedSnapshotIsDropped() throws IOException {
+        Path file = folder.newFile().toPath();
+        CompactBoard board = board(8);
+        WalkCheckpoint checkpoint = WalkCheckpoint.start(file, board, "smart");
+        HeadlessSolver solver = new HeadlessSolver(50);
+        solver.setMoveListener(checkpoint);
+        solver.solve(checkpoint.getWalker(), board);
+        checkpoint.close();
+        long size = Files.size(file);
+
+        // A crash in the middle of writing a snapshot.
+        ByteBuffer partial = ByteBuffer.allocate(12).putInt(100).putInt(1234).putInt(0);
+        partial.flip();
+        Files.write(file, partial.array(), StandardOpenOption.APPEND);
+
+        CompactBoard resumedBoard = board(8);
+        WalkCheckpoint resumed = WalkCheckpoint.resume(file, resumedBoard);
+        assertEquals(1, resumed.getSnapshots());
+        assertEquals(checkpoint.getSteps(), resumed.getSteps());
+        assertEquals(board.getPosX(), resumedBoard.getPosX());
+        assertEquals(board.getPosY(), resumedBoard.getPosY());
+        assertEquals(size, Files.size(file));
+
+        resumed.close();
+        assertEquals(2, resumed.getSnapshots());
+        assertTrue(Files.size(file) > size);
+    }
+
+    @Test
+    public void checkpointOfAnotherBoardIsRejected() throws IOException {
+        Path file = folder.newFile().toPath();
+        WalkCheckpoint.start(file, board(1), "left").close();
+
+        try {
+            WalkCheckpoint.resume(file, board(2));
+            fail("Checkpoint of another board was resumed");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("another board"));
+        }
+    }
+}
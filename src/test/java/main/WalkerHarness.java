@@ -0,0 +1,224 @@
+package main;
+
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import maze.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Solves seeded random mazes headless and checks every walk.
+ * <p>
+ * A case is a maze of random size generated from its seed, so a failing case can be
+ * rerun alone. Mazes may get loops by opening some of their walls at random. Every walk is
+ * replayed on a fresh copy of the maze: each move has to be open, the walk has to end on
+ * the target and take no fewer steps than a shortest route and no more than the walker's
+ * bound. Time per case (creating the walker and solving) is collected in a
+ * <code>LatencyHistogram</code>.
+ * <p>
+ * System properties: <code>maze.harness.cases</code> sets the number of cases per run,
+ * <code>maze.harness.budgetScale</code> turns timing budgets on and scales them. They are
+ * off by default since shared build machines can't keep them; the Maven profile
+ * <code>timing</code> turns them on.
+ */
+final class WalkerHarness {
+
+    static final int CASES = Integer.getInteger("maze.harness.cases", 200);
+    static final double BUDGET_SCALE = Double.parseDouble(System.getProperty("maze.harness.budgetScale", "0"));
+
+    /**
+     * Upper bound of the steps a walker may take on a maze.
+     */
+    interface StepBound {
+
+        /**
+         * @param passages number of open walls between squares of the maze
+         * @param shortest length of a shortest route
+         * @return most steps allowed
+         */
+        long of(long passages, int shortest);
+    }
+
+    /**
+     * Any walk on a perfect maze following one wall passes every passage at most twice,
+     * so does Tremaux's on any maze.
+     */
+    static final StepBound WALL_FOLLOWING = (passages, shortest) -> 2 * passages;
+    /**
+     * Pledge makes five attempts, Brent's check ends each one within a few rounds of every passage.
+     */
+    static final StepBound PLEDGE = (passages, shortest) -> 5 * 8 * (passages + 1);
+    static final StepBound SHORTEST = (passages, shortest) -> shortest;
+    /**
+     * Routes through entrances wider than one passage, as <code>RegionIndex</code> finds on mazes
+     * with loops, may take a few extra steps.
+     */
+    static final StepBound NEAR_SHORTEST = (passages, shortest) -> shortest + shortest / 4 + 4;
+    static final StepBound ANY = (passages, shortest) -> Long.MAX_VALUE;
+
+    private final String name;
+    private final Function<GridBoard, Walker> walkers;
+    private final StepBound bound;
+    private final long maxMoves;
+    private final LatencyHistogram caseNanos = new LatencyHistogram();
+    private boolean mayGiveUp = false;
+    private long totalSteps = 0;
+
+    /**
+     * Create new <code>WalkerHarness</code>
+     *
+     * @param name     name of the run in failures and reports
+     * @param walkers  creates a fresh walker for a maze, which it may look at
+     * @param bound    most steps allowed per maze
+     * @param maxMoves moves after which a walk counts as not terminating
+     */
+    WalkerHarness(String name, Function<GridBoard, Walker> walkers, StepBound bound, long maxMoves) {
+        this.name = name;
+        this.walkers = walkers;
+        this.bound = bound;
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Let walks end off the target, as Pledge's does when the target stands on an island.
+     * They still have to end before <code>maxMoves</code> and walk through open walls only.
+     *
+     * @param mayGiveUp whether a walk may end off the target
+     */
+    void setMayGiveUp(boolean mayGiveUp) {
+        this.mayGiveUp = mayGiveUp;
+    }
+
+    /**
+     * Solve <code>cases</code> perfect mazes, seeded <code>firstSeed</code> onwards.
+     *
+     * @param algorithm generates the mazes
+     * @param firstSeed seed of the first maze
+     * @param cases     number of mazes
+     * @param maxSide   largest width and height of a maze
+     */
+    void run(MazeGenerator.Algorithm algorithm, long firstSeed, int cases, int maxSide) {
+        run(algorithm, firstSeed, cases, maxSide, 0);
+    }
+
+    /**
+     * Solve <code>cases</code> mazes, seeded <code>firstSeed</code> onwards, each with
+     * loops made by opening some of its inner walls.
+     *
+     * @param algorithm     generates the mazes
+     * @param firstSeed     seed of the first maze
+     * @param cases         number of mazes
+     * @param maxSide       largest width and height of a maze
+     * @param openWallRatio chance of each inner wall to be opened, 0 for perfect mazes
+     */
+    void run(MazeGenerator.Algorithm algorithm, long firstSeed, int cases, int maxSide, double openWallRatio) {
+        for (long seed = firstSeed; seed != firstSeed + cases; ++seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int width = 1 + random.nextInt(maxSide);
+            int height = 1 + random.nextInt(maxSide);
+            MazeGenerator generator = new MazeGenerator(algorithm, seed);
+            generator.setParallelism(1);
+            CompactBoard board = generator.generate(width, height);
+            if (openWallRatio > 0) {
+                openWalls(board, random, openWallRatio);
+            }
+            check(board, algorithm + " seed " + seed + " " + width + "x" + height
+                    + (openWallRatio > 0 ? " open " + openWallRatio : ""));
+        }
+    }
+
+    private static void openWalls(CompactBoard board, SplittableRandom random, double openWallRatio) {
+        for (int y = 0; y != board.getHeight(); ++y) {
+            for (int x = 0; x != board.getWidth(); ++x) {
+                // East and south walls, so every inner wall gets one chance.
+                if (x != board.getWidth() - 1 && random.nextDouble() < openWallRatio) {
+                    board.setWall(x, y, 1, false);
+                }
+                if (y != board.getHeight() - 1 && random.nextDouble() < openWallRatio) {
+                    board.setWall(x, y, 2, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param board a maze
+     * @return number of open walls between its squares
+     */
+    private static long passagesOf(GridBoard board) {
+        long passages = 0;
+        for (int y = 0; y != board.getHeight(); ++y) {
+            for (int x = 0; x != board.getWidth(); ++x) {
+                if (x != board.getWidth() - 1 && !board.hasWall(x, y, 1)) {
+                    passages++;
+                }
+                if (y != board.getHeight() - 1 && !board.hasWall(x, y, 2)) {
+                    passages++;
+                }
+            }
+        }
+        return passages;
+    }
+
+    /**
+     * Solve one maze and check the walk.
+     *
+     * @param board    a maze with the walker on its start square
+     * @param caseName tells the maze apart in failures
+     */
+    void check(CompactBoard board, String caseName) {
+        int shortest = PathFinder.findRoute(board, PathFinder.Strategy.BFS).size();
+
+        long time = System.nanoTime();
+        SolveResult result = new HeadlessSolver(maxMoves).solve(walkers.apply(board), board);
+        caseNanos.record(System.nanoTime() - time);
+
+        String where = name + ", " + caseName;
+        long allowed = bound.of(passagesOf(board), shortest);
+        if (mayGiveUp && !result.isSolved()) {
+            assertTrue(where + ": still walking after " + result.getSteps() + " steps", result.getSteps() < maxMoves);
+        } else {
+            assertTrue(where + ": no solution after " + result.getSteps() + " steps", result.isSolved());
+            assertTrue(where + ": " + result.getSteps() + " steps, shortest route is " + shortest,
+                    result.getSteps() >= shortest);
+        }
+        assertTrue(where + ": " + result.getSteps() + " steps, allowed " + allowed, result.getSteps() <= allowed);
+
+        // Replay on the same maze from the start, every move must be open.
+        board.reset();
+        MoveBuffer moves = result.getMoves();
+        for (int i = 0; i != moves.size(); ++i) {
+            assertTrue(where + ": move " + i + " walks into a wall", board.move(moves.get(i)));
+        }
+        assertEquals(where + ": replay and solve disagree on reaching the target", result.isSolved(), board.isSolved());
+        totalSteps += result.getSteps();
+    }
+
+    /**
+     * Fail if the median time per case is above the budget, scaled by
+     * <code>maze.harness.budgetScale</code>.
+     *
+     * @param medianBudgetMicros budget of the median case, in microseconds
+     */
+    void checkTiming(long medianBudgetMicros) {
+        if (BUDGET_SCALE <= 0) {
+            return;
+        }
+        long budgetNanos = (long) (medianBudgetMicros * 1000 * BUDGET_SCALE);
+        long median = caseNanos.getValueAtPercentile(50);
+        assertTrue(name + ": median case took " + median / 1000 + "us, budget is " + budgetNanos / 1000 + "us",
+                median <= budgetNanos);
+    }
+
+    /**
+     * @return one line with the number of cases, steps and time per case
+     */
+    String report() {
+        long cases = caseNanos.getCount();
+        return String.format("%s: %d cases, %.1f steps/case, mean %.1fus, p50 %dus, p99 %dus, max %dus",
+                name, cases, cases == 0 ? 0 : (double) totalSteps / cases, caseNanos.getMean() / 1000,
+                caseNanos.getValueAtPercentile(50) / 1000, caseNanos.getValueAtPercentile(99) / 1000,
+                caseNanos.getMax() / 1000);
+    }
+}
@@ -0,0 +1,60 @@
+package main;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks <code>InstrumentedWalker</code> and the histogram behind its latencies.
+ */
+public class WalkerMetricsTests {
+
+    @Test
+    public void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10_000; ++value) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 1e-9);
+        // Within the precision of a bucket
+        assertEquals(5000, histogram.getValueAtPercentile(50), 5000 * 0.04);
+        assertEquals(9900, histogram.getValueAtPercentile(99), 9900 * 0.04);
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void countsMovesAndProbes() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 5).generate(20, 20);
+        SmarterLeftWalker walker = new SmarterLeftWalker();
+        InstrumentedWalker instrumentedWalker = new InstrumentedWalker(walker);
+
+        SolveResult result = new HeadlessSolver().solve(instrumentedWalker, board);
+        WalkerMetrics metrics = instrumentedWalker.getMetrics();
+
+        assertTrue(result.isSolved());
+        // Smarter walker never bumps into walls, every move is a step
+        assertEquals(result.getSteps(), metrics.getSteps());
+        assertTrue(metrics.getProbes() >= metrics.getSteps());
+        assertEquals(metrics.getSteps(), metrics.getVisitedSquares() + metrics.getRevisits());
+        assertEquals(walker.getBacktracks(), metrics.getBacktracks());
+    }
+
+    @Test
+    public void disabledRecordsNothing() {
+        CompactBoard board = new MazeGenerator(MazeGenerator.Algorithm.KRUSKAL, 5).generate(20, 20);
+        InstrumentedWalker instrumentedWalker = new InstrumentedWalker(new LeftWalker());
+        instrumentedWalker.getMetrics().setEnabled(false);
+
+        SolveResult result = new HeadlessSolver().solve(instrumentedWalker, board);
+
+        assertTrue(result.isSolved());
+        assertEquals(0, instrumentedWalker.getMetrics().getSteps());
+        assertEquals(0, instrumentedWalker.getMetrics().getProbes());
+    }
+}
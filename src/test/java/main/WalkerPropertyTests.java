@@ -0,0 +1,103 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import maze.*;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Every walker on thousands of seeded perfect mazes from every generator, solved headless,
+ * and the walkers meant for loops on the same mazes with some walls opened.
+ * See <code>WalkerHarness</code> for what is checked of each walk.
+ */
+@RunWith(Parameterized.class)
+public class WalkerPropertyTests {
+
+    private static final int MAX_SIDE = 40;
+    private static final int RANDOM_MAX_SIDE = 8;
+    private static final double LOOPS_OPEN_WALL_RATIO = 0.1;
+
+    @Parameters(name = "{0} {1} open {2}")
+    public static Collection<Object[]> parameters() {
+        Object[][] walkers = {
+                // name, walker, step bound, step bound with loops (null to skip them), may give up with loops,
+                // median budget in microseconds (random walks get small mazes)
+                {"Left", (Function<GridBoard, Walker>) board -> new LeftWalker(),
+                        WalkerHarness.WALL_FOLLOWING, null, false, 2_000L},
+                {"SmarterLeft", (Function<GridBoard, Walker>) board -> new SmarterLeftWalker(),
+                        WalkerHarness.WALL_FOLLOWING, null, false, 2_000L},
+                {"CachingLeft", (Function<GridBoard, Walker>) board -> new CachingWalker(new LeftWalker()),
+                        WalkerHarness.WALL_FOLLOWING, null, false, 4_000L},
+                {"Pledge", (Function<GridBoard, Walker>) board ->
+                        new PledgeTremauxWalker(PledgeTremauxWalker.Mode.PLEDGE),
+                        WalkerHarness.PLEDGE, WalkerHarness.PLEDGE, true, 4_000L},
+                {"Tremaux", (Function<GridBoard, Walker>) board ->
+                        new PledgeTremauxWalker(PledgeTremauxWalker.Mode.TREMAUX),
+                        WalkerHarness.WALL_FOLLOWING, WalkerHarness.WALL_FOLLOWING, false, 4_000L},
+                {"BFS", (Function<GridBoard, Walker>) board ->
+                        new ShortestPathWalker(board, PathFinder.Strategy.BFS),
+                        WalkerHarness.SHORTEST, WalkerHarness.SHORTEST, false, 2_000L},
+                {"AStar", (Function<GridBoard, Walker>) board ->
+                        new ShortestPathWalker(board, PathFinder.Strategy.A_STAR),
+                        WalkerHarness.SHORTEST, WalkerHarness.SHORTEST, false, 2_000L},
+                {"ParallelBFS", (Function<GridBoard, Walker>) board -> new ParallelShortestPathWalker(board, 2),
+                        WalkerHarness.SHORTEST, WalkerHarness.SHORTEST, false, 10_000L},
+                {"Region", (Function<GridBoard, Walker>) board -> new RegionRouteWalker(board, 2),
+                        WalkerHarness.SHORTEST, WalkerHarness.NEAR_SHORTEST, false, 10_000L},
+                {"Random", (Function<GridBoard, Walker>) board -> new RandomWalker(),
+                        WalkerHarness.ANY, WalkerHarness.ANY, false, 20_000L},
+        };
+
+        List<Object[]> parameters = new ArrayList<>();
+        for (Object[] walker : walkers) {
+            for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+                parameters.add(new Object[]{walker[0], algorithm, 0.0, walker[1], walker[2], false, walker[5]});
+                if (walker[3] != null) {
+                    parameters.add(new Object[]{walker[0], algorithm, LOOPS_OPEN_WALL_RATIO, walker[1], walker[3],
+                            walker[4], walker[5]});
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private final String walkerName;
+    private final MazeGenerator.Algorithm algorithm;
+    private final double openWallRatio;
+    private final Function<GridBoard, Walker> walkers;
+    private final WalkerHarness.StepBound bound;
+    private final boolean mayGiveUp;
+    private final long medianBudgetMicros;
+
+    public WalkerPropertyTests(String walkerName, MazeGenerator.Algorithm algorithm, double openWallRatio,
+                               Function<GridBoard, Walker> walkers, WalkerHarness.StepBound bound,
+                               boolean mayGiveUp, long medianBudgetMicros) {
+        this.walkerName = walkerName;
+        this.algorithm = algorithm;
+        this.openWallRatio = openWallRatio;
+        this.walkers = walkers;
+        this.bound = bound;
+        this.mayGiveUp = mayGiveUp;
+        this.medianBudgetMicros = medianBudgetMicros;
+    }
+
+    @Test
+    public void solvesSeededMazes() {
+        WalkerHarness harness = new WalkerHarness(walkerName + " " + algorithm, walkers, bound, 1_000_000);
+        harness.setMayGiveUp(mayGiveUp);
+        try {
+            harness.run(algorithm, 1, WalkerHarness.CASES, bound == WalkerHarness.ANY ? RANDOM_MAX_SIDE : MAX_SIDE,
+                    openWallRatio);
+            harness.checkTiming(medianBudgetMicros);
+        } catch (AssertionError e) {
+            throw new AssertionError(harness.report() + ": " + e.getMessage(), e);
+        }
+    }
+}